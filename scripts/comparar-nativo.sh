@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Compara o executavel nativo com a JVM: tempo ate o primeiro GET /mensagens com 200, memoria
+# residente (RSS) depois da carga e vazao em regime (requisicoes/s no GET /mensagens).
+#
+# Pre-requisitos: ./mvnw -Pnative package -DskipTests (GraalVM 22.3+ no PATH) para o nativo,
+#                 ./mvnw package -DskipTests para o fat jar e o "ab" (apache2-utils) para a carga.
+# Uso: scripts/comparar-nativo.sh [requisicoes] [concorrencia]   (padrao 20000 e 16)
+set -euo pipefail
+
+REQUISICOES=${1:-20000}
+CONCORRENCIA=${2:-16}
+PORTA=${PORTA:-18080}
+CHAVE=comparacao-nativo
+URL="http://localhost:${PORTA}/mensagens"
+
+cd "$(dirname "$0")/../target"
+FAT_JAR=$(ls demo-codigo-*.jar | grep -v -- '-startup' | head -n 1)
+NATIVO=./demo-codigo
+
+ARGS=(-Dserver.port=${PORTA} -Dlogging.level.root=WARN -Dlogging.level.org.example=WARN)
+
+aguardar_primeira_resposta() {
+  until curl -sf -o /dev/null "${URL}"; do
+    sleep 0.01
+  done
+}
+
+rss_mb() {
+  awk '/VmRSS/ { printf "%d", $2 / 1024 }' "/proc/$1/status"
+}
+
+popular() {
+  for ((i = 0; i < 50; i++)); do
+    curl -sf -o /dev/null -X POST -H "X-API-Key: ${CHAVE}" -H 'Content-Type: application/json' \
+      -d "{\"usuario\":\"carga\",\"conteudo\":\"mensagem ${i}\"}" "${URL}"
+  done
+}
+
+vazao() {
+  ab -q -k -n "${REQUISICOES}" -c "${CONCORRENCIA}" "${URL}?page=0&size=10" \
+    | awk '/Requests per second/ { printf "%d", $4 }'
+}
+
+comparar() {
+  local nome=$1
+  shift
+  local inicio fim pid partida rss_inicial rps rss_final
+  inicio=$(date +%s%N)
+  API_KEYS=${CHAVE} "$@" > /dev/null 2>&1 &
+  pid=$!
+  aguardar_primeira_resposta
+  fim=$(date +%s%N)
+  partida=$(( (fim - inicio) / 1000000 ))
+  rss_inicial=$(rss_mb ${pid})
+  popular
+  # aquecimento (JIT na JVM) antes da medicao em regime
+  ab -q -k -n $((REQUISICOES / 4)) -c "${CONCORRENCIA}" "${URL}?page=0&size=10" > /dev/null
+  rps=$(vazao)
+  rss_final=$(rss_mb ${pid})
+  kill ${pid}
+  wait ${pid} 2> /dev/null || true
+  printf '%-8s %8s ms %10s MB %10s MB %10s req/s\n' "${nome}" "${partida}" "${rss_inicial}" \
+    "${rss_final}" "${rps}"
+}
+
+echo "modo     partida     RSS inicial  RSS final    vazao"
+comparar "jvm"    java "${ARGS[@]}" -jar "${FAT_JAR}"
+comparar "nativo" "${NATIVO}" "${ARGS[@]}"
@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Mede a imagem docker/Dockerfile localmente: tamanho das camadas e, para cada limite de memoria
+# e perfil de GC, o tempo ate o primeiro GET /mensagens com 200, o heap maximo escolhido pela JVM
+# e o consumo de memoria do container depois de uma carga curta.
+#
+# Pre-requisito: make docker-image
+# Uso: scripts/medir-container.sh [imagem]   (padrao demo/aplicacao)
+set -euo pipefail
+
+IMAGEM=${1:-demo/aplicacao}
+PORTA=${PORTA:-18080}
+CHAVE=medicao-container
+URL="http://localhost:${PORTA}/mensagens"
+NOME=medicao-container
+
+aguardar_primeira_resposta() {
+  until curl -sf -o /dev/null "${URL}"; do
+    sleep 0.01
+  done
+}
+
+heap_maximo_mb() {
+  curl -sf -H "X-API-Key: ${CHAVE}" \
+    "http://localhost:${PORTA}/actuator/metrics/jvm.memory.max?tag=area:heap" \
+    | sed -E 's/.*"value":([0-9.E]+).*/\1/' | awk '{ printf "%d", $1 / 1048576 }'
+}
+
+medir() {
+  local memoria=$1 gc=$2 inicio fim
+  docker rm -f "${NOME}" > /dev/null 2>&1 || true
+  inicio=$(date +%s%N)
+  docker run -d --name "${NOME}" --memory "${memoria}" --cpus 2 -p "${PORTA}:8080" \
+    -e API_KEYS=${CHAVE} -e PERFIL_GC="${gc}" "${IMAGEM}" > /dev/null
+  aguardar_primeira_resposta
+  fim=$(date +%s%N)
+  for ((i = 0; i < 500; i++)); do
+    curl -sf -o /dev/null "${URL}?page=0&size=10"
+  done
+  printf '%-8s %-5s %8s ms %10s MB   %s\n' "${memoria}" "${gc}" $(( (fim - inicio) / 1000000 )) \
+    "$(heap_maximo_mb)" \
+    "$(docker stats --no-stream --format '{{.MemUsage}}' "${NOME}")"
+  docker rm -f "${NOME}" > /dev/null
+}
+
+echo "camadas da imagem ${IMAGEM}:"
+docker history --format '{{.Size}}\t{{.CreatedBy}}' "${IMAGEM}" | grep 'COPY --from' \
+  | sed -E 's/COPY --from=camadas \/build\/([^ ]+).*/\1/'
+echo
+
+echo "limite   gc    partida     heap max   memoria do container"
+for memoria in 512m 1g 2g; do
+  medir "${memoria}" g1
+done
+medir 2g zgc
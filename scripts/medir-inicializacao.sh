@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# Mede o tempo de inicializacao da API (do lancamento da JVM ate o primeiro GET /mensagens com
+# 200) em cada modo: fat jar, jar fino, lazy init, Spring AOT, AppCDS e combinacoes.
+#
+# Pre-requisito: ./mvnw package -Pstartup -DskipTests
+# Uso: scripts/medir-inicializacao.sh [repeticoes]   (padrao 5; imprime a mediana em ms)
+set -euo pipefail
+
+REPETICOES=${1:-5}
+PORTA=${PORTA:-18080}
+CHAVE_TREINO=treino-cds
+URL="http://localhost:${PORTA}/mensagens"
+
+# as execucoes rodam em target/startup para que os arquivos de log fiquem ali
+cd "$(dirname "$0")/../target/startup"
+FAT_JAR=$(ls ../demo-codigo-*.jar | head -n 1)
+JAR_FINO=$(ls demo-codigo-*-startup.jar | head -n 1)
+
+JVM_ARGS=(-Dserver.port=${PORTA} -Dlogging.level.root=WARN -Dlogging.level.org.example=WARN)
+AOT=(-Dspring.aot.enabled=true)
+LAZY=(-Dspring.main.lazy-initialization=true)
+
+aguardar_primeira_resposta() {
+  until curl -sf -o /dev/null "${URL}"; do
+    sleep 0.01
+  done
+}
+
+# Gera o arquivo AppCDS estatico a partir de uma execucao de treino: sobe a API, atende uma
+# requisicao e encerra pelo actuator; a lista de classes carregadas e gravada na saida da JVM.
+# O arquivo dinamico (-XX:ArchiveClassesAtExit) derruba a JVM 17.0.9 com esta aplicacao.
+treinar() {
+  local arquivo=$1
+  shift
+  rm -f "${arquivo}" "${arquivo%.jsa}.classlist" "${arquivo%.jsa}.lista"
+  API_KEYS=${CHAVE_TREINO} java -XX:DumpLoadedClassList="${arquivo%.jsa}.classlist" \
+    "${JVM_ARGS[@]}" "$@" -jar "${JAR_FINO}" > treino.log 2>&1 &
+  local pid=$!
+  aguardar_primeira_resposta
+  curl -sf -o /dev/null -X POST -H "X-API-Key: ${CHAVE_TREINO}" \
+    "http://localhost:${PORTA}/actuator/shutdown"
+  wait ${pid} || true
+  # proxies de lambda ficam fora: arquiva-los derruba o -Xshare:dump da JVM 17.0.9
+  grep -v '^@lambda-proxy' "${arquivo%.jsa}.classlist" > "${arquivo%.jsa}.lista"
+  java -Xshare:dump -XX:SharedClassListFile="${arquivo%.jsa}.lista" \
+    -XX:SharedArchiveFile="${arquivo}" -cp "${JAR_FINO}" > dump.log 2>&1
+}
+
+medir() {
+  local inicio fim pid
+  inicio=$(date +%s%N)
+  java "$@" > /dev/null 2>&1 &
+  pid=$!
+  aguardar_primeira_resposta
+  fim=$(date +%s%N)
+  kill ${pid}
+  wait ${pid} 2> /dev/null || true
+  echo $(( (fim - inicio) / 1000000 ))
+}
+
+mediana() {
+  sort -n | awk '{ valores[NR] = $1 } END { print valores[int((NR + 1) / 2)] }'
+}
+
+comparar() {
+  local nome=$1
+  shift
+  local tempos=()
+  for ((i = 0; i < REPETICOES; i++)); do
+    tempos+=("$(medir "$@")")
+  done
+  printf '%-14s %6s ms   (%s)\n' "${nome}" "$(printf '%s\n' "${tempos[@]}" | mediana)" \
+    "${tempos[*]}"
+}
+
+echo "treinando arquivos AppCDS..."
+treinar app.jsa
+treinar app-aot.jsa "${AOT[@]}"
+
+echo "modo           mediana   (execucoes)"
+comparar "fat-jar"      "${JVM_ARGS[@]}" -jar "${FAT_JAR}"
+comparar "jar-fino"     "${JVM_ARGS[@]}" -jar "${JAR_FINO}"
+comparar "lazy"         "${JVM_ARGS[@]}" "${LAZY[@]}" -jar "${JAR_FINO}"
+comparar "aot"          "${JVM_ARGS[@]}" "${AOT[@]}" -jar "${JAR_FINO}"
+comparar "cds"          "${JVM_ARGS[@]}" -XX:SharedArchiveFile=app.jsa -jar "${JAR_FINO}"
+comparar "aot+cds"      "${JVM_ARGS[@]}" "${AOT[@]}" -XX:SharedArchiveFile=app-aot.jsa \
+  -jar "${JAR_FINO}"
+comparar "aot+cds+lazy" "${JVM_ARGS[@]}" "${AOT[@]}" "${LAZY[@]}" \
+  -XX:SharedArchiveFile=app-aot.jsa -jar "${JAR_FINO}"
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Executa uma simulacao Gatling contra a API gravando com o Java Flight Recorder e grava, ao lado
+# do relatorio do Gatling, o resumo da gravacao (alocacao, pausas de GC, contencao e metodos
+# quentes). A gravacao fica em target/jfr/<simulacao>-<data>.jfr.
+#
+# Pre-requisito: ./mvnw package -DskipTests
+# Uso: scripts/perfil-jfr.sh [simulacao]   (padrao ApiPerformanceSimulation)
+set -euo pipefail
+
+SIMULACAO=${1:-ApiPerformanceSimulation}
+CHAVE=perfil-jfr
+URL="http://localhost:8080/mensagens"
+
+cd "$(dirname "$0")/.."
+FAT_JAR=$(ls target/demo-codigo-*.jar | head -n 1)
+mkdir -p target/jfr
+GRAVACAO="target/jfr/$(echo "${SIMULACAO}" | tr '[:upper:]' '[:lower:]')-$(date +%Y%m%d%H%M%S).jfr"
+
+# settings=profile amostra pilhas a cada 10 ms e registra alocacoes e esperas de lock acima de 10 ms
+API_KEYS=${CHAVE} java \
+  -XX:StartFlightRecording=settings=profile,filename="${GRAVACAO}",dumponexit=true \
+  -jar "${FAT_JAR}" --logging.level.root=WARN > target/jfr/aplicacao.log 2>&1 &
+PID=$!
+trap 'kill ${PID} 2> /dev/null || true' EXIT
+
+until curl -sf -o /dev/null "${URL}"; do
+  sleep 0.2
+done
+
+STATUS=0
+./mvnw -q gatling:test -Pperformance-test \
+  -Dgatling.simulationClass="org.example.performance.${SIMULACAO}" || STATUS=$?
+
+# o encerramento pelo actuator grava o arquivo (dumponexit)
+curl -sf -o /dev/null -X POST -H "X-API-Key: ${CHAVE}" "http://localhost:8080/actuator/shutdown"
+wait ${PID} || true
+
+RELATORIO=$(ls -td target/gatling/"$(echo "${SIMULACAO}" | tr '[:upper:]' '[:lower:]')"-*/ \
+  2> /dev/null | head -n 1)
+java src/test/java/org/example/performance/ResumoJfr.java "${GRAVACAO}" \
+  "${RELATORIO:-target/jfr/}resumo-jfr.txt"
+exit ${STATUS}
@@ -0,0 +1,54 @@
+package org.example.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas simultâneas com a mesma chave: a primeira executa a consulta e as demais
+ * aguardam e recebem o mesmo resultado (ou a mesma exceção). Nada é guardado depois que a
+ * consulta termina; a próxima chamada com a chave executa de novo.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+
+  public V executar(K chave, Supplier<V> consulta) {
+    var nova = new CompletableFuture<V>();
+    var existente = emAndamento.putIfAbsent(chave, nova);
+    if (existente != null) {
+      return aguardar(existente);
+    }
+
+    try {
+      var valor = consulta.get();
+      nova.complete(valor);
+      return valor;
+    } catch (RuntimeException | Error e) {
+      nova.completeExceptionally(e);
+      throw e;
+    } finally {
+      emAndamento.remove(chave, nova);
+    }
+  }
+
+  int emAndamento() {
+    return emAndamento.size();
+  }
+
+  private static <V> V aguardar(CompletableFuture<V> consulta) {
+    try {
+      return consulta.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException causa) {
+        throw causa;
+      }
+      if (e.getCause() instanceof Error causa) {
+        throw causa;
+      }
+      throw e;
+    }
+  }
+}
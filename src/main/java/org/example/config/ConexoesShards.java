@@ -0,0 +1,97 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Pools de conexão dos shards, com a tabela {@code mensagem} de cada um já criada. Os shards
+ * configurados são pools Hikari com o nome do shard, medidos no {@link MeterRegistry} como o do
+ * principal ({@code hikaricp.*}, tag {@code pool}) e verificados em
+ * {@code /actuator/health/shards}; os incluídos com o sistema no ar entram na verificação também.
+ */
+public class ConexoesShards implements DisposableBean {
+
+  private static final String CRIAR_TABELA =
+      "CREATE TABLE IF NOT EXISTS mensagem (id UUID PRIMARY KEY, "
+          + "usuario VARCHAR(255) NOT NULL, conteudo VARCHAR(255) NOT NULL, "
+          + "data_criacao TIMESTAMP(6), data_alteracao TIMESTAMP(6), "
+          + "gostei INTEGER DEFAULT 0 NOT NULL, versao INTEGER DEFAULT 1 NOT NULL)";
+
+  private static final String CRIAR_INDICE =
+      "CREATE INDEX IF NOT EXISTS idx_mensagem_data_criacao "
+          + "ON mensagem (data_criacao DESC, id DESC)";
+
+  private static final String CRIAR_INDICE_GOSTEI =
+      "CREATE INDEX IF NOT EXISTS idx_mensagem_gostei ON mensagem (gostei DESC)";
+
+  private final Map<String, DataSource> dataSources =
+      Collections.synchronizedMap(new LinkedHashMap<>());
+
+  public ConexoesShards(ShardingProperties properties, MeterRegistry meterRegistry) {
+    if (!properties.habilitado()) {
+      return;
+    }
+    for (var shard : properties.shards()) {
+      var dataSource = DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .url(shard.url())
+          .username(shard.usuario())
+          .password(shard.senha())
+          .build();
+      dataSource.setPoolName(shard.nome());
+      dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+      adicionar(shard.nome(), dataSource);
+    }
+  }
+
+  /**
+   * Cria a tabela do shard, se ainda não existe, e passa a fechar o pool no desligamento.
+   *
+   * @throws IllegalArgumentException se já há um shard com esse nome
+   */
+  public synchronized void adicionar(String nome, DataSource dataSource) {
+    if (dataSources.containsKey(nome)) {
+      throw new IllegalArgumentException("nó já configurado: " + nome);
+    }
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(CRIAR_TABELA);
+    jdbcTemplate.execute(CRIAR_INDICE);
+    jdbcTemplate.execute(CRIAR_INDICE_GOSTEI);
+    dataSources.put(nome, dataSource);
+  }
+
+  /**
+   * @throws IllegalArgumentException se o shard não foi configurado
+   */
+  public DataSource dataSource(String nome) {
+    var dataSource = dataSources.get(nome);
+    if (dataSource == null) {
+      throw new IllegalArgumentException("nó não configurado: " + nome);
+    }
+    return dataSource;
+  }
+
+  /** Cópia dos pools atuais, na ordem de inclusão. */
+  public Map<String, DataSource> dataSources() {
+    synchronized (dataSources) {
+      return new LinkedHashMap<>(dataSources);
+    }
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    for (var dataSource : dataSources().values()) {
+      if (dataSource instanceof AutoCloseable fechavel) {
+        fechavel.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package org.example.config;
+
+import org.example.dto.HistoricoResponse;
+import org.example.dto.MensagemResponse;
+import org.example.model.Mensagem;
+import org.example.model.MensagemHistorico;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflexão e recursos que a imagem nativa não descobre sozinha: o builder do Lombok usado pelo
+ * {@code @Jacksonized}, a chave composta do histórico, os construtores chamados pelas projeções
+ * {@code SELECT new} do JPQL e a configuração do Caffeine JCache.
+ */
+public class DicasExecucaoNativa implements RuntimeHintsRegistrar {
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    // serializados pelo ObjectMapper fora dos controllers (payloads do outbox)
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+        Mensagem.class, MensagemResponse.class);
+    hints.reflection()
+        .registerType(Mensagem.MensagemBuilder.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS)
+        .registerType(MensagemHistorico.Chave.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS)
+        .registerType(MensagemResponse.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+        .registerType(HistoricoResponse.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    hints.resources()
+        .registerPattern("application.conf")
+        .registerPattern("reference.conf");
+  }
+}
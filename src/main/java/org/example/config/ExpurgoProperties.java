@@ -0,0 +1,19 @@
+package org.example.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Remoção física das mensagens apagadas. A cada execução de {@code cron} são removidos lotes de
+ * até {@code tamanhoLote} linhas apagadas há mais de {@code carencia}, no máximo
+ * {@code maximoLotes} por execução.
+ */
+@ConfigurationProperties(prefix = "expurgo")
+public record ExpurgoProperties(
+    @DefaultValue("true") boolean habilitado,
+    @DefaultValue("0 */10 2-5 * * *") String cron,
+    @DefaultValue("1h") Duration carencia,
+    @DefaultValue("500") int tamanhoLote,
+    @DefaultValue("200") int maximoLotes) {
+}
@@ -0,0 +1,23 @@
+package org.example.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limites por cliente (API key autenticada ou IP) para cada rota configurada em
+ * {@code limite-requisicoes.regras}. Cada regra permite {@code capacidade} requisições por
+ * {@code periodo}, com rajada de até {@code capacidade}. Com {@code peso-por-id}, a requisição
+ * consome um token por id do corpo JSON (um objeto com os ids como chaves), até a capacidade.
+ */
+@ConfigurationProperties(prefix = "limite-requisicoes")
+public record LimiteRequisicoesProperties(
+    @DefaultValue("true") boolean habilitado,
+    @DefaultValue("100000") long maximoClientes,
+    @DefaultValue List<Regra> regras) {
+
+  public record Regra(String metodo, String caminho, long capacidade, Duration periodo,
+      @DefaultValue("false") boolean pesoPorId) {
+  }
+}
@@ -0,0 +1,66 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.example.outbox.PublicadorEventos;
+import org.example.outbox.PublicadorEventosArquivo;
+import org.example.outbox.PublicadorEventosMemoria;
+import org.example.outbox.RelayOutbox;
+import org.example.repository.EventoOutboxRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig implements SchedulingConfigurer {
+
+  private final ObjectProvider<RelayOutbox> relayOutbox;
+
+  private final OutboxProperties properties;
+
+  public OutboxConfig(ObjectProvider<RelayOutbox> relayOutbox, OutboxProperties properties) {
+    this.relayOutbox = relayOutbox;
+    this.properties = properties;
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(PublicadorEventos.class)
+  @ConditionalOnProperty(prefix = "outbox", name = "destino", havingValue = "arquivo")
+  public PublicadorEventos publicadorEventosArquivo(ObjectMapper objectMapper) {
+    return new PublicadorEventosArquivo(properties.arquivo(), objectMapper);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(PublicadorEventos.class)
+  @ConditionalOnProperty(prefix = "outbox", name = "destino", havingValue = "memoria",
+      matchIfMissing = true)
+  public PublicadorEventos publicadorEventosMemoria() {
+    return new PublicadorEventosMemoria(properties.capacidadeMemoria());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "outbox", name = "habilitado", matchIfMissing = true)
+  public RelayOutbox relayOutbox(EventoOutboxRepository eventoOutboxRepository,
+      PublicadorEventos publicador, PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    return new RelayOutbox(eventoOutboxRepository, publicador,
+        new TransactionTemplate(transactionManager), properties, meterRegistry,
+        Clock.systemDefaultZone());
+  }
+
+  /** Agendado aqui para usar o {@code intervalo} como {@link java.time.Duration}. */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    relayOutbox.ifAvailable(relay ->
+        registrar.addFixedDelayTask(relay::drenar, properties.intervalo()));
+  }
+}
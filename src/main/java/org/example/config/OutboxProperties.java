@@ -0,0 +1,21 @@
+package org.example.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Publicação dos eventos do outbox: a cada {@code intervalo} o relay drena lotes de até
+ * {@code tamanhoLote} eventos para o {@code destino} ({@code memoria} ou {@code arquivo}).
+ */
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+    @DefaultValue("true") boolean habilitado,
+    @DefaultValue("100") int tamanhoLote,
+    @DefaultValue("1s") Duration intervalo,
+    @DefaultValue("50") int maximoLotes,
+    @DefaultValue("memoria") String destino,
+    @DefaultValue("10000") int capacidadeMemoria,
+    @DefaultValue("target/outbox.jsonl") Path arquivo) {
+}
@@ -0,0 +1,9 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ParticionamentoProperties.class)
+public class ParticionamentoConfig {
+}
@@ -0,0 +1,19 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Partições mensais da tabela {@code mensagem}. A cada execução de {@code cron} os meses anteriores
+ * aos {@code mesesCorrentes} mais recentes são movidos, em lotes de {@code tamanhoLote} linhas,
+ * para tabelas {@code mensagem_aaaamm}; partições com mais de {@code mesesRetidos} meses são
+ * descartadas inteiras (zero mantém todas).
+ */
+@ConfigurationProperties(prefix = "particionamento")
+public record ParticionamentoProperties(
+    @DefaultValue("true") boolean habilitado,
+    @DefaultValue("0 0 3 * * *") String cron,
+    @DefaultValue("3") int mesesCorrentes,
+    @DefaultValue("0") int mesesRetidos,
+    @DefaultValue("1000") int tamanhoLote) {
+}
@@ -0,0 +1,29 @@
+package org.example.config;
+
+import org.example.filter.RateLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LimiteRequisicoesProperties.class)
+public class RateLimitConfig {
+
+  /**
+   * Registrado logo após a cadeia do Spring Security para que o cliente de uma requisição
+   * autenticada seja a API key, e não o IP.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "limite-requisicoes", name = "habilitado",
+      matchIfMissing = true)
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+      LimiteRequisicoesProperties properties) {
+    var registro = new FilterRegistrationBean<>(new RateLimitFilter(properties));
+    registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    registro.addUrlPatterns("/mensagens", "/mensagens/*");
+    return registro;
+  }
+}
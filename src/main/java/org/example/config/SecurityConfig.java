@@ -0,0 +1,47 @@
+package org.example.config;
+
+import org.example.security.ApiKeyFilter;
+import org.example.security.ApiKeyVerificador;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+
+/**
+ * Cadeia de filtros enxuta para a API JSON: sem sessão HTTP, sem CSRF, sem cache de requisição e
+ * sem login básico ou por formulário. A API de mensagens é pública; os demais endpoints do
+ * actuator exigem {@code X-API-Key}.
+ */
+@Configuration
+public class SecurityConfig {
+
+  @Bean
+  public SecurityFilterChain securityFilterChain(HttpSecurity http,
+      ApiKeyVerificador apiKeyVerificador) throws Exception {
+    return http
+        .csrf(AbstractHttpConfigurer::disable)
+        .sessionManagement(session -> session
+            .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .requestCache(AbstractHttpConfigurer::disable)
+        .httpBasic(AbstractHttpConfigurer::disable)
+        .formLogin(AbstractHttpConfigurer::disable)
+        .logout(AbstractHttpConfigurer::disable)
+        .exceptionHandling(exception -> exception
+            .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+        .addFilterBefore(new ApiKeyFilter(apiKeyVerificador), AnonymousAuthenticationFilter.class)
+        .authorizeHttpRequests(authorize -> authorize
+            .requestMatchers("/mensagens", "/mensagens/**", "/error").permitAll()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class))
+            .permitAll()
+            .anyRequest().authenticated())
+        .build();
+  }
+}
@@ -0,0 +1,71 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import org.example.service.RebalanceamentoShards;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.NamedContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig implements SchedulingConfigurer {
+
+  private final ObjectProvider<RebalanceamentoShards> rebalanceamentoShards;
+
+  private final ShardingProperties properties;
+
+  public ShardingConfig(ObjectProvider<RebalanceamentoShards> rebalanceamentoShards,
+      ShardingProperties properties) {
+    this.rebalanceamentoShards = rebalanceamentoShards;
+    this.properties = properties;
+  }
+
+  /** Vazio com {@code sharding.habilitado=false}. */
+  @Bean
+  public ConexoesShards conexoesShards(MeterRegistry meterRegistry) {
+    return new ConexoesShards(properties, meterRegistry);
+  }
+
+  /**
+   * Um indicador por shard em {@code /actuator/health/shards}, como o {@code db} do principal.
+   * Consulta os pools a cada verificação, para incluir os shards adicionados com o sistema no ar.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "sharding", name = "habilitado")
+  public CompositeHealthContributor shards(ConexoesShards conexoesShards) {
+    return new CompositeHealthContributor() {
+      @Override
+      public HealthContributor getContributor(String nome) {
+        var dataSource = conexoesShards.dataSources().get(nome);
+        return dataSource == null ? null : new DataSourceHealthIndicator(dataSource);
+      }
+
+      @Override
+      public Iterator<NamedContributor<HealthContributor>> iterator() {
+        return conexoesShards.dataSources().entrySet().stream()
+            .map(shard -> NamedContributor.<HealthContributor>of(shard.getKey(),
+                new DataSourceHealthIndicator(shard.getValue())))
+            .iterator();
+      }
+    };
+  }
+
+  /** Agendado aqui para usar os intervalos como {@link java.time.Duration}. */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    rebalanceamentoShards.ifAvailable(rebalanceamento -> {
+      registrar.addFixedDelayTask(rebalanceamento::rebalancear,
+          properties.intervaloRebalanceamento());
+      registrar.addFixedDelayTask(rebalanceamento::recontar, properties.intervaloContagem());
+    });
+  }
+}
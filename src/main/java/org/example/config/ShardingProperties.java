@@ -0,0 +1,36 @@
+package org.example.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Distribuição das mensagens entre o banco principal e os {@code shards} configurados, por hash
+ * consistente do id com {@code nosVirtuais} pontos por nó. Shards marcados como
+ * {@code adicionando} entram no anel depois da subida: a cada {@code intervaloRebalanceamento}
+ * as mensagens que passaram a ser deles são movidas em lotes de {@code tamanhoLote}. Os shards
+ * do anel ficam registrados no principal: um shard incluído com o sistema no ar precisa ser
+ * acrescentado aqui antes do próximo restart, ou a subida é recusada.
+ * <p>
+ * O total de mensagens dos shards fica em memória e é acompanhado pelas gravações; a cada
+ * {@code intervaloContagem} ele é descartado e volta a ser contado, o que corrige gravações feitas
+ * por outras instâncias.
+ * <p>
+ * A listagem por offset intercala as primeiras {@code offset + size} mensagens de cada nó e
+ * recusa páginas além de {@code profundidadeMaxima}; daí em diante a listagem é por cursor.
+ */
+@ConfigurationProperties(prefix = "sharding")
+public record ShardingProperties(
+    @DefaultValue("false") boolean habilitado,
+    @DefaultValue("160") int nosVirtuais,
+    @DefaultValue("1000") int tamanhoLote,
+    @DefaultValue("10s") Duration intervaloRebalanceamento,
+    @DefaultValue("5m") Duration intervaloContagem,
+    @DefaultValue("1000") int profundidadeMaxima,
+    @DefaultValue List<Shard> shards) {
+
+  public record Shard(String nome, String url, String usuario, String senha,
+      boolean adicionando) {
+  }
+}
@@ -1,13 +1,28 @@
 
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.CursorListagem;
+import org.example.dto.ErrorResponse;
+import org.example.dto.MensagemResponse;
+import org.example.dto.MensagensResponse;
+import org.example.dto.PaginaCursorResponse;
+import org.example.dto.PaginaResponse;
 import org.example.exception.MensagemNotFoundException;
+import org.example.idempotencia.RegistroIdempotencia;
 import org.example.model.Mensagem;
+import org.example.ranking.RankingGostei;
+import org.example.security.IdentificacaoCliente;
 import org.example.service.MensagemService;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +35,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,43 +46,156 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class MensagemController {
 
+  static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  static final int LIMITE_IDS = 100;
+
+  static final int LIMITE_INCREMENTO = 1000;
+
+  /** Maior página da listagem por cursor, independente do limite de ids por requisição. */
+  static final int LIMITE_PAGINA = 100;
+
   private final MensagemService mensagemService;
 
+  private final RegistroIdempotencia registroIdempotencia;
+
+  private final RankingGostei rankingGostei;
+
   @PostMapping(
       consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Mensagem> registrarMensagem(@Valid @RequestBody Mensagem mensagem) {
+  public ResponseEntity<MensagemResponse> registrarMensagem(
+      @RequestHeader(name = RegistroIdempotencia.CABECALHO_CHAVE, required = false)
+      String chaveIdempotencia,
+      @Valid @RequestBody Mensagem mensagem,
+      HttpServletRequest request) {
     log.info("requisição para registrar mensagem foi efetuada");
-    var mensagemCriada = mensagemService.criarMensagem(mensagem);
-    return new ResponseEntity<>(mensagemCriada, HttpStatus.CREATED);
+    var impressao = mensagem.getUsuario() + '\0' + mensagem.getConteudo();
+    return registroIdempotencia.executar(IdentificacaoCliente.identificar(request),
+        chaveIdempotencia, "POST /mensagens", impressao, () -> {
+          var mensagemCriada = mensagemService.criarMensagem(mensagem);
+          return new ResponseEntity<>(MensagemResponse.de(mensagemCriada), HttpStatus.CREATED);
+        });
   }
 
   @GetMapping(
       value = "/{id}",
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+          APPLICATION_SMILE_VALUE})
   public ResponseEntity<?> buscarMensagem(@PathVariable String id) {
     log.info("requisição para buscar mensagem foi efetuada");
     try {
       var uuid = UUID.fromString(id);
       var mensagemEncontrada = mensagemService.buscarMensagem(uuid);
-      return new ResponseEntity<>(mensagemEncontrada, HttpStatus.OK);
+      return new ResponseEntity<>(MensagemResponse.de(mensagemEncontrada), HttpStatus.OK);
     } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().body("ID inválido");
+      return erro(HttpStatus.BAD_REQUEST, "ID inválido");
     } catch (MensagemNotFoundException e) {
-      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+      return erro(HttpStatus.NOT_FOUND, e.getMessage());
     }
   }
 
 @GetMapping(
     value = "",
-    produces = MediaType.APPLICATION_JSON_VALUE)
-public ResponseEntity<Page<Mensagem>> listarMensagens(
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public ResponseEntity<PaginaResponse<MensagemResponse>> listarMensagens(
     @RequestParam(defaultValue = "0") int page,
     @RequestParam(defaultValue = "10") int size) {
   Pageable pageable = PageRequest.of(page, size);
   log.info("requisição para listar mensagens foi efetuada: Página={}, Tamanho={}", page, size);
-  Page<Mensagem> mensagens = mensagemService.listarMensagens(pageable);
-  return new ResponseEntity<>(mensagens, HttpStatus.OK);
+  Page<MensagemResponse> mensagens = mensagemService.listarMensagens(pageable);
+  return new ResponseEntity<>(PaginaResponse.de(mensagens), HttpStatus.OK);
+}
+
+/**
+ * Listagem por cursor: cada página começa depois da última entregue, sem offset nem contagem, o
+ * que mantém o custo constante em qualquer profundidade. {@code cursor=} vazio pede a primeira.
+ */
+@GetMapping(
+    value = "",
+    params = "cursor",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public ResponseEntity<?> listarMensagensPorCursor(
+    @RequestParam String cursor,
+    @RequestParam(defaultValue = "10") int size) {
+  log.info("requisição para listar mensagens por cursor foi efetuada: Tamanho={}", size);
+  if (size < 1 || size > LIMITE_PAGINA) {
+    return erro(HttpStatus.BAD_REQUEST, "informe size de 1 a " + LIMITE_PAGINA);
+  }
+  try {
+    var posicao = cursor.isEmpty() ? null : CursorListagem.decodificar(cursor);
+    var mensagens = mensagemService.listarMensagens(posicao, size);
+    var proximo = mensagens.size() < size
+        ? null
+        : CursorListagem.de(mensagens.get(mensagens.size() - 1)).codificar();
+    return new ResponseEntity<>(new PaginaCursorResponse<>(mensagens, proximo), HttpStatus.OK);
+  } catch (IllegalArgumentException e) {
+    return erro(HttpStatus.BAD_REQUEST, "cursor inválido");
+  }
+}
+
+@GetMapping(
+    value = "",
+    params = "ids",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public ResponseEntity<?> buscarMensagens(@RequestParam List<String> ids) {
+  log.info("requisição para buscar mensagens foi efetuada: Quantidade={}", ids.size());
+  if (ids.isEmpty() || ids.size() > LIMITE_IDS) {
+    return erro(HttpStatus.BAD_REQUEST, "informe de 1 a " + LIMITE_IDS + " ids");
+  }
+  try {
+    var uuids = ids.stream().map(UUID::fromString).toList();
+    MensagensResponse mensagens = mensagemService.buscarMensagens(uuids);
+    return new ResponseEntity<>(mensagens, HttpStatus.OK);
+  } catch (IllegalArgumentException e) {
+    return erro(HttpStatus.BAD_REQUEST, "ID inválido");
+  }
+}
+
+@GetMapping(
+    value = "/top",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public ResponseEntity<?> listarTop(
+    @RequestParam(defaultValue = "10") int n,
+    @RequestParam(required = false) String window) {
+  log.info("requisição para listar mensagens mais curtidas foi efetuada: N={}, Janela={}", n,
+      window);
+  if (n < 1 || n > LIMITE_IDS) {
+    return erro(HttpStatus.BAD_REQUEST, "n deve estar entre 1 e " + LIMITE_IDS);
+  }
+  Duration janela = null;
+  if (window != null) {
+    try {
+      janela = DurationStyle.detectAndParse(window);
+    } catch (IllegalArgumentException e) {
+      return erro(HttpStatus.BAD_REQUEST, "janela inválida");
+    }
+    if (janela.isNegative() || janela.isZero() || janela.compareTo(rankingGostei.retencao()) > 0) {
+      return erro(HttpStatus.BAD_REQUEST,
+          "janela deve ser positiva e de no máximo " + rankingGostei.retencao());
+    }
+  }
+  return new ResponseEntity<>(mensagemService.listarTop(n, janela), HttpStatus.OK);
+}
+
+@GetMapping(
+    value = "/{id}/historico",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public ResponseEntity<?> listarHistorico(@PathVariable String id) {
+  log.info("requisição para listar histórico da mensagem foi efetuada");
+  try {
+    var uuid = UUID.fromString(id);
+    return new ResponseEntity<>(mensagemService.listarHistorico(uuid), HttpStatus.OK);
+  } catch (IllegalArgumentException e) {
+    return erro(HttpStatus.BAD_REQUEST, "ID inválido");
+  } catch (MensagemNotFoundException e) {
+    return erro(HttpStatus.NOT_FOUND, e.getMessage());
+  }
 }
 
 @PutMapping(
@@ -80,7 +209,7 @@ public ResponseEntity<?> atualizarMensagem(
   try {
     var uuid = UUID.fromString(id);
     var mensagemAtualizada = mensagemService.alterarMensagem(uuid, mensagem);
-    return new ResponseEntity<>(mensagemAtualizada, HttpStatus.OK);
+    return new ResponseEntity<>(MensagemResponse.de(mensagemAtualizada), HttpStatus.OK);
   } catch (IllegalArgumentException e) {
     return ResponseEntity.badRequest().body("ID inválido");
   } catch (MensagemNotFoundException e) {
@@ -89,12 +218,19 @@ public ResponseEntity<?> atualizarMensagem(
 }
 
 @PutMapping("/{id}/gostei")
-public ResponseEntity<?> incrementarGostei(@PathVariable String id) {
+public ResponseEntity<?> incrementarGostei(
+    @PathVariable String id,
+    @RequestHeader(name = RegistroIdempotencia.CABECALHO_CHAVE, required = false)
+    String chaveIdempotencia,
+    HttpServletRequest request) {
   log.info("requisição para incrementar gostei foi efetuada");
   try {
     var uuid = UUID.fromString(id);
-    var mensagemAtualizada = mensagemService.incrementarGostei(uuid);
-    return new ResponseEntity<>(mensagemAtualizada, HttpStatus.OK);
+    return registroIdempotencia.executar(IdentificacaoCliente.identificar(request),
+        chaveIdempotencia, "PUT /mensagens/{id}/gostei", uuid.toString(), () -> {
+          var mensagemAtualizada = mensagemService.incrementarGostei(uuid);
+          return new ResponseEntity<>(MensagemResponse.de(mensagemAtualizada), HttpStatus.OK);
+        });
   } catch (IllegalArgumentException e) {
     return ResponseEntity.badRequest().body("ID inválido");
   } catch (MensagemNotFoundException e) {
@@ -102,6 +238,30 @@ public ResponseEntity<?> incrementarGostei(@PathVariable String id) {
   }
 }
 
+@PostMapping(
+    value = "/gostei/batch",
+    consumes = MediaType.APPLICATION_JSON_VALUE,
+    produces = MediaType.APPLICATION_JSON_VALUE)
+public ResponseEntity<?> incrementarGosteiEmLote(
+    @RequestHeader(name = RegistroIdempotencia.CABECALHO_CHAVE, required = false)
+    String chaveIdempotencia,
+    @RequestBody Map<UUID, Integer> incrementos,
+    HttpServletRequest request) {
+  log.info("requisição para incrementar gostei em lote foi efetuada: Quantidade={}",
+      incrementos.size());
+  if (incrementos.isEmpty() || incrementos.size() > LIMITE_IDS) {
+    return ResponseEntity.badRequest()
+        .body("informe de 1 a " + LIMITE_IDS + " ids");
+  }
+  if (incrementos.values().stream().anyMatch(i -> i == null || i < 1 || i > LIMITE_INCREMENTO)) {
+    return ResponseEntity.badRequest()
+        .body("incremento deve estar entre 1 e " + LIMITE_INCREMENTO);
+  }
+  return registroIdempotencia.executar(IdentificacaoCliente.identificar(request),
+      chaveIdempotencia, "POST /mensagens/gostei/batch", new TreeMap<>(incrementos).toString(),
+      () -> new ResponseEntity<>(mensagemService.incrementarGostei(incrementos), HttpStatus.OK));
+}
+
 @DeleteMapping("/{id}")
 public ResponseEntity<?> apagarMensagem(@PathVariable String id) {
   log.info("requisição para apagar mensagem foi efetuada");
@@ -115,4 +275,16 @@ public ResponseEntity<?> apagarMensagem(@PathVariable String id) {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
   }
 }
+
+/**
+ * Erro das rotas que também produzem CBOR e Smile, no formato do {@code GlobalExceptionHandler}:
+ * sempre {@link ErrorResponse} em JSON, qualquer que seja o {@code Accept}.
+ */
+private static ResponseEntity<ErrorResponse> erro(HttpStatus status, String detalhe) {
+  var mensagem = status == HttpStatus.NOT_FOUND ? "Not found error" : "Validation error";
+  return ResponseEntity
+      .status(status)
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(new ErrorResponse(mensagem, List.of(detalhe)));
+}
 }
@@ -0,0 +1,48 @@
+package org.example.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Posição da última mensagem entregue na listagem por cursor; a próxima página começa logo depois
+ * dela na ordem {@code (dataCriacao, id)} decrescente. Trafega como texto opaco.
+ */
+public record CursorListagem(LocalDateTime dataCriacao, UUID id) {
+
+  /** Ordem da listagem; o id é comparado sem sinal, como no banco. */
+  public static final Comparator<MensagemResponse> ORDEM = Comparator
+      .comparing(MensagemResponse::dataCriacao)
+      .thenComparing(MensagemResponse::id, CursorListagem::compararIds)
+      .reversed();
+
+  public static CursorListagem de(MensagemResponse mensagem) {
+    return new CursorListagem(mensagem.dataCriacao(), mensagem.id());
+  }
+
+  public String codificar() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((dataCriacao + "|" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException se o texto não veio de {@link #codificar()}
+   */
+  public static CursorListagem decodificar(String cursor) {
+    try {
+      var partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split("\\|");
+      return new CursorListagem(LocalDateTime.parse(partes[0]), UUID.fromString(partes[1]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("cursor inválido", e);
+    }
+  }
+
+  private static int compararIds(UUID a, UUID b) {
+    var alto = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+    return alto != 0 ? alto
+        : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+  }
+}
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record GosteiLoteResponse(
+    Map<UUID, Integer> gostei,
+    List<UUID> naoEncontrados) {
+}
@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
+import org.example.model.Mensagem;
+import org.example.serializer.DataHoraSerializer;
+
+public record HistoricoResponse(
+    int versao,
+    String conteudo,
+    @JsonSerialize(using = DataHoraSerializer.class)
+    LocalDateTime dataAlteracao) {
+
+  public static HistoricoResponse de(Mensagem mensagem) {
+    return new HistoricoResponse(
+        mensagem.getVersao(),
+        mensagem.getConteudo(),
+        mensagem.getDataAlteracao());
+  }
+}
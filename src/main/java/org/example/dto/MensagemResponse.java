@@ -0,0 +1,29 @@
+
+package org.example.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.example.model.Mensagem;
+import org.example.serializer.DataHoraSerializer;
+
+public record MensagemResponse(
+    UUID id,
+    String usuario,
+    String conteudo,
+    @JsonSerialize(using = DataHoraSerializer.class)
+    LocalDateTime dataCriacao,
+    @JsonSerialize(using = DataHoraSerializer.class)
+    LocalDateTime dataAlteracao,
+    int gostei) {
+
+  public static MensagemResponse de(Mensagem mensagem) {
+    return new MensagemResponse(
+        mensagem.getId(),
+        mensagem.getUsuario(),
+        mensagem.getConteudo(),
+        mensagem.getDataCriacao(),
+        mensagem.getDataAlteracao(),
+        mensagem.getGostei());
+  }
+}
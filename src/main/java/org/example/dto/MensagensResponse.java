@@ -0,0 +1,9 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record MensagensResponse(
+    List<MensagemResponse> mensagens,
+    List<UUID> naoEncontrados) {
+}
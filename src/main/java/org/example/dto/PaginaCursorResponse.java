@@ -0,0 +1,9 @@
+package org.example.dto;
+
+import java.util.List;
+
+/** Página da listagem por cursor; {@code proximo} é {@code null} na última página. */
+public record PaginaCursorResponse<T>(
+    List<T> content,
+    String proximo) {
+}
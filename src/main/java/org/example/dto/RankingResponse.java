@@ -0,0 +1,7 @@
+package org.example.dto;
+
+public record RankingResponse(
+    int posicao,
+    long gostei,
+    MensagemResponse mensagem) {
+}
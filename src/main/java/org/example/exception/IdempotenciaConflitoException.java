@@ -0,0 +1,9 @@
+package org.example.exception;
+
+public class IdempotenciaConflitoException extends RuntimeException {
+
+  public IdempotenciaConflitoException(String mensagem) {
+    super(mensagem);
+  }
+
+}
@@ -0,0 +1,9 @@
+package org.example.exception;
+
+public class IdempotenciaEmAndamentoException extends RuntimeException {
+
+  public IdempotenciaEmAndamentoException(String mensagem) {
+    super(mensagem);
+  }
+
+}
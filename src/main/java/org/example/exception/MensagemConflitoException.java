@@ -0,0 +1,9 @@
+package org.example.exception;
+
+public class MensagemConflitoException extends RuntimeException {
+
+  public MensagemConflitoException(String mensagem) {
+    super(mensagem);
+  }
+
+}
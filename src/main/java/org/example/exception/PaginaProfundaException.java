@@ -0,0 +1,9 @@
+package org.example.exception;
+
+public class PaginaProfundaException extends RuntimeException {
+
+  public PaginaProfundaException(String mensagem) {
+    super(mensagem);
+  }
+
+}
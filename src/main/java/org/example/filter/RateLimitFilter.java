@@ -0,0 +1,207 @@
+package org.example.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.example.config.LimiteRequisicoesProperties;
+import org.example.security.IdentificacaoCliente;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Aplica um {@link TokenBucket} por cliente e por rota. Os buckets ficam em um cache limitado
+ * que descarta clientes inativos, então a memória não cresce com a quantidade de IPs vistos.
+ * Requisições acima do limite recebem 429 com {@code Retry-After} em segundos. Nas rotas com
+ * {@code peso-por-id} o corpo é lido aqui para contar os ids e reentregue ao controller.
+ */
+public class RateLimitFilter extends HttpFilter {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final List<Limite> limites;
+
+  public RateLimitFilter(LimiteRequisicoesProperties properties) {
+    this.limites = properties.regras().stream()
+        .map(regra -> new Limite(regra, properties.maximoClientes()))
+        .toList();
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    var limite = localizarLimite(request);
+    if (limite != null) {
+      var tokens = 1;
+      if (limite.regra.pesoPorId()) {
+        var corpo = request.getInputStream().readAllBytes();
+        tokens = contarIds(corpo);
+        request = new CorpoLido(request, corpo);
+      }
+      var espera = limite.consumir(IdentificacaoCliente.identificar(request), tokens,
+          System.nanoTime());
+      if (espera > 0) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+            Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999))));
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  /**
+   * Rotas literais são comparadas direto na URI, sem recortar o caminho; só rotas com variáveis
+   * precisam analisar o caminho, o que aloca.
+   */
+  private Limite localizarLimite(HttpServletRequest request) {
+    String uri = null;
+    int inicio = 0;
+    PathContainer caminhoAnalisado = null;
+    for (Limite limite : limites) {
+      if (!limite.metodo.equalsIgnoreCase(request.getMethod())) {
+        continue;
+      }
+      if (uri == null) {
+        uri = request.getRequestURI();
+        inicio = request.getContextPath().length();
+      }
+      if (limite.literal) {
+        var rota = limite.caminho.getPatternString();
+        if (uri.length() - inicio == rota.length() && uri.startsWith(rota, inicio)) {
+          return limite;
+        }
+        continue;
+      }
+      if (caminhoAnalisado == null) {
+        caminhoAnalisado = PathContainer.parsePath(uri.substring(inicio));
+      }
+      if (limite.caminho.matches(caminhoAnalisado)) {
+        return limite;
+      }
+    }
+    return null;
+  }
+
+  /** Chaves do objeto JSON do corpo; um corpo inválido conta como um e é recusado adiante. */
+  static int contarIds(byte[] corpo) {
+    try (var parser = JSON.createParser(corpo)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return 1;
+      }
+      var ids = 0;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        ids++;
+        parser.nextToken();
+        parser.skipChildren();
+      }
+      return Math.max(1, ids);
+    } catch (IOException e) {
+      return 1;
+    }
+  }
+
+  private static final class Limite {
+
+    private final String metodo;
+
+    private final PathPattern caminho;
+
+    private final boolean literal;
+
+    private final LimiteRequisicoesProperties.Regra regra;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    Limite(LimiteRequisicoesProperties.Regra regra, long maximoClientes) {
+      this.metodo = regra.metodo();
+      this.caminho = PathPatternParser.defaultInstance.parse(regra.caminho());
+      this.literal = !caminho.hasPatternSyntax();
+      this.regra = regra;
+      this.buckets = Caffeine.newBuilder()
+          .maximumSize(maximoClientes)
+          .expireAfterAccess(regra.periodo())
+          // manutenção do cache na própria thread, sem agendar tarefas no common pool
+          .executor(Runnable::run)
+          .build();
+    }
+
+    long consumir(String cliente, int tokens, long agora) {
+      var bucket = buckets.getIfPresent(cliente);
+      if (bucket == null) {
+        bucket = buckets.get(cliente,
+            c -> new TokenBucket(regra.capacidade(), regra.periodo(), agora));
+      }
+      // um lote maior que a capacidade nunca passaria; consome o bucket inteiro
+      return bucket.consumir(agora, Math.min(tokens, regra.capacidade()));
+    }
+  }
+
+  /** Reentrega o corpo lido por {@link #contarIds(byte[])}. */
+  private static final class CorpoLido extends HttpServletRequestWrapper {
+
+    private final byte[] corpo;
+
+    CorpoLido(HttpServletRequest request, byte[] corpo) {
+      super(request);
+      this.corpo = corpo;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      var entrada = new ByteArrayInputStream(corpo);
+      return new ServletInputStream() {
+        @Override
+        public boolean isFinished() {
+          return entrada.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          throw new UnsupportedOperationException("corpo já lido de forma síncrona");
+        }
+
+        @Override
+        public int read() {
+          return entrada.read();
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) {
+          return entrada.read(destino, inicio, tamanho);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      var codificacao = getCharacterEncoding();
+      return new BufferedReader(new InputStreamReader(getInputStream(),
+          codificacao == null ? StandardCharsets.UTF_8 : Charset.forName(codificacao)));
+    }
+  }
+}
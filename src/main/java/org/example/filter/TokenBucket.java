@@ -0,0 +1,64 @@
+package org.example.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+
+/**
+ * Token bucket sem lock no formato GCRA: todo o estado é o instante teórico de chegada da próxima
+ * requisição, um único {@code long} atualizado por CAS. A reposição acontece implicitamente com o
+ * passar do tempo, sem thread de refill.
+ */
+public final class TokenBucket {
+
+  private static final VarHandle CHEGADA_TEORICA;
+
+  static {
+    try {
+      CHEGADA_TEORICA = MethodHandles.lookup()
+          .findVarHandle(TokenBucket.class, "chegadaTeorica", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final long intervaloNanos;
+
+  private final long toleranciaNanos;
+
+  /** Mantido no próprio objeto (sem AtomicLong) para evitar um salto de ponteiro por acesso. */
+  private volatile long chegadaTeorica;
+
+  public TokenBucket(long capacidade, Duration periodo, long agora) {
+    this.intervaloNanos = Math.max(1, periodo.toNanos() / capacidade);
+    this.toleranciaNanos = intervaloNanos * capacidade;
+    this.chegadaTeorica = agora;
+  }
+
+  /**
+   * Consome um token no instante {@code agora} (em nanos, mesma base de {@link System#nanoTime()}).
+   *
+   * @return 0 quando há token disponível, senão quantos nanos esperar até o próximo
+   */
+  public long consumir(long agora) {
+    return consumir(agora, 1);
+  }
+
+  /**
+   * Consome {@code tokens} de uma vez, que não devem passar da capacidade; a espera devolvida é
+   * até haver todos eles.
+   */
+  public long consumir(long agora, long tokens) {
+    while (true) {
+      long atual = chegadaTeorica;
+      long proxima = Math.max(atual - agora, 0) + agora + intervaloNanos * tokens;
+      long espera = proxima - agora - toleranciaNanos;
+      if (espera > 0) {
+        return espera;
+      }
+      if (CHEGADA_TEORICA.compareAndSet(this, atual, proxima)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -5,6 +5,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.example.dto.ErrorResponse;
+import org.example.exception.IdempotenciaConflitoException;
+import org.example.exception.IdempotenciaEmAndamentoException;
+import org.example.exception.MensagemConflitoException;
+import org.example.exception.PaginaProfundaException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -31,4 +36,50 @@ public class GlobalExceptionHandler {
         .contentType(MediaType.APPLICATION_JSON)
         .body(errorResponse);
   }
+
+  @ExceptionHandler(IdempotenciaConflitoException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotenciaConflitoException(
+      IdempotenciaConflitoException ex) {
+    var errorResponse =
+        new ErrorResponse("Idempotency error", List.of(ex.getMessage()));
+    return ResponseEntity
+        .status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
+
+  /** A primeira requisição com a chave ainda não terminou; o cliente repete depois. */
+  @ExceptionHandler(IdempotenciaEmAndamentoException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotenciaEmAndamentoException(
+      IdempotenciaEmAndamentoException ex) {
+    var errorResponse =
+        new ErrorResponse("Idempotency error", List.of(ex.getMessage()));
+    return ResponseEntity
+        .status(HttpStatus.CONFLICT)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
+
+  @ExceptionHandler(MensagemConflitoException.class)
+  public ResponseEntity<ErrorResponse> handleMensagemConflitoException(
+      MensagemConflitoException ex) {
+    var errorResponse =
+        new ErrorResponse("Conflict error", List.of(ex.getMessage()));
+    return ResponseEntity
+        .status(HttpStatus.CONFLICT)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
+
+  @ExceptionHandler(PaginaProfundaException.class)
+  public ResponseEntity<ErrorResponse> handlePaginaProfundaException(
+      PaginaProfundaException ex) {
+    var errorResponse =
+        new ErrorResponse("Pagination error", List.of(ex.getMessage()));
+    return ResponseEntity
+        .status(HttpStatus.BAD_REQUEST)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
 }
@@ -0,0 +1,127 @@
+package org.example.idempotencia;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.example.exception.IdempotenciaConflitoException;
+import org.example.exception.IdempotenciaEmAndamentoException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guarda a resposta de cada {@code Idempotency-Key} por um tempo limitado. A repetição da mesma
+ * chave pelo mesmo cliente devolve a resposta guardada sem executar a operação de novo, e
+ * requisições simultâneas com a mesma chave aguardam a primeira, por no máximo
+ * {@code idempotencia.espera-maxima}, em vez de repetir a escrita.
+ */
+@Component
+public class RegistroIdempotencia {
+
+  public static final String CABECALHO_CHAVE = "Idempotency-Key";
+
+  public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+  private final Cache<String, Entrada> respostas;
+
+  private final Duration esperaMaxima;
+
+  public RegistroIdempotencia(
+      @Value("${idempotencia.tamanho-maximo:100000}") long tamanhoMaximo,
+      @Value("${idempotencia.expiracao:24h}") Duration expiracao,
+      @Value("${idempotencia.espera-maxima:5s}") Duration esperaMaxima) {
+    this.esperaMaxima = esperaMaxima;
+    this.respostas = Caffeine.newBuilder()
+        .maximumSize(tamanhoMaximo)
+        .expireAfterWrite(expiracao)
+        .build();
+  }
+
+  /**
+   * Executa {@code acao} uma única vez por {@code chave} do {@code cliente} dentro do
+   * {@code escopo} (método e rota); clientes diferentes podem usar a mesma chave sem ver a resposta
+   * um do outro. Sem chave a ação é sempre executada. Falhas não são guardadas, então o cliente
+   * pode repetir.
+   *
+   * @param impressao identifica o conteúdo da requisição; a mesma chave com outro conteúdo gera
+   *                  {@link IdempotenciaConflitoException}
+   * @throws IdempotenciaEmAndamentoException se a primeira requisição com a chave não terminar
+   *                                          dentro da espera máxima
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ResponseEntity<T> executar(String cliente, String chave, String escopo,
+      String impressao, Supplier<ResponseEntity<T>> acao) {
+    if (chave == null || chave.isBlank()) {
+      return acao.get();
+    }
+
+    var chaveEscopo = cliente + '\0' + escopo + '\0' + chave;
+    var resumo = resumir(impressao);
+    var nova = new Entrada(resumo, new CompletableFuture<>());
+    var existente = respostas.asMap().putIfAbsent(chaveEscopo, nova);
+    if (existente == null) {
+      try {
+        var resposta = acao.get();
+        nova.resposta.complete(resposta);
+        return resposta;
+      } catch (RuntimeException e) {
+        respostas.asMap().remove(chaveEscopo, nova);
+        nova.resposta.completeExceptionally(e);
+        throw e;
+      }
+    }
+
+    if (!existente.impressao.equals(resumo)) {
+      throw new IdempotenciaConflitoException(
+          "Idempotency-Key já utilizada com outro conteúdo");
+    }
+    return repetir((ResponseEntity<T>) aguardar(existente));
+  }
+
+  private ResponseEntity<?> aguardar(Entrada entrada) {
+    try {
+      return entrada.resposta.get(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException causa) {
+        throw causa;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new IdempotenciaEmAndamentoException(
+          "requisição com a mesma Idempotency-Key ainda em andamento");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IdempotenciaEmAndamentoException(
+          "requisição com a mesma Idempotency-Key ainda em andamento");
+    }
+  }
+
+  private static <T> ResponseEntity<T> repetir(ResponseEntity<T> resposta) {
+    return ResponseEntity.status(resposta.getStatusCode())
+        .headers(resposta.getHeaders())
+        .header(CABECALHO_REPETIDA, "true")
+        .body(resposta.getBody());
+  }
+
+  private static String resumir(String impressao) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256")
+          .digest(impressao.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Entrada(String impressao, CompletableFuture<ResponseEntity<?>> resposta) {
+  }
+}
@@ -0,0 +1,44 @@
+package org.example.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento gravado na mesma transação da operação que o originou e publicado depois pelo relay.
+ * O id vem de uma sequence com alocação em blocos, o que mantém os inserts em lote (com
+ * {@code IDENTITY} o Hibernate precisaria executar cada insert para obter o id).
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+  @SequenceGenerator(name = "evento_outbox_seq", allocationSize = 50)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  private TipoEvento tipo;
+
+  private UUID mensagemId;
+
+  @Column(length = 4000)
+  private String payload;
+
+  private LocalDateTime dataCriacao;
+}
@@ -2,9 +2,13 @@
 package org.example.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotEmpty;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -14,10 +18,21 @@ import lombok.Builder.Default;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.jackson.Jacksonized;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Where;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_mensagem_data_exclusao", columnList = "dataExclusao"),
+    @Index(name = "idx_mensagem_data_criacao", columnList = "dataCriacao DESC, id DESC"),
+    @Index(name = "idx_mensagem_gostei", columnList = "gostei DESC")})
+@Where(clause = "data_exclusao IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "mensagem")
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
@@ -46,6 +61,16 @@ public class Mensagem {
   @Default
   private int gostei = 0;
 
+  /** Versão atual do conteúdo; as anteriores ficam em {@link MensagemHistorico}. */
+  @Default
+  @JsonIgnore
+  @ColumnDefault("1")
+  private int versao = 1;
+
+  /** Preenchida ao apagar; a linha só é removida depois, pelo expurgo em lote. */
+  @JsonIgnore
+  private LocalDateTime dataExclusao;
+
   @PrePersist
   public void prePersist() {
     var timestamp = LocalDateTime.now();
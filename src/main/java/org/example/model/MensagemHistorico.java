@@ -0,0 +1,75 @@
+package org.example.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Versão anterior do conteúdo de uma mensagem, gravada a cada alteração. A tabela só recebe
+ * inserts e é lida pelo índice {@code (mensagem_id, versao)}; o Hibernate gera a chave primária
+ * com as colunas em outra ordem, que não serve para a busca por mensagem.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_historico_mensagem_versao",
+    columnList = "mensagem_id, versao"))
+@IdClass(MensagemHistorico.Chave.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MensagemHistorico implements Persistable<MensagemHistorico.Chave> {
+
+  @Id
+  @Column(name = "mensagem_id")
+  private UUID mensagemId;
+
+  @Id
+  private int versao;
+
+  private String conteudo;
+
+  private LocalDateTime dataAlteracao;
+
+  public static MensagemHistorico de(Mensagem mensagem) {
+    return MensagemHistorico.builder()
+        .mensagemId(mensagem.getId())
+        .versao(mensagem.getVersao())
+        .conteudo(mensagem.getConteudo())
+        .dataAlteracao(mensagem.getDataAlteracao())
+        .build();
+  }
+
+  @Override
+  public Chave getId() {
+    return new Chave(mensagemId, versao);
+  }
+
+  /** Registros nunca são atualizados; evita o SELECT que o {@code merge} faria pela chave. */
+  @Override
+  @Transient
+  public boolean isNew() {
+    return true;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Chave implements Serializable {
+
+    private UUID mensagemId;
+
+    private int versao;
+  }
+}
@@ -0,0 +1,8 @@
+package org.example.model;
+
+public enum TipoEvento {
+  MENSAGEM_CRIADA,
+  MENSAGEM_ALTERADA,
+  GOSTEI,
+  MENSAGEM_APAGADA
+}
@@ -0,0 +1,13 @@
+package org.example.outbox;
+
+import java.util.List;
+import org.example.model.EventoOutbox;
+
+/**
+ * Destino dos eventos drenados do outbox. Uma exceção desfaz a remoção do lote, que é enviado de
+ * novo no próximo ciclo; os destinos precisam tolerar eventos repetidos.
+ */
+public interface PublicadorEventos {
+
+  void publicar(List<EventoOutbox> eventos);
+}
@@ -0,0 +1,48 @@
+package org.example.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.example.model.EventoOutbox;
+
+/** Acrescenta cada lote ao arquivo, um evento JSON por linha, com uma única escrita por lote. */
+public class PublicadorEventosArquivo implements PublicadorEventos {
+
+  private final Path arquivo;
+
+  private final ObjectMapper objectMapper;
+
+  public PublicadorEventosArquivo(Path arquivo, ObjectMapper objectMapper) {
+    this.arquivo = arquivo;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public synchronized void publicar(List<EventoOutbox> eventos) {
+    var linhas = new StringBuilder();
+    try {
+      for (EventoOutbox evento : eventos) {
+        var linha = new LinkedHashMap<String, Object>();
+        linha.put("id", evento.getId());
+        linha.put("tipo", evento.getTipo());
+        linha.put("mensagemId", evento.getMensagemId());
+        linha.put("dataCriacao", evento.getDataCriacao().toString());
+        linha.put("payload", objectMapper.readTree(evento.getPayload()));
+        linhas.append(objectMapper.writeValueAsString(linha)).append('\n');
+      }
+      if (arquivo.getParent() != null) {
+        Files.createDirectories(arquivo.getParent());
+      }
+      Files.writeString(arquivo, linhas, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.example.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.model.EventoOutbox;
+
+/** Mantém os últimos eventos publicados em memória, para testes e execução local. */
+public class PublicadorEventosMemoria implements PublicadorEventos {
+
+  private final ConcurrentLinkedDeque<EventoOutbox> eventos = new ConcurrentLinkedDeque<>();
+
+  private final AtomicInteger tamanho = new AtomicInteger();
+
+  private final int capacidade;
+
+  public PublicadorEventosMemoria(int capacidade) {
+    this.capacidade = capacidade;
+  }
+
+  @Override
+  public void publicar(List<EventoOutbox> lote) {
+    eventos.addAll(lote);
+    var excedente = tamanho.addAndGet(lote.size()) - capacidade;
+    for (int i = 0; i < excedente && eventos.pollFirst() != null; i++) {
+      tamanho.decrementAndGet();
+    }
+  }
+
+  public List<EventoOutbox> eventos() {
+    return new ArrayList<>(eventos);
+  }
+
+  public void limpar() {
+    eventos.clear();
+    tamanho.set(0);
+  }
+}
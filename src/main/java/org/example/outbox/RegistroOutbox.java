@@ -0,0 +1,40 @@
+package org.example.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.example.model.EventoOutbox;
+import org.example.model.TipoEvento;
+import org.example.repository.EventoOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Grava o evento no outbox dentro da transação da operação: o evento existe se, e somente se, a
+ * alteração foi confirmada. O insert sai no mesmo flush da operação.
+ */
+@Component
+@RequiredArgsConstructor
+public class RegistroOutbox {
+
+  private final EventoOutboxRepository eventoOutboxRepository;
+
+  private final ObjectMapper objectMapper;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void registrar(TipoEvento tipo, UUID mensagemId, Object payload) {
+    try {
+      eventoOutboxRepository.save(EventoOutbox.builder()
+          .tipo(tipo)
+          .mensagemId(mensagemId)
+          .payload(objectMapper.writeValueAsString(payload))
+          .dataCriacao(LocalDateTime.now())
+          .build());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("não foi possível serializar o evento " + tipo, e);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package org.example.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.OutboxProperties;
+import org.example.model.EventoOutbox;
+import org.example.repository.EventoOutboxRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drena o outbox em lotes na ordem de gravação. Cada lote é lido, publicado e removido na mesma
+ * transação, então uma falha na publicação mantém os eventos para o próximo ciclo (entrega ao
+ * menos uma vez). Pensado para uma única instância drenando a tabela.
+ */
+@Slf4j
+public class RelayOutbox {
+
+  private final EventoOutboxRepository eventoOutboxRepository;
+
+  private final PublicadorEventos publicador;
+
+  private final TransactionTemplate transacao;
+
+  private final OutboxProperties properties;
+
+  private final Clock relogio;
+
+  private final Counter eventosPublicados;
+
+  private final Timer publicacao;
+
+  private final AtomicLong atrasoMillis = new AtomicLong();
+
+  public RelayOutbox(EventoOutboxRepository eventoOutboxRepository, PublicadorEventos publicador,
+      TransactionTemplate transacao, OutboxProperties properties, MeterRegistry meterRegistry,
+      Clock relogio) {
+    this.eventoOutboxRepository = eventoOutboxRepository;
+    this.publicador = publicador;
+    this.transacao = transacao;
+    this.properties = properties;
+    this.relogio = relogio;
+    this.eventosPublicados = Counter.builder("outbox.eventos.publicados")
+        .description("eventos do outbox entregues ao destino")
+        .register(meterRegistry);
+    this.publicacao = Timer.builder("outbox.lote.publicacao")
+        .description("tempo para publicar e remover um lote do outbox")
+        .register(meterRegistry);
+    Gauge.builder("outbox.atraso", atrasoMillis, atraso -> atraso.get() / 1000.0)
+        .description("idade, em segundos, do evento mais antigo no último lote drenado")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return quantidade de eventos publicados neste ciclo
+   */
+  public int drenar() {
+    var total = 0;
+    try {
+      for (int lote = 0; lote < properties.maximoLotes(); lote++) {
+        Integer publicados = transacao.execute(status -> publicarLote());
+        total += publicados == null ? 0 : publicados;
+        if (publicados == null || publicados < properties.tamanhoLote()) {
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("falha ao publicar eventos do outbox; nova tentativa no próximo ciclo", e);
+    }
+    return total;
+  }
+
+  private int publicarLote() {
+    var eventos = eventoOutboxRepository.listarPendentes(
+        PageRequest.of(0, properties.tamanhoLote()));
+    if (eventos.isEmpty()) {
+      atrasoMillis.set(0);
+      return 0;
+    }
+    atrasoMillis.set(Math.max(0, Duration.between(eventos.get(0).getDataCriacao(),
+        LocalDateTime.now(relogio)).toMillis()));
+    publicacao.record(() -> {
+      publicador.publicar(eventos);
+      eventoOutboxRepository.deleteAllByIdInBatch(
+          eventos.stream().map(EventoOutbox::getId).toList());
+    });
+    eventosPublicados.increment(eventos.size());
+    log.debug("eventos do outbox publicados: Quantidade={}", eventos.size());
+    return eventos.size();
+  }
+}
@@ -0,0 +1,57 @@
+package org.example.ranking;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gostei recebidos por mensagem em baldes de um minuto, mantidos apenas pelo período de
+ * retenção. A contagem de uma janela soma os baldes que ela cobre, então o custo da consulta é
+ * proporcional às mensagens que receberam gostei na janela, não ao total de mensagens.
+ */
+class JanelaGostei {
+
+  private static final long MINUTO = Duration.ofMinutes(1).toMillis();
+
+  private final long retencaoMinutos;
+
+  private final ConcurrentNavigableMap<Long, Map<UUID, LongAdder>> baldes =
+      new ConcurrentSkipListMap<>();
+
+  JanelaGostei(Duration retencao) {
+    this.retencaoMinutos = Math.max(1, retencao.toMinutes());
+  }
+
+  void registrar(UUID id, int incremento, long agoraMillis) {
+    var minuto = agoraMillis / MINUTO;
+    baldes.computeIfAbsent(minuto, m -> new ConcurrentHashMap<>())
+        .computeIfAbsent(id, i -> new LongAdder())
+        .add(incremento);
+    baldes.headMap(minuto - retencaoMinutos).clear();
+  }
+
+  void remover(UUID id) {
+    baldes.values().forEach(balde -> balde.remove(id));
+  }
+
+  /** Soma dos gostei por mensagem nos baldes que caem dentro de {@code janela}. */
+  Map<UUID, Long> contar(Duration janela, long agoraMillis) {
+    var minuto = agoraMillis / MINUTO;
+    var minutos = Math.min(Math.max(1, janela.toMinutes()), retencaoMinutos);
+    var contagem = new HashMap<UUID, Long>();
+    for (Map<UUID, LongAdder> balde : baldes.subMap(minuto - minutos, false, minuto, true)
+        .values()) {
+      balde.forEach((id, gostei) -> contagem.merge(id, gostei.sum(), Long::sum));
+    }
+    return contagem;
+  }
+
+  Duration retencao() {
+    return Duration.ofMinutes(retencaoMinutos);
+  }
+}
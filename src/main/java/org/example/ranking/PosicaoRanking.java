@@ -0,0 +1,6 @@
+package org.example.ranking;
+
+import java.util.UUID;
+
+public record PosicaoRanking(UUID id, long gostei) {
+}
@@ -0,0 +1,198 @@
+package org.example.ranking;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.example.repository.ShardMensagemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ranking das mensagens com mais gostei mantido em memória e atualizado a cada alteração, para
+ * que {@code GET /mensagens/top} não precise ordenar a tabela.
+ * <p>
+ * Só as {@code ranking.capacidade} primeiras ficam na estrutura: um skip-list ordenado por gostei,
+ * lido sem bloqueio, com um índice id → gostei para localizar a entrada a substituir. Quem passa a
+ * primeira colocada vazia tira a última; mensagens abaixo dela não entram, e as que saem só voltam
+ * com um novo gostei. A capacidade fica bem acima do maior {@code n} pedido porque as exclusões
+ * abrem vagas que só se preenchem nesses novos gostei ou na próxima reconstrução. As janelas
+ * recentes ficam em {@link JanelaGostei}, que não sobrevive a um restart: na subida apenas o
+ * ranking geral é reconstruído a partir do banco.
+ */
+@Slf4j
+@Component
+public class RankingGostei {
+
+  private static final Comparator<PosicaoRanking> ORDEM = Comparator
+      .comparingLong(PosicaoRanking::gostei).reversed()
+      .thenComparing(PosicaoRanking::id);
+
+  /** Exclusões lembradas; bastam as recentes, pois o gostei atrasado chega logo após o commit. */
+  private static final int LIMITE_REMOVIDAS = 10_000;
+
+  /** Guardado pelo monitor da instância, junto com as alterações do {@code ranking}. */
+  private final Map<UUID, Long> gosteiPorMensagem = new HashMap<>();
+
+  private final ConcurrentSkipListSet<PosicaoRanking> ranking = new ConcurrentSkipListSet<>(ORDEM);
+
+  /**
+   * Mensagens apagadas, para que o gostei de uma transação confirmada antes da exclusão, mas
+   * registrado depois dela, não as devolva ao ranking.
+   */
+  private final Set<UUID> removidas = Collections.newSetFromMap(new LinkedHashMap<>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> maisAntiga) {
+      return size() > LIMITE_REMOVIDAS;
+    }
+  });
+
+  private final int capacidade;
+
+  private final JanelaGostei janela;
+
+  private final Clock relogio;
+
+  private final MensagemRepository mensagemRepository;
+
+  private final ParticaoMensagemRepository particaoMensagemRepository;
+
+  private final ShardMensagemRepository shardMensagemRepository;
+
+  @Autowired
+  public RankingGostei(MensagemRepository mensagemRepository,
+      ParticaoMensagemRepository particaoMensagemRepository,
+      ShardMensagemRepository shardMensagemRepository,
+      @Value("${ranking.retencao:24h}") Duration retencao,
+      @Value("${ranking.capacidade:1000}") int capacidade) {
+    this(mensagemRepository, particaoMensagemRepository, shardMensagemRepository, retencao,
+        capacidade, Clock.systemUTC());
+  }
+
+  RankingGostei(MensagemRepository mensagemRepository,
+      ParticaoMensagemRepository particaoMensagemRepository,
+      ShardMensagemRepository shardMensagemRepository, Duration retencao, int capacidade,
+      Clock relogio) {
+    if (capacidade < 1) {
+      throw new IllegalArgumentException("ranking.capacidade deve ser positiva: " + capacidade);
+    }
+    this.mensagemRepository = mensagemRepository;
+    this.particaoMensagemRepository = particaoMensagemRepository;
+    this.shardMensagemRepository = shardMensagemRepository;
+    this.capacidade = capacidade;
+    this.janela = new JanelaGostei(retencao);
+    this.relogio = relogio;
+  }
+
+  /**
+   * Lê as {@code capacidade} mensagens com mais gostei da tabela corrente, de cada partição e de
+   * cada shard pelo índice de {@code gostei}; as primeiras do conjunto estão necessariamente entre
+   * as primeiras de algum nó.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reconstruir() {
+    var inicio = System.nanoTime();
+    mensagemRepository.percorrerMaisCurtidas(capacidade, this::atualizarTotal);
+    particaoMensagemRepository.percorrerMaisCurtidas(capacidade, this::atualizarTotal);
+    shardMensagemRepository.percorrerMaisCurtidas(capacidade, this::atualizarTotal);
+    log.info("ranking de gostei reconstruído: Mensagens={}, Tempo={}ms", ranking.size(),
+        Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+  }
+
+  /**
+   * Registra gostei recebidos agora. {@code total} é o valor já gravado no banco; como gostei só
+   * aumenta, atualizações que chegarem fora de ordem mantêm o maior total. Mensagens já
+   * removidas são ignoradas.
+   */
+  public synchronized void registrarGostei(UUID id, int incremento, long total) {
+    if (removidas.contains(id)) {
+      return;
+    }
+    atualizarTotal(id, total);
+    if (incremento > 0) {
+      janela.registrar(id, incremento, relogio.millis());
+    }
+  }
+
+  public synchronized void remover(UUID id) {
+    removidas.add(id);
+    var atual = gosteiPorMensagem.remove(id);
+    if (atual != null) {
+      ranking.remove(new PosicaoRanking(id, atual));
+    }
+    janela.remover(id);
+  }
+
+  /** Ids no ranking geral, no máximo {@code capacidade}. */
+  public synchronized Set<UUID> ranqueadas() {
+    return Set.copyOf(gosteiPorMensagem.keySet());
+  }
+
+  public List<PosicaoRanking> top(int n) {
+    var resultado = new ArrayList<PosicaoRanking>(n);
+    for (PosicaoRanking posicao : ranking) {
+      if (resultado.size() == n) {
+        break;
+      }
+      resultado.add(posicao);
+    }
+    return resultado;
+  }
+
+  /** Top {@code n} considerando apenas os gostei recebidos dentro de {@code periodo}. */
+  public List<PosicaoRanking> top(int n, Duration periodo) {
+    var menores = new PriorityQueue<>(ORDEM.reversed());
+    for (Map.Entry<UUID, Long> contagem : janela.contar(periodo, relogio.millis()).entrySet()) {
+      menores.add(new PosicaoRanking(contagem.getKey(), contagem.getValue()));
+      if (menores.size() > n) {
+        menores.poll();
+      }
+    }
+    var resultado = new ArrayList<>(menores);
+    resultado.sort(ORDEM);
+    return resultado;
+  }
+
+  public Duration retencao() {
+    return janela.retencao();
+  }
+
+  private synchronized void atualizarTotal(UUID id, long total) {
+    if (total <= 0) {
+      return;
+    }
+    var atual = gosteiPorMensagem.get(id);
+    if (atual != null && total <= atual) {
+      return;
+    }
+    var posicao = new PosicaoRanking(id, total);
+    if (atual == null && gosteiPorMensagem.size() >= capacidade
+        && ORDEM.compare(posicao, ranking.last()) > 0) {
+      return;
+    }
+    // a nova posição entra antes de a antiga sair, para que a leitura sem bloqueio não a perca
+    ranking.add(posicao);
+    if (atual != null) {
+      ranking.remove(new PosicaoRanking(id, atual));
+    }
+    gosteiPorMensagem.put(id, total);
+    if (gosteiPorMensagem.size() > capacidade) {
+      gosteiPorMensagem.remove(ranking.pollLast().id());
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import java.util.List;
+import org.example.model.EventoOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+  @Query("SELECT e FROM EventoOutbox e ORDER BY e.id")
+  List<EventoOutbox> listarPendentes(Pageable pageable);
+}
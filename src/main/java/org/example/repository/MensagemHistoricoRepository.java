@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import java.util.List;
+import java.util.UUID;
+import org.example.dto.HistoricoResponse;
+import org.example.model.MensagemHistorico;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MensagemHistoricoRepository
+    extends JpaRepository<MensagemHistorico, MensagemHistorico.Chave> {
+
+  @Query("SELECT new org.example.dto.HistoricoResponse(h.versao, h.conteudo, h.dataAlteracao) "
+      + "FROM MensagemHistorico h WHERE h.mensagemId = :mensagemId ORDER BY h.versao DESC")
+  List<HistoricoResponse> listarHistorico(@Param("mensagemId") UUID mensagemId);
+}
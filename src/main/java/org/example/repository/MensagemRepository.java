@@ -1,19 +1,34 @@
 
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.MensagemResponse;
 import org.example.model.Mensagem;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.UUID;
 
 @Repository
-public interface MensagemRepository extends JpaRepository<Mensagem, UUID> {
+public interface MensagemRepository extends JpaRepository<Mensagem, UUID>,
+    MensagemRepositoryCustom {
 
-  @Query("SELECT m FROM Mensagem m ORDER BY m.dataCriacao DESC")
-  Page<Mensagem> listarMensagens(Pageable pageable);
+  String LISTAR_MENSAGENS = "SELECT new org.example.dto.MensagemResponse("
+      + "m.id, m.usuario, m.conteudo, m.dataCriacao, m.dataAlteracao, m.gostei) "
+      + "FROM Mensagem m ORDER BY m.dataCriacao DESC";
+
+  String CONTAR_MENSAGENS = "SELECT count(m) FROM Mensagem m";
+
+  @Query(value = LISTAR_MENSAGENS, countQuery = CONTAR_MENSAGENS)
+  Page<MensagemResponse> listarMensagens(Pageable pageable);
+
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+  @Query(value = LISTAR_MENSAGENS, countQuery = CONTAR_MENSAGENS)
+  Page<MensagemResponse> listarMensagensEmCache(Pageable pageable);
 }
 
@@ -0,0 +1,53 @@
+package org.example.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+import org.example.model.Mensagem;
+
+public interface MensagemRepositoryCustom {
+
+  /**
+   * Carrega as mensagens na ordem dos ids informados, com {@code null} nas posições de ids
+   * inexistentes ou de mensagens apagadas.
+   */
+  List<Mensagem> buscarMensagens(List<UUID> ids);
+
+  /**
+   * Soma os incrementos ao {@code gostei} de cada mensagem em um único lote de updates.
+   *
+   * @return a nova quantidade de gostei das mensagens encontradas
+   */
+  Map<UUID, Integer> incrementarGostei(Map<UUID, Integer> incrementos);
+
+  /**
+   * Percorre as até {@code limite} mensagens da tabela corrente com mais gostei, pelo índice de
+   * {@code gostei}, sem carregá-las como entidades, para reconstruir estruturas em memória.
+   */
+  void percorrerMaisCurtidas(int limite, ObjLongConsumer<UUID> consumidor);
+
+  /**
+   * Grava o novo conteúdo e incrementa a versão somente se a mensagem ainda estiver na
+   * {@code versaoLida}, sem carregar a entidade nem tocar no {@code gostei}.
+   *
+   * @return {@code false} se a mensagem foi alterada ou apagada depois de lida, ou não existe
+   */
+  boolean alterarConteudo(UUID id, int versaoLida, String conteudo, LocalDateTime dataAlteracao);
+
+  /**
+   * Apaga logicamente a mensagem preenchendo {@code dataExclusao}.
+   *
+   * @return {@code false} se a mensagem não existe ou já foi apagada
+   */
+  boolean marcarExclusao(UUID id, LocalDateTime dataExclusao);
+
+  /**
+   * Remove fisicamente até {@code tamanhoLote} mensagens apagadas antes de {@code limite},
+   * junto com o histórico de alterações delas.
+   *
+   * @return quantidade de linhas removidas
+   */
+  int expurgarExcluidas(LocalDateTime limite, int tamanhoLote);
+}
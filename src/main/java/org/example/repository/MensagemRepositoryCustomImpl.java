@@ -0,0 +1,179 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+import lombok.RequiredArgsConstructor;
+import org.example.model.Mensagem;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Usa o multi-load do Hibernate em vez de {@code findAllById}: as entidades já presentes no
+ * contexto de persistência ou no cache de segundo nível não vão ao banco, e as demais são
+ * buscadas com {@code IN} em lotes de {@value #TAMANHO_LOTE}.
+ */
+@RequiredArgsConstructor
+class MensagemRepositoryCustomImpl implements MensagemRepositoryCustom {
+
+  static final int TAMANHO_LOTE = 50;
+
+  private static final String INCREMENTAR_GOSTEI =
+      "UPDATE mensagem SET gostei = gostei + :incremento "
+          + "WHERE id = :id AND data_exclusao IS NULL";
+
+  private static final String CONSULTAR_GOSTEI =
+      "SELECT id, gostei FROM mensagem WHERE id IN (:ids) AND data_exclusao IS NULL";
+
+  private static final String MAIS_CURTIDAS =
+      "SELECT id, gostei FROM mensagem WHERE gostei > 0 AND data_exclusao IS NULL "
+          + "ORDER BY gostei DESC FETCH FIRST :limite ROWS ONLY";
+
+  private static final String ALTERAR_CONTEUDO =
+      "UPDATE mensagem SET conteudo = :conteudo, data_alteracao = :dataAlteracao, "
+          + "versao = versao + 1 "
+          + "WHERE id = :id AND versao = :versaoLida AND data_exclusao IS NULL";
+
+  private static final String MARCAR_EXCLUSAO =
+      "UPDATE mensagem SET data_exclusao = :dataExclusao "
+          + "WHERE id = :id AND data_exclusao IS NULL";
+
+  private static final String SELECIONAR_EXCLUIDAS =
+      "SELECT id FROM mensagem WHERE data_exclusao < :limite "
+          + "ORDER BY data_exclusao FETCH FIRST :tamanhoLote ROWS ONLY";
+
+  private static final String EXPURGAR_HISTORICO =
+      "DELETE FROM mensagem_historico WHERE mensagem_id IN (:ids)";
+
+  private static final String EXPURGAR_MENSAGENS = "DELETE FROM mensagem WHERE id IN (:ids)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<Mensagem> buscarMensagens(List<UUID> ids) {
+    return entityManager.unwrap(Session.class)
+        .byMultipleIds(Mensagem.class)
+        // sem CacheMode explícito o multi-load não consulta o cache de segundo nível
+        .with(CacheMode.NORMAL)
+        .withBatchSize(TAMANHO_LOTE)
+        .enableOrderedReturn(true)
+        .enableSessionCheck(true)
+        .multiLoad(ids)
+        .stream()
+        // o cache de segundo nível não aplica o @Where da entidade
+        .map(mensagem -> mensagem == null || mensagem.getDataExclusao() != null ? null : mensagem)
+        .toList();
+  }
+
+  /**
+   * Os updates vão direto por JDBC, ordenados por id para que transações concorrentes bloqueiem
+   * as linhas na mesma ordem. Como o Hibernate não participa, as mensagens alteradas são
+   * removidas do cache de segundo nível após o commit; um update em lote via JPQL invalidaria a
+   * região inteira.
+   */
+  @Override
+  public Map<UUID, Integer> incrementarGostei(Map<UUID, Integer> incrementos) {
+    entityManager.flush();
+
+    var ordenados = new TreeMap<>(incrementos);
+    var parametros = new ArrayList<SqlParameterSource>(ordenados.size());
+    ordenados.forEach((id, incremento) -> parametros.add(new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("incremento", incremento)));
+    jdbcTemplate.batchUpdate(INCREMENTAR_GOSTEI, parametros.toArray(SqlParameterSource[]::new));
+    removerDoCache(ordenados.keySet());
+
+    var gostei = new HashMap<UUID, Integer>(ordenados.size());
+    jdbcTemplate.query(CONSULTAR_GOSTEI, new MapSqlParameterSource("ids", ordenados.keySet()),
+        rs -> {
+          gostei.put(rs.getObject("id", UUID.class), rs.getInt("gostei"));
+        });
+    return gostei;
+  }
+
+  @Override
+  public void percorrerMaisCurtidas(int limite, ObjLongConsumer<UUID> consumidor) {
+    jdbcTemplate.query(MAIS_CURTIDAS, new MapSqlParameterSource("limite", limite), rs -> {
+      consumidor.accept(rs.getObject("id", UUID.class), rs.getLong("gostei"));
+    });
+  }
+
+  /**
+   * A condição na versão faz o papel de lock otimista: de duas alterações da mesma versão, a que
+   * esperou pelo lock da linha não encontra mais a versão lida e não grava nada.
+   */
+  @Override
+  public boolean alterarConteudo(UUID id, int versaoLida, String conteudo,
+      LocalDateTime dataAlteracao) {
+    entityManager.flush();
+    var alteradas = jdbcTemplate.update(ALTERAR_CONTEUDO, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("versaoLida", versaoLida)
+        .addValue("conteudo", conteudo)
+        .addValue("dataAlteracao", dataAlteracao));
+    removerDoCache(List.of(id));
+    return alteradas > 0;
+  }
+
+  /**
+   * Marca a exclusão com um único update, sem carregar a entidade. A remoção física fica para
+   * {@link #expurgarExcluidas}.
+   */
+  @Override
+  public boolean marcarExclusao(UUID id, LocalDateTime dataExclusao) {
+    entityManager.flush();
+    var alteradas = jdbcTemplate.update(MARCAR_EXCLUSAO, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("dataExclusao", dataExclusao));
+    removerDoCache(List.of(id));
+    return alteradas > 0;
+  }
+
+  @Override
+  public int expurgarExcluidas(LocalDateTime limite, int tamanhoLote) {
+    var ids = jdbcTemplate.queryForList(SELECIONAR_EXCLUIDAS, new MapSqlParameterSource()
+        .addValue("limite", limite)
+        .addValue("tamanhoLote", tamanhoLote), UUID.class);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    var parametros = new MapSqlParameterSource("ids", ids);
+    jdbcTemplate.update(EXPURGAR_HISTORICO, parametros);
+    return jdbcTemplate.update(EXPURGAR_MENSAGENS, parametros);
+  }
+
+  private void removerDoCache(Iterable<UUID> ids) {
+    var cache = entityManager.getEntityManagerFactory().getCache();
+    // consultas em cache não percebem updates feitos por JDBC
+    Runnable remover = () -> {
+      ids.forEach(id -> cache.evict(Mensagem.class, id));
+      cache.unwrap(Cache.class).evictQueryRegions();
+    };
+    remover.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // uma leitura concorrente antes do commit pode ter recolocado o valor antigo
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          remover.run();
+        }
+      });
+    }
+  }
+}
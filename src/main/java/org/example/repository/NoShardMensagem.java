@@ -0,0 +1,284 @@
+package org.example.repository;
+
+import static org.example.repository.ParticaoMensagemRepository.COLUNAS;
+import static org.example.repository.ParticaoMensagemRepository.MENSAGEM;
+import static org.example.repository.ParticaoMensagemRepository.RESPOSTA;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.example.dto.CursorListagem;
+import org.example.dto.MensagemResponse;
+import org.example.model.Mensagem;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tabela {@code mensagem} de um nó, acessada por JDBC. O principal também é representado aqui,
+ * mas só como origem da redistribuição: leituras e gravações normais dele passam pelo Hibernate,
+ * e as mensagens apagadas logicamente ficam para o expurgo.
+ */
+final class NoShardMensagem {
+
+  private static final String INSERIR =
+      "INSERT INTO mensagem (" + COLUNAS + ") VALUES (:id, :usuario, :conteudo, :dataCriacao, "
+          + ":dataAlteracao, :gostei, :versao)";
+
+  /** Não sobrescreve a mensagem se ela já está no nó, possivelmente com alterações mais novas. */
+  private static final String COPIAR =
+      "INSERT INTO mensagem (" + COLUNAS + ") SELECT :id, :usuario, :conteudo, :dataCriacao, "
+          + ":dataAlteracao, :gostei, :versao "
+          + "WHERE NOT EXISTS (SELECT 1 FROM mensagem WHERE id = :id)";
+
+  private static final String BUSCAR =
+      "SELECT " + COLUNAS + " FROM mensagem WHERE id IN (:ids) AND %s";
+
+  private static final String ALTERAR_CONTEUDO =
+      "UPDATE mensagem SET conteudo = :conteudo, data_alteracao = :dataAlteracao, "
+          + "versao = versao + 1 WHERE id = :id AND versao = :versaoLida AND %s";
+
+  private static final String DESFAZER_ALTERACAO =
+      "UPDATE mensagem SET conteudo = :conteudo, data_alteracao = :dataAlteracao, "
+          + "versao = :versao WHERE id = :id AND versao = :versaoGravada AND %s";
+
+  private static final String INCREMENTAR_GOSTEI =
+      "UPDATE mensagem SET gostei = gostei + :incremento WHERE id = :id AND %s";
+
+  private static final String CONSULTAR_GOSTEI =
+      "SELECT id, gostei FROM mensagem WHERE id IN (:ids) AND %s";
+
+  private static final String APAGAR = "DELETE FROM mensagem WHERE id = :id AND %s";
+
+  /** Devolve a linha removida, lida na mesma instrução que a remove. */
+  private static final String APAGAR_RETORNANDO =
+      "SELECT " + COLUNAS + " FROM OLD TABLE (DELETE FROM mensagem WHERE id = :id AND %s)";
+
+  private static final String LISTAR =
+      "SELECT " + COLUNAS + " FROM mensagem WHERE %s "
+          + "ORDER BY data_criacao DESC, id DESC FETCH FIRST :limite ROWS ONLY";
+
+  private static final String LISTAR_APOS_CURSOR =
+      "SELECT " + COLUNAS + " FROM mensagem WHERE %s "
+          + "AND (data_criacao, id) < (:dataCriacao, :id) "
+          + "ORDER BY data_criacao DESC, id DESC FETCH FIRST :limite ROWS ONLY";
+
+  private static final String CONTAR = "SELECT COUNT(*) FROM mensagem WHERE %s";
+
+  private static final String MAIS_CURTIDAS =
+      "SELECT id, gostei FROM mensagem WHERE gostei > 0 AND %s "
+          + "ORDER BY gostei DESC FETCH FIRST :limite ROWS ONLY";
+
+  private static final String BLOQUEAR =
+      "SELECT " + COLUNAS + " FROM mensagem WHERE id > :depoisDe AND %s "
+          + "ORDER BY id FETCH FIRST :tamanhoLote ROWS ONLY FOR UPDATE";
+
+  /** Menor UUID na comparação sem sinal do H2. */
+  private static final UUID INICIO = new UUID(0, 0);
+
+  private final String nome;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  private final String filtro;
+
+  private final TransactionTemplate transacao;
+
+  /**
+   * Linhas do nó, contadas no primeiro {@link #contar()} e depois acompanhadas pelas gravações
+   * deste processo; negativa enquanto não contada. Gravações simultâneas à primeira contagem
+   * podem ficar de fora ou entrar duas vezes, o que a listagem aceita como total aproximado.
+   */
+  private final AtomicLong contagem = new AtomicLong(-1);
+
+  private NoShardMensagem(String nome, NamedParameterJdbcTemplate jdbcTemplate, String filtro) {
+    this.nome = nome;
+    this.jdbcTemplate = jdbcTemplate;
+    this.filtro = filtro;
+    this.transacao = new TransactionTemplate(
+        new DataSourceTransactionManager(jdbcTemplate.getJdbcTemplate().getDataSource()));
+  }
+
+  static NoShardMensagem principal(String nome, NamedParameterJdbcTemplate jdbcTemplate) {
+    return new NoShardMensagem(nome, jdbcTemplate, "data_exclusao IS NULL");
+  }
+
+  /** A tabela já deve existir; ver {@link org.example.config.ConexoesShards}. */
+  static NoShardMensagem remoto(String nome, DataSource dataSource) {
+    return new NoShardMensagem(nome, new NamedParameterJdbcTemplate(dataSource), "TRUE");
+  }
+
+  String nome() {
+    return nome;
+  }
+
+  void inserir(Mensagem mensagem) {
+    somarContagem(jdbcTemplate.update(INSERIR, parametros(mensagem)));
+  }
+
+  /** Grava as mensagens que ainda não estão no nó; as presentes ficam como estão. */
+  void copiar(List<Mensagem> mensagens) {
+    var copiadas = jdbcTemplate.batchUpdate(COPIAR, mensagens.stream()
+        .map(NoShardMensagem::parametros)
+        .toArray(SqlParameterSource[]::new));
+    somarContagem(Arrays.stream(copiadas).sum());
+  }
+
+  List<Mensagem> buscar(Collection<UUID> ids) {
+    return jdbcTemplate.query(BUSCAR.formatted(filtro), new MapSqlParameterSource("ids", ids),
+        MENSAGEM);
+  }
+
+  /** Como na tabela do principal: só na versão lida, sem tocar no gostei. */
+  boolean alterarConteudo(Mensagem mensagem, int versaoLida) {
+    return jdbcTemplate.update(ALTERAR_CONTEUDO.formatted(filtro), new MapSqlParameterSource()
+        .addValue("id", mensagem.getId())
+        .addValue("conteudo", mensagem.getConteudo())
+        .addValue("dataAlteracao", mensagem.getDataAlteracao())
+        .addValue("versaoLida", versaoLida)) > 0;
+  }
+
+  /**
+   * Volta ao conteúdo e à versão de {@code lida}, se ninguém alterou a mensagem depois da
+   * {@code versaoGravada}. O gostei fica como está.
+   */
+  boolean desfazerAlteracao(Mensagem lida, int versaoGravada) {
+    return jdbcTemplate.update(DESFAZER_ALTERACAO.formatted(filtro), new MapSqlParameterSource()
+        .addValue("id", lida.getId())
+        .addValue("conteudo", lida.getConteudo())
+        .addValue("dataAlteracao", lida.getDataAlteracao())
+        .addValue("versao", lida.getVersao())
+        .addValue("versaoGravada", versaoGravada)) > 0;
+  }
+
+  /**
+   * Soma os incrementos na ordem dos ids, como na tabela do principal.
+   *
+   * @return a nova quantidade de gostei das mensagens encontradas
+   */
+  Map<UUID, Integer> incrementarGostei(Map<UUID, Integer> incrementos) {
+    var gostei = new HashMap<UUID, Integer>();
+    var parametros = new ArrayList<SqlParameterSource>(incrementos.size());
+    new TreeMap<>(incrementos).forEach((id, incremento) -> parametros.add(
+        new MapSqlParameterSource().addValue("id", id).addValue("incremento", incremento)));
+    var alteradas = jdbcTemplate.batchUpdate(INCREMENTAR_GOSTEI.formatted(filtro),
+        parametros.toArray(SqlParameterSource[]::new));
+    if (Arrays.stream(alteradas).anyMatch(n -> n != 0)) {
+      jdbcTemplate.query(CONSULTAR_GOSTEI.formatted(filtro),
+          new MapSqlParameterSource("ids", incrementos.keySet()),
+          rs -> {
+            gostei.put(rs.getObject("id", UUID.class), rs.getInt("gostei"));
+          });
+    }
+    return gostei;
+  }
+
+  /**
+   * @return a mensagem como estava ao ser removida
+   */
+  Optional<Mensagem> apagar(UUID id) {
+    var apagada = jdbcTemplate.query(APAGAR_RETORNANDO.formatted(filtro),
+        new MapSqlParameterSource("id", id), MENSAGEM).stream().findFirst();
+    apagada.ifPresent(mensagem -> somarContagem(-1));
+    return apagada;
+  }
+
+  /** Até {@code limite} mensagens depois do cursor, ou as mais recentes sem cursor. */
+  List<MensagemResponse> listar(CursorListagem cursor, int limite) {
+    if (cursor == null) {
+      return jdbcTemplate.query(LISTAR.formatted(filtro),
+          new MapSqlParameterSource("limite", limite), RESPOSTA);
+    }
+    return jdbcTemplate.query(LISTAR_APOS_CURSOR.formatted(filtro), new MapSqlParameterSource()
+        .addValue("dataCriacao", cursor.dataCriacao())
+        .addValue("id", cursor.id())
+        .addValue("limite", limite), RESPOSTA);
+  }
+
+  /** Sem consulta depois da primeira vez; ver {@link #contagem}. */
+  long contar() {
+    var atual = contagem.get();
+    if (atual < 0) {
+      contagem.compareAndSet(-1,
+          jdbcTemplate.getJdbcTemplate().queryForObject(CONTAR.formatted(filtro), Long.class));
+      atual = contagem.get();
+    }
+    return atual;
+  }
+
+  void descartarContagem() {
+    contagem.set(-1);
+  }
+
+  /**
+   * Acompanha gravações na contagem, se já feita. Chamado pelas próprias gravações, exceto
+   * {@link #remover}, que roda na transação do lote e só conta depois do commit.
+   */
+  void somarContagem(long delta) {
+    contagem.getAndUpdate(atual -> atual < 0 ? atual : atual + delta);
+  }
+
+  void percorrerMaisCurtidas(int limite, ObjLongConsumer<UUID> consumidor) {
+    var parametros = new MapSqlParameterSource("limite", limite);
+    jdbcTemplate.query(MAIS_CURTIDAS.formatted(filtro), parametros, rs -> {
+      consumidor.accept(rs.getObject("id", UUID.class), rs.getLong("gostei"));
+    });
+  }
+
+  /** Executa {@code acao} numa transação deste nó, que mantém os bloqueios de {@link #bloquear}. */
+  <T> T emTransacao(Supplier<T> acao) {
+    return transacao.execute(status -> acao.get());
+  }
+
+  /**
+   * Próximo lote na ordem do id, para percorrer a tabela inteira sem offset. As linhas ficam
+   * bloqueadas até o fim da transação, de modo que nenhuma alteração se perde entre a leitura e a
+   * remoção.
+   */
+  List<Mensagem> bloquear(UUID depoisDe, int tamanhoLote) {
+    return jdbcTemplate.query(BLOQUEAR.formatted(filtro), new MapSqlParameterSource()
+        .addValue("depoisDe", depoisDe == null ? INICIO : depoisDe)
+        .addValue("tamanhoLote", tamanhoLote), MENSAGEM);
+  }
+
+  /**
+   * Não altera a contagem: ver {@link #somarContagem}.
+   *
+   * @return ids que já não estavam no nó
+   */
+  List<UUID> remover(List<UUID> ids) {
+    var removidas = jdbcTemplate.batchUpdate(APAGAR.formatted(filtro), ids.stream()
+        .map(id -> new MapSqlParameterSource("id", id))
+        .toArray(SqlParameterSource[]::new));
+    var ausentes = new ArrayList<UUID>();
+    for (int i = 0; i < removidas.length; i++) {
+      if (removidas[i] == 0) {
+        ausentes.add(ids.get(i));
+      }
+    }
+    return ausentes;
+  }
+
+  private static MapSqlParameterSource parametros(Mensagem mensagem) {
+    return new MapSqlParameterSource()
+        .addValue("id", mensagem.getId())
+        .addValue("usuario", mensagem.getUsuario())
+        .addValue("conteudo", mensagem.getConteudo())
+        .addValue("dataCriacao", mensagem.getDataCriacao())
+        .addValue("dataAlteracao", mensagem.getDataAlteracao())
+        .addValue("gostei", mensagem.getGostei())
+        .addValue("versao", mensagem.getVersao());
+  }
+}
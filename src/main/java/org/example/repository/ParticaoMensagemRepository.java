@@ -0,0 +1,488 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ObjLongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.CursorListagem;
+import org.example.dto.MensagemResponse;
+import org.example.model.Mensagem;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Partições mensais das mensagens. A tabela {@code mensagem} guarda os meses correntes e é a
+ * única mapeada pelo Hibernate; os meses fechados ficam em {@code mensagem_aaaamm}, com as mesmas
+ * colunas, chave primária própria e índice {@code (data_criacao, id)} decrescente. O H2 não tem
+ * particionamento nativo, então o roteamento é feito aqui:
+ * <ul>
+ *   <li>com {@code dataCriacao} conhecida (alteração, gostei) vai direto à partição do mês;</li>
+ *   <li>pelo id, as partições são consultadas pela chave primária, da mais nova para a mais
+ *       antiga;</li>
+ *   <li>listagens descartam as partições que não podem conter a página: por contagem na paginação
+ *       por offset e pelo mês do cursor na listagem por cursor.</li>
+ * </ul>
+ * Mensagens das partições não passam pelo cache de segundo nível nem têm exclusão lógica: apagar
+ * remove a linha. A lista de partições fica em memória, lida do catálogo no primeiro uso.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ParticaoMensagemRepository {
+
+  static final String TABELA_CORRENTE = "mensagem";
+
+  private static final DateTimeFormatter SUFIXO = DateTimeFormatter.ofPattern("yyyyMM");
+
+  private static final Pattern NOME_PARTICAO = Pattern.compile("MENSAGEM_(\\d{6})");
+
+  static final String COLUNAS =
+      "id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao";
+
+  private static final String LISTAR_TABELAS =
+      "SELECT table_name FROM information_schema.tables "
+          + "WHERE table_schema = SCHEMA() AND table_name LIKE 'MENSAGEM!_%' ESCAPE '!'";
+
+  private static final String CRIAR_PARTICAO =
+      "CREATE TABLE %1$s AS SELECT " + COLUNAS + " FROM mensagem WITH NO DATA";
+
+  /** {@code CREATE TABLE AS} não copia as restrições de {@code NOT NULL}. */
+  private static final String ID_OBRIGATORIO = "ALTER TABLE %1$s ALTER COLUMN id SET NOT NULL";
+
+  private static final String CHAVE_PARTICAO =
+      "ALTER TABLE %1$s ADD CONSTRAINT pk_%1$s PRIMARY KEY (id)";
+
+  private static final String LIMITES_PARTICAO =
+      "ALTER TABLE %1$s ADD CONSTRAINT ck_%1$s CHECK (data_criacao >= DATE '%2$s' "
+          + "AND data_criacao < DATE '%3$s')";
+
+  private static final String INDICE_PARTICAO =
+      "CREATE INDEX idx_%1$s_data_criacao ON %1$s (data_criacao DESC, id DESC)";
+
+  private static final String INDICE_GOSTEI_PARTICAO =
+      "CREATE INDEX idx_%1$s_gostei ON %1$s (gostei DESC)";
+
+  private static final String MES_MAIS_ANTIGO =
+      "SELECT MIN(data_criacao) FROM mensagem "
+          + "WHERE data_criacao < :limite AND data_exclusao IS NULL";
+
+  /** Bloqueia o lote, na ordem dos ids, até o fim da transação que o move. */
+  private static final String SELECIONAR_MES =
+      "SELECT id FROM mensagem WHERE data_criacao >= :inicio AND data_criacao < :fim "
+          + "AND data_exclusao IS NULL ORDER BY id FETCH FIRST :tamanhoLote ROWS ONLY FOR UPDATE";
+
+  private static final String COPIAR =
+      "INSERT INTO %s (" + COLUNAS + ") SELECT " + COLUNAS + " FROM mensagem "
+          + "WHERE id IN (:ids) AND data_exclusao IS NULL";
+
+  private static final String REMOVER_CORRENTES = "DELETE FROM mensagem WHERE id IN (:ids)";
+
+  private static final String EXPURGAR_HISTORICO =
+      "DELETE FROM mensagem_historico WHERE mensagem_id IN (SELECT id FROM %s)";
+
+  private static final String DESCARTAR = "DROP TABLE %s";
+
+  private static final String CONTAR = "SELECT COUNT(*) FROM %s";
+
+  private static final String MAIS_CURTIDAS =
+      "SELECT id, gostei FROM %s WHERE gostei > 0 "
+          + "ORDER BY gostei DESC FETCH FIRST :limite ROWS ONLY";
+
+  private static final String CONTIDAS = "SELECT id FROM %s WHERE id IN (:ids)";
+
+  private static final String BUSCAR = "SELECT " + COLUNAS + " FROM %s WHERE id IN (:ids)";
+
+  private static final String ALTERAR_CONTEUDO =
+      "UPDATE %s SET conteudo = :conteudo, data_alteracao = :dataAlteracao, "
+          + "versao = versao + 1 WHERE id = :id AND versao = :versaoLida";
+
+  private static final String INCREMENTAR_GOSTEI =
+      "UPDATE %s SET gostei = gostei + :incremento WHERE id = :id";
+
+  private static final String CONSULTAR_GOSTEI = "SELECT id, gostei FROM %s WHERE id IN (:ids)";
+
+  private static final String APAGAR = "DELETE FROM %s WHERE id = :id";
+
+  private static final String APAGAR_HISTORICO =
+      "DELETE FROM mensagem_historico WHERE mensagem_id = :id";
+
+  /** Só a tabela corrente tem exclusão lógica; as partições recebem apenas mensagens ativas. */
+  private static final String ATIVAS = "data_exclusao IS NULL";
+
+  private static final String LISTAR =
+      "SELECT " + COLUNAS + " FROM %s WHERE %s "
+          + "ORDER BY data_criacao DESC, id DESC OFFSET :offset ROWS FETCH FIRST :limite ROWS ONLY";
+
+  private static final String LISTAR_APOS_CURSOR =
+      "SELECT " + COLUNAS + " FROM %s WHERE %s "
+          + "AND (data_criacao, id) < (:dataCriacao, :id) "
+          + "ORDER BY data_criacao DESC, id DESC FETCH FIRST :limite ROWS ONLY";
+
+  static final RowMapper<Mensagem> MENSAGEM = (rs, linha) -> Mensagem.builder()
+      .id(rs.getObject("id", UUID.class))
+      .usuario(rs.getString("usuario"))
+      .conteudo(rs.getString("conteudo"))
+      .dataCriacao(rs.getObject("data_criacao", LocalDateTime.class))
+      .dataAlteracao(rs.getObject("data_alteracao", LocalDateTime.class))
+      .gostei(rs.getInt("gostei"))
+      .versao(rs.getInt("versao"))
+      .build();
+
+  static final RowMapper<MensagemResponse> RESPOSTA = (rs, linha) -> new MensagemResponse(
+      rs.getObject("id", UUID.class),
+      rs.getString("usuario"),
+      rs.getString("conteudo"),
+      rs.getObject("data_criacao", LocalDateTime.class),
+      rs.getObject("data_alteracao", LocalDateTime.class),
+      rs.getInt("gostei"));
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  /** Meses com partição, do mais recente para o mais antigo. */
+  private final ConcurrentSkipListSet<YearMonth> particoes =
+      new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+
+  /** Linhas por partição, calculadas sob demanda e descartadas quando a partição muda. */
+  private final ConcurrentHashMap<YearMonth, Long> contagens = new ConcurrentHashMap<>();
+
+  private volatile boolean carregadas;
+
+  /** Meses com partição, do mais recente para o mais antigo. */
+  public List<YearMonth> particoes() {
+    return List.copyOf(carregadas());
+  }
+
+  public boolean existemParticoes() {
+    return !carregadas().isEmpty();
+  }
+
+  /**
+   * Cria a partição do mês se ainda não existe. Fora de transação: DDL no H2 confirma a
+   * transação corrente.
+   */
+  public void criar(YearMonth mes) {
+    if (carregadas().contains(mes)) {
+      return;
+    }
+    var tabela = tabela(mes);
+    var comandos = jdbcTemplate.getJdbcTemplate();
+    comandos.execute(CRIAR_PARTICAO.formatted(tabela));
+    comandos.execute(ID_OBRIGATORIO.formatted(tabela));
+    comandos.execute(CHAVE_PARTICAO.formatted(tabela));
+    comandos.execute(LIMITES_PARTICAO.formatted(tabela, mes.atDay(1), mes.plusMonths(1).atDay(1)));
+    comandos.execute(INDICE_PARTICAO.formatted(tabela));
+    comandos.execute(INDICE_GOSTEI_PARTICAO.formatted(tabela));
+    particoes.add(mes);
+    log.info("partição de mensagens criada: Tabela={}", tabela);
+  }
+
+  /** Mês mais antigo com mensagens na tabela corrente antes de {@code limite}. */
+  public Optional<YearMonth> mesMaisAntigoAntesDe(YearMonth limite) {
+    var data = jdbcTemplate.queryForObject(MES_MAIS_ANTIGO,
+        new MapSqlParameterSource("limite", inicio(limite)), LocalDateTime.class);
+    return Optional.ofNullable(data).map(YearMonth::from);
+  }
+
+  /**
+   * Move até {@code tamanhoLote} mensagens do mês da tabela corrente para a partição, que já
+   * deve existir. Mensagens apagadas logicamente ficam para o expurgo. Deve rodar em uma
+   * transação: as linhas do lote ficam bloqueadas da seleção à remoção, então gostei, alterações
+   * e exclusões concorrentes esperam e depois as encontram na partição, em vez de se perderem
+   * entre a cópia e a remoção.
+   *
+   * @return quantidade de mensagens movidas
+   * @throws IllegalStateException se a remoção não corresponder à cópia, desfazendo o lote
+   */
+  public int mover(YearMonth mes, int tamanhoLote) {
+    var ids = jdbcTemplate.queryForList(SELECIONAR_MES, new MapSqlParameterSource()
+        .addValue("inicio", inicio(mes))
+        .addValue("fim", inicio(mes.plusMonths(1)))
+        .addValue("tamanhoLote", tamanhoLote), UUID.class);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    var parametros = new MapSqlParameterSource("ids", ids);
+    var copiadas = jdbcTemplate.update(COPIAR.formatted(tabela(mes)), parametros);
+    var movidas = jdbcTemplate.update(REMOVER_CORRENTES, parametros);
+    if (movidas != copiadas) {
+      throw new IllegalStateException("lote de %s com %d mensagens copiadas e %d removidas"
+          .formatted(mes, copiadas, movidas));
+    }
+    contagens.remove(mes);
+    removerDoCache(ids);
+    return movidas;
+  }
+
+  /**
+   * Descarta a partição inteira com {@code DROP TABLE}, sem apagar linha a linha; só o histórico
+   * das mensagens, que fica em tabela única, é removido antes. Fora de transação, como
+   * {@link #criar(YearMonth)}.
+   *
+   * @return quantidade de mensagens descartadas
+   */
+  public long descartar(YearMonth mes) {
+    var tabela = tabela(mes);
+    var total = contar(mes);
+    jdbcTemplate.getJdbcTemplate().update(EXPURGAR_HISTORICO.formatted(tabela));
+    jdbcTemplate.getJdbcTemplate().execute(DESCARTAR.formatted(tabela));
+    particoes.remove(mes);
+    contagens.remove(mes);
+    log.info("partição de mensagens descartada: Tabela={}, Mensagens={}", tabela, total);
+    return total;
+  }
+
+  /** Total de mensagens nas partições. */
+  public long contar() {
+    return carregadas().stream().mapToLong(this::contar).sum();
+  }
+
+  /** Percorre as até {@code limite} mensagens com mais gostei de cada partição. */
+  public void percorrerMaisCurtidas(int limite, ObjLongConsumer<UUID> consumidor) {
+    var parametros = new MapSqlParameterSource("limite", limite);
+    for (var mes : carregadas()) {
+      jdbcTemplate.query(MAIS_CURTIDAS.formatted(tabela(mes)), parametros, rs -> {
+        consumidor.accept(rs.getObject("id", UUID.class), rs.getLong("gostei"));
+      });
+    }
+  }
+
+  /** Quais dos {@code ids} estão na partição de {@code mes}, pela chave primária. */
+  public List<UUID> contidas(YearMonth mes, Collection<UUID> ids) {
+    if (ids.isEmpty() || !carregadas().contains(mes)) {
+      return List.of();
+    }
+    return jdbcTemplate.queryForList(CONTIDAS.formatted(tabela(mes)),
+        new MapSqlParameterSource("ids", ids), UUID.class);
+  }
+
+  public Optional<Mensagem> buscar(UUID id) {
+    return Optional.ofNullable(buscar(List.of(id)).get(id));
+  }
+
+  /** Busca nas partições, da mais recente para a mais antiga, até encontrar todos os ids. */
+  public Map<UUID, Mensagem> buscar(Collection<UUID> ids) {
+    var encontradas = new HashMap<UUID, Mensagem>();
+    var restantes = new HashSet<>(ids);
+    for (var mes : carregadas()) {
+      if (restantes.isEmpty()) {
+        break;
+      }
+      jdbcTemplate.query(BUSCAR.formatted(tabela(mes)), new MapSqlParameterSource("ids", restantes),
+          MENSAGEM).forEach(mensagem -> {
+            encontradas.put(mensagem.getId(), mensagem);
+            restantes.remove(mensagem.getId());
+          });
+    }
+    return encontradas;
+  }
+
+  /**
+   * Grava o conteúdo na partição do mês de {@code dataCriacao} e incrementa a versão, somente se
+   * a mensagem ainda estiver na {@code versaoLida}; o gostei só muda por
+   * {@link #incrementarGostei(Map)}.
+   *
+   * @return {@code false} se a mensagem não está em uma partição ou foi alterada depois de lida
+   */
+  public boolean alterarConteudo(Mensagem mensagem, int versaoLida) {
+    var mes = YearMonth.from(mensagem.getDataCriacao());
+    if (!carregadas().contains(mes)) {
+      return false;
+    }
+    return jdbcTemplate.update(ALTERAR_CONTEUDO.formatted(tabela(mes)), new MapSqlParameterSource()
+        .addValue("id", mensagem.getId())
+        .addValue("conteudo", mensagem.getConteudo())
+        .addValue("dataAlteracao", mensagem.getDataAlteracao())
+        .addValue("versaoLida", versaoLida)) > 0;
+  }
+
+  /**
+   * Soma os incrementos nas partições, na ordem dos ids, como na tabela corrente.
+   *
+   * @return a nova quantidade de gostei das mensagens encontradas
+   */
+  public Map<UUID, Integer> incrementarGostei(Map<UUID, Integer> incrementos) {
+    var gostei = new HashMap<UUID, Integer>();
+    var restantes = new TreeMap<>(incrementos);
+    for (var mes : carregadas()) {
+      if (restantes.isEmpty()) {
+        break;
+      }
+      var tabela = tabela(mes);
+      var parametros = new ArrayList<SqlParameterSource>(restantes.size());
+      restantes.forEach((id, incremento) -> parametros.add(new MapSqlParameterSource()
+          .addValue("id", id)
+          .addValue("incremento", incremento)));
+      var alteradas = jdbcTemplate.batchUpdate(INCREMENTAR_GOSTEI.formatted(tabela),
+          parametros.toArray(SqlParameterSource[]::new));
+      if (Arrays.stream(alteradas).anyMatch(n -> n != 0)) {
+        jdbcTemplate.query(CONSULTAR_GOSTEI.formatted(tabela),
+            new MapSqlParameterSource("ids", restantes.keySet()), rs -> {
+              var id = rs.getObject("id", UUID.class);
+              gostei.put(id, rs.getInt("gostei"));
+              restantes.remove(id);
+            });
+      }
+    }
+    return gostei;
+  }
+
+  /**
+   * Remove a mensagem e o histórico dela da partição em que estiver.
+   *
+   * @return {@code false} se a mensagem não está em uma partição
+   */
+  public boolean apagar(UUID id) {
+    var parametros = new MapSqlParameterSource("id", id);
+    for (var mes : carregadas()) {
+      if (jdbcTemplate.update(APAGAR.formatted(tabela(mes)), parametros) > 0) {
+        jdbcTemplate.update(APAGAR_HISTORICO, parametros);
+        contagens.remove(mes);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Página das partições a partir da posição {@code offset}, contada a partir da mensagem mais
+   * recente das partições. As partições inteiras antes do offset são puladas pela contagem, sem
+   * consulta.
+   */
+  public List<MensagemResponse> listar(long offset, int limite) {
+    var pagina = new ArrayList<MensagemResponse>(limite);
+    var pular = offset;
+    for (var mes : carregadas()) {
+      if (pagina.size() == limite) {
+        break;
+      }
+      var total = contar(mes);
+      if (pular >= total) {
+        pular -= total;
+        continue;
+      }
+      pagina.addAll(jdbcTemplate.query(LISTAR.formatted(tabela(mes), "TRUE"),
+          new MapSqlParameterSource()
+              .addValue("offset", pular)
+              .addValue("limite", limite - pagina.size()), RESPOSTA));
+      pular = 0;
+    }
+    return pagina;
+  }
+
+  /**
+   * Até {@code limite} mensagens depois do cursor (ou as mais recentes, sem cursor), somando a
+   * tabela corrente e as partições. Partições de meses posteriores ao cursor são ignoradas, e a
+   * busca para quando a página já está completa com mensagens mais novas que a partição
+   * seguinte; uma leitura por partição usa o índice {@code (data_criacao, id)}.
+   */
+  public List<MensagemResponse> listar(CursorListagem cursor, int limite) {
+    var pagina = new ArrayList<>(listarApos(TABELA_CORRENTE, cursor, limite));
+    for (var mes : carregadas()) {
+      if (cursor != null && mes.isAfter(YearMonth.from(cursor.dataCriacao()))) {
+        continue;
+      }
+      if (pagina.size() >= limite
+          && !pagina.get(limite - 1).dataCriacao().isBefore(inicio(mes.plusMonths(1)))) {
+        break;
+      }
+      pagina.addAll(listarApos(tabela(mes), cursor, limite));
+      pagina.sort(CursorListagem.ORDEM);
+      if (pagina.size() > limite) {
+        pagina.subList(limite, pagina.size()).clear();
+      }
+    }
+    return pagina;
+  }
+
+  private List<MensagemResponse> listarApos(String tabela, CursorListagem cursor, int limite) {
+    if (cursor == null) {
+      return jdbcTemplate.query(LISTAR.formatted(tabela, filtro(tabela)),
+          new MapSqlParameterSource()
+              .addValue("offset", 0)
+              .addValue("limite", limite), RESPOSTA);
+    }
+    return jdbcTemplate.query(LISTAR_APOS_CURSOR.formatted(tabela, filtro(tabela)),
+        new MapSqlParameterSource()
+            .addValue("dataCriacao", cursor.dataCriacao())
+            .addValue("id", cursor.id())
+            .addValue("limite", limite), RESPOSTA);
+  }
+
+  private static String filtro(String tabela) {
+    return TABELA_CORRENTE.equals(tabela) ? ATIVAS : "TRUE";
+  }
+
+  private ConcurrentSkipListSet<YearMonth> carregadas() {
+    if (!carregadas) {
+      synchronized (particoes) {
+        if (!carregadas) {
+          jdbcTemplate.getJdbcTemplate().queryForList(LISTAR_TABELAS, String.class).stream()
+              .map(NOME_PARTICAO::matcher)
+              .filter(Matcher::matches)
+              .map(nome -> YearMonth.parse(nome.group(1), SUFIXO))
+              .forEach(particoes::add);
+          carregadas = true;
+        }
+      }
+    }
+    return particoes;
+  }
+
+  private long contar(YearMonth mes) {
+    return contagens.computeIfAbsent(mes, chave -> jdbcTemplate.getJdbcTemplate()
+        .queryForObject(CONTAR.formatted(tabela(chave)), Long.class));
+  }
+
+  private void removerDoCache(Collection<UUID> ids) {
+    var cache = entityManagerFactory.getCache();
+    Runnable remover = () -> {
+      ids.forEach(id -> cache.evict(Mensagem.class, id));
+      // a listagem em cache da tabela corrente ainda contém as mensagens movidas
+      cache.unwrap(Cache.class).evictQueryRegions();
+    };
+    remover.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // uma leitura antes do commit ainda vê as linhas na tabela corrente e pode recolocá-las
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          remover.run();
+        }
+      });
+    }
+  }
+
+  static String tabela(YearMonth mes) {
+    return TABELA_CORRENTE + "_" + mes.format(SUFIXO);
+  }
+
+  private static LocalDateTime inicio(YearMonth mes) {
+    return mes.atDay(1).atStartOfDay();
+  }
+}
@@ -0,0 +1,455 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ConexoesShards;
+import org.example.config.ShardingProperties;
+import org.example.config.ShardingProperties.Shard;
+import org.example.dto.CursorListagem;
+import org.example.dto.MensagemResponse;
+import org.example.model.Mensagem;
+import org.example.sharding.AnelConsistente;
+import org.example.sharding.Intercalacao;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Mensagens distribuídas por hash consistente do id entre o banco principal e os shards. O
+ * principal continua sendo o único mapeado pelo Hibernate, com cache de segundo nível, exclusão
+ * lógica e partições mensais; os shards guardam só a tabela {@code mensagem}, acessada por JDBC.
+ * Histórico, outbox e idempotência ficam no principal.
+ * <p>
+ * Os métodos daqui tratam apenas das mensagens cujo dono é um shard e devolvem vazio ou
+ * {@code false} para as demais, que o serviço busca no principal. Enquanto um shard novo recebe
+ * suas mensagens, cada id é procurado no dono atual, depois no dono pelo anel anterior e, se a
+ * mensagem foi movida entre as duas tentativas, de novo no dono atual.
+ * <p>
+ * Os shards não participam da transação do principal: o serviço registra as compensações
+ * ({@link #restaurar}, {@link #desfazerAlteracao}) para o caso de ela ser desfeita.
+ * <p>
+ * Os shards do anel ficam registrados na tabela {@code no_shard} do principal, inclusive os
+ * incluídos com o sistema no ar por {@link #adicionar}, que não estão no YAML. Na subida:
+ * <ul>
+ *   <li>um shard registrado e ausente de {@code sharding.shards} impede a subida, pois as
+ *       mensagens dele ficariam inacessíveis; basta acrescentá-lo à configuração;</li>
+ *   <li>um shard cuja redistribuição não terminou volta como {@code adicionando}, e ela é
+ *       retomada, mesmo que a configuração diga o contrário.</li>
+ * </ul>
+ */
+@Slf4j
+@Repository
+public class ShardMensagemRepository {
+
+  /** Nome do banco mapeado pelo Hibernate no anel. */
+  public static final String PRINCIPAL = "principal";
+
+  private static final String APAGAR_HISTORICO =
+      "DELETE FROM mensagem_historico WHERE mensagem_id = :id";
+
+  private static final String CRIAR_REGISTRO =
+      "CREATE TABLE IF NOT EXISTS no_shard (nome VARCHAR(255) PRIMARY KEY, "
+          + "adicionando BOOLEAN NOT NULL)";
+
+  private static final String LISTAR_REGISTRADOS = "SELECT nome, adicionando FROM no_shard";
+
+  private static final String REGISTRAR =
+      "INSERT INTO no_shard (nome, adicionando) VALUES (:nome, :adicionando)";
+
+  private static final String CONCLUIR_INCLUSAO =
+      "UPDATE no_shard SET adicionando = FALSE WHERE adicionando";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final ConexoesShards conexoesShards;
+
+  private final Map<String, NoShardMensagem> nos = new ConcurrentHashMap<>();
+
+  private volatile Topologia topologia;
+
+  public ShardMensagemRepository(ShardingProperties properties, ConexoesShards conexoesShards,
+      NamedParameterJdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.conexoesShards = conexoesShards;
+    nos.put(PRINCIPAL, NoShardMensagem.principal(PRINCIPAL, jdbcTemplate));
+    var configurados = properties.habilitado() ? properties.shards() : List.<Shard>of();
+    var registrados = registrados(configurados);
+    var iniciais = new ArrayList<>(List.of(PRINCIPAL));
+    var adicionando = new ArrayList<String>();
+    for (var shard : configurados) {
+      nos.put(shard.nome(),
+          NoShardMensagem.remoto(shard.nome(), conexoesShards.dataSource(shard.nome())));
+      var incluindo = registrados.getOrDefault(shard.nome(), shard.adicionando());
+      if (!registrados.containsKey(shard.nome())) {
+        registrar(shard.nome(), incluindo);
+      }
+      (incluindo ? adicionando : iniciais).add(shard.nome());
+    }
+    var anel = new AnelConsistente(iniciais, properties.nosVirtuais());
+    var atual = anel;
+    for (var nome : adicionando) {
+      atual = atual.com(nome);
+    }
+    topologia = new Topologia(atual, adicionando.isEmpty() ? null : anel);
+    if (habilitado()) {
+      log.info("mensagens distribuídas entre nós: Nos={}, Adicionando={}", atual.nos(),
+          adicionando);
+    }
+  }
+
+  /** Se há algum shard além do principal. */
+  public boolean habilitado() {
+    return nos.size() > 1;
+  }
+
+  /** Nós do anel atual, incluindo o principal. */
+  public Set<String> nos() {
+    return topologia.atual().nos();
+  }
+
+  /** Nó dono da mensagem pelo anel atual. */
+  public String no(UUID id) {
+    return topologia.atual().no(id);
+  }
+
+  public boolean emRebalanceamento() {
+    return topologia.anterior() != null;
+  }
+
+  /**
+   * Inclui um shard com o sistema no ar. O anel passa a incluí-lo imediatamente; as mensagens
+   * que mudam de dono são movidas por {@link #rebalancear(int)}. O shard fica registrado no
+   * principal e precisa ser acrescentado a {@code sharding.shards} antes do próximo restart.
+   *
+   * @throws IllegalStateException se a inclusão anterior ainda não terminou
+   * @throws IllegalArgumentException se já há um nó com esse nome
+   */
+  public synchronized void adicionar(String nome, DataSource dataSource) {
+    var atual = topologia;
+    if (atual.anterior() != null) {
+      throw new IllegalStateException("redistribuição de mensagens em andamento");
+    }
+    if (nos.containsKey(nome)) {
+      throw new IllegalArgumentException("nó já configurado: " + nome);
+    }
+    conexoesShards.adicionar(nome, dataSource);
+    registrar(nome, true);
+    nos.put(nome, NoShardMensagem.remoto(nome, dataSource));
+    topologia = new Topologia(atual.atual().com(nome), atual.atual());
+    log.info("shard adicionado: Nome={}, Nos={}", nome, topologia.atual().nos());
+  }
+
+  /**
+   * Grava a mensagem no shard dono do id, preenchendo as datas como o {@code @PrePersist}.
+   *
+   * @return {@code false} se o dono é o principal
+   */
+  public boolean inserir(Mensagem mensagem) {
+    var dono = no(mensagem.getId());
+    if (PRINCIPAL.equals(dono)) {
+      return false;
+    }
+    mensagem.prePersist();
+    nos.get(dono).inserir(mensagem);
+    return true;
+  }
+
+  /**
+   * Regrava no dono atual uma mensagem removida por {@link #apagar(UUID)}, a menos que ela já
+   * esteja lá.
+   */
+  public void restaurar(Mensagem mensagem) {
+    var dono = no(mensagem.getId());
+    if (!PRINCIPAL.equals(dono)) {
+      nos.get(dono).copiar(List.of(mensagem));
+    }
+  }
+
+  public Optional<Mensagem> buscar(UUID id) {
+    return Optional.ofNullable(buscar(List.of(id)).get(id));
+  }
+
+  /** Uma consulta por shard com os ids dele; na redistribuição, outra pelos donos anteriores. */
+  public Map<UUID, Mensagem> buscar(Collection<UUID> ids) {
+    var encontradas = new HashMap<UUID, Mensagem>();
+    if (!habilitado()) {
+      return encontradas;
+    }
+    var atual = topologia;
+    atual.porNo(ids).forEach((no, doNo) -> buscar(no, doNo, encontradas));
+    var restantes = ids.stream().filter(id -> !encontradas.containsKey(id)).toList();
+    if (atual.anterior() != null && !restantes.isEmpty()) {
+      atual.porNoAnterior(restantes).forEach((no, doNo) -> buscar(no, doNo, encontradas));
+      // movidas entre as duas consultas
+      atual.porNo(restantes.stream().filter(id -> !encontradas.containsKey(id)).toList())
+          .forEach((no, doNo) -> buscar(no, doNo, encontradas));
+    }
+    return encontradas;
+  }
+
+  /**
+   * Grava o conteúdo somente se a mensagem ainda estiver na {@code versaoLida}.
+   *
+   * @return {@code false} se a mensagem não está em um shard ou foi alterada depois de lida
+   */
+  public boolean alterarConteudo(Mensagem mensagem, int versaoLida) {
+    return noDono(mensagem.getId(), no -> Optional.of(no)
+        .filter(alvo -> alvo.alterarConteudo(mensagem, versaoLida)))
+        .isPresent();
+  }
+
+  /**
+   * Compensa {@link #alterarConteudo}: volta ao conteúdo e à versão de {@code lida}, se ninguém
+   * alterou a mensagem depois da {@code versaoGravada}.
+   */
+  public boolean desfazerAlteracao(Mensagem lida, int versaoGravada) {
+    return noDono(lida.getId(), no -> Optional.of(no)
+        .filter(alvo -> alvo.desfazerAlteracao(lida, versaoGravada)))
+        .isPresent();
+  }
+
+  /**
+   * @return a nova quantidade de gostei das mensagens encontradas nos shards
+   */
+  public Map<UUID, Integer> incrementarGostei(Map<UUID, Integer> incrementos) {
+    var gostei = new HashMap<UUID, Integer>();
+    if (!habilitado()) {
+      return gostei;
+    }
+    var atual = topologia;
+    atual.porNo(incrementos.keySet()).forEach((no, doNo) ->
+        incrementarGostei(no, doNo, incrementos, gostei));
+    var restantes = incrementos.keySet().stream().filter(id -> !gostei.containsKey(id)).toList();
+    if (atual.anterior() != null && !restantes.isEmpty()) {
+      atual.porNoAnterior(restantes).forEach((no, doNo) ->
+          incrementarGostei(no, doNo, incrementos, gostei));
+      // movidas entre as duas tentativas
+      atual.porNo(restantes.stream().filter(id -> !gostei.containsKey(id)).toList())
+          .forEach((no, doNo) -> incrementarGostei(no, doNo, incrementos, gostei));
+    }
+    return gostei;
+  }
+
+  /**
+   * Remove a mensagem do shard e o histórico dela do principal; o histórico acompanha a transação
+   * em andamento, a mensagem não.
+   *
+   * @return a mensagem como estava ao ser removida, ou vazio se ela não está em um shard
+   */
+  public Optional<Mensagem> apagar(UUID id) {
+    var apagada = noDono(id, no -> no.apagar(id));
+    apagada.ifPresent(mensagem ->
+        jdbcTemplate.update(APAGAR_HISTORICO, new MapSqlParameterSource("id", id)));
+    return apagada;
+  }
+
+  /**
+   * Até {@code limite} mensagens dos shards depois do cursor (ou as mais recentes, sem cursor):
+   * cada shard devolve sua página pelo índice {@code (data_criacao, id)} e as páginas são
+   * intercaladas.
+   */
+  public List<MensagemResponse> listar(CursorListagem cursor, int limite) {
+    var paginas = remotos().stream().map(no -> no.listar(cursor, limite)).toList();
+    return Intercalacao.intercalar(paginas, CursorListagem.ORDEM, limite);
+  }
+
+  /**
+   * Total de mensagens nos shards, sem consultá-los a cada chamada: cada shard é contado uma vez
+   * e depois acompanha inserções, exclusões e a redistribuição feitas por este processo, até o
+   * próximo {@link #recontar()}. É um total aproximado, adequado ao {@code totalElements} da
+   * listagem por offset.
+   */
+  public long contar() {
+    return remotos().stream().mapToLong(NoShardMensagem::contar).sum();
+  }
+
+  /** Descarta os totais em memória; cada shard é contado de novo no próximo {@link #contar()}. */
+  public void recontar() {
+    remotos().forEach(NoShardMensagem::descartarContagem);
+  }
+
+  /** Percorre as até {@code limite} mensagens com mais gostei de cada shard. */
+  public void percorrerMaisCurtidas(int limite, ObjLongConsumer<UUID> consumidor) {
+    remotos().forEach(no -> no.percorrerMaisCurtidas(limite, consumidor));
+  }
+
+  /**
+   * Percorre os nós do anel anterior pela ordem do id e move, em lotes de {@code tamanhoLote},
+   * as mensagens cujo dono mudou. Cada lote é bloqueado na origem ({@code SELECT ... FOR UPDATE})
+   * até ser copiado para os destinos e removido da origem, numa transação da origem: gostei,
+   * alterações e exclusões que chegam à origem nesse meio tempo aguardam e, sem encontrar mais a
+   * mensagem, são repetidas no dono atual. A cópia não sobrescreve o que já está no destino, e
+   * o que foi apagado na origem depois de lido é apagado também no destino.
+   *
+   * @return quantidade de mensagens movidas
+   */
+  public synchronized int rebalancear(int tamanhoLote) {
+    var atual = topologia;
+    if (atual.anterior() == null) {
+      return 0;
+    }
+    var movidas = 0;
+    for (var nome : atual.anterior().nos()) {
+      var origem = nos.get(nome);
+      UUID depoisDe = null;
+      List<Mensagem> lote;
+      do {
+        var movidasNoLote = new ArrayList<UUID>();
+        lote = moverLote(origem, atual.atual(), depoisDe, tamanhoLote, movidasNoLote);
+        origem.somarContagem(-movidasNoLote.size());
+        if (PRINCIPAL.equals(nome)) {
+          removerDoCache(movidasNoLote);
+        }
+        movidas += movidasNoLote.size();
+        depoisDe = lote.isEmpty() ? null : lote.get(lote.size() - 1).getId();
+      } while (lote.size() == tamanhoLote);
+    }
+    jdbcTemplate.update(CONCLUIR_INCLUSAO, Map.of());
+    topologia = new Topologia(atual.atual(), null);
+    log.info("redistribuição de mensagens concluída: Nos={}", atual.atual().nos());
+    return movidas;
+  }
+
+  /**
+   * @return o lote lido da origem, inclusive as mensagens que continuam nela
+   */
+  private List<Mensagem> moverLote(NoShardMensagem origem, AnelConsistente anel, UUID depoisDe,
+      int tamanhoLote, List<UUID> movidas) {
+    return origem.emTransacao(() -> {
+      var lote = origem.bloquear(depoisDe, tamanhoLote);
+      var porDestino = new LinkedHashMap<String, List<Mensagem>>();
+      for (var mensagem : lote) {
+        var dono = anel.no(mensagem.getId());
+        if (!dono.equals(origem.nome())) {
+          porDestino.computeIfAbsent(dono, chave -> new ArrayList<>()).add(mensagem);
+        }
+      }
+      porDestino.forEach((nome, mensagens) -> {
+        var destino = nos.get(nome);
+        destino.copiar(mensagens);
+        var ids = mensagens.stream().map(Mensagem::getId).toList();
+        var ausentes = origem.remover(ids);
+        // apagadas na origem depois de lidas: a cópia não pode fazê-las reaparecer
+        ausentes.forEach(destino::apagar);
+        ids.stream().filter(id -> !ausentes.contains(id)).forEach(movidas::add);
+      });
+      return lote;
+    });
+  }
+
+  /**
+   * Shards registrados no principal, com a indicação de redistribuição pendente.
+   *
+   * @throws IllegalStateException se algum registrado não está entre os {@code configurados}
+   */
+  private Map<String, Boolean> registrados(List<Shard> configurados) {
+    jdbcTemplate.getJdbcTemplate().execute(CRIAR_REGISTRO);
+    var registrados = new HashMap<String, Boolean>();
+    jdbcTemplate.query(LISTAR_REGISTRADOS, rs -> {
+      registrados.put(rs.getString("nome"), rs.getBoolean("adicionando"));
+    });
+    var ausentes = new ArrayList<>(registrados.keySet());
+    configurados.forEach(shard -> ausentes.remove(shard.nome()));
+    if (!ausentes.isEmpty()) {
+      throw new IllegalStateException("shards com mensagens ausentes de sharding.shards: "
+          + ausentes + "; inclua-os na configuração, com o url de cada um");
+    }
+    return registrados;
+  }
+
+  private void registrar(String nome, boolean adicionando) {
+    jdbcTemplate.update(REGISTRAR, new MapSqlParameterSource()
+        .addValue("nome", nome)
+        .addValue("adicionando", adicionando));
+  }
+
+  private List<NoShardMensagem> remotos() {
+    return nos.values().stream().filter(no -> !PRINCIPAL.equals(no.nome())).toList();
+  }
+
+  /**
+   * Aplica {@code operacao} no dono atual e, na redistribuição, no anterior; se a mensagem saiu do
+   * anterior enquanto a operação aguardava o lote dela, tenta o dono atual de novo.
+   */
+  private <T> Optional<T> noDono(UUID id, Function<NoShardMensagem, Optional<T>> operacao) {
+    if (!habilitado()) {
+      return Optional.empty();
+    }
+    var atual = topologia;
+    var donoAtual = atual.porNo(List.of(id)).keySet().stream().map(nos::get).findFirst();
+    var resultado = donoAtual.flatMap(operacao);
+    if (resultado.isPresent() || atual.anterior() == null) {
+      return resultado;
+    }
+    var donoAnterior = atual.porNoAnterior(List.of(id)).keySet().stream().map(nos::get)
+        .findFirst();
+    resultado = donoAnterior.flatMap(operacao);
+    return resultado.isPresent() ? resultado : donoAtual.flatMap(operacao);
+  }
+
+  private void buscar(String no, List<UUID> ids, Map<UUID, Mensagem> encontradas) {
+    nos.get(no).buscar(ids).forEach(mensagem -> encontradas.put(mensagem.getId(), mensagem));
+  }
+
+  private void incrementarGostei(String no, List<UUID> ids, Map<UUID, Integer> incrementos,
+      Map<UUID, Integer> gostei) {
+    var doNo = new HashMap<UUID, Integer>();
+    ids.forEach(id -> doNo.put(id, incrementos.get(id)));
+    gostei.putAll(nos.get(no).incrementarGostei(doNo));
+  }
+
+  private void removerDoCache(Collection<UUID> ids) {
+    var cache = entityManagerFactory.getCache();
+    ids.forEach(id -> cache.evict(Mensagem.class, id));
+    // a listagem em cache do principal ainda contém as mensagens movidas
+    cache.unwrap(Cache.class).evictQueryRegions();
+  }
+
+  /** Anel em uso e, enquanto um shard recebe suas mensagens, o anel de antes da inclusão. */
+  private record Topologia(AnelConsistente atual, AnelConsistente anterior) {
+
+    /** Ids agrupados pelo shard dono no anel atual; os do principal ficam de fora. */
+    Map<String, List<UUID>> porNo(Collection<UUID> ids) {
+      var porNo = new LinkedHashMap<String, List<UUID>>();
+      ids.forEach(id -> agrupar(porNo, atual.no(id), id));
+      return porNo;
+    }
+
+    /** Como {@link #porNo}, pelo anel anterior e só com os ids que mudaram de dono. */
+    Map<String, List<UUID>> porNoAnterior(Collection<UUID> ids) {
+      var porNo = new LinkedHashMap<String, List<UUID>>();
+      if (anterior != null) {
+        for (var id : ids) {
+          var dono = anterior.no(id);
+          if (!dono.equals(atual.no(id))) {
+            agrupar(porNo, dono, id);
+          }
+        }
+      }
+      return porNo;
+    }
+
+    private static void agrupar(Map<String, List<UUID>> porNo, String dono, UUID id) {
+      if (!PRINCIPAL.equals(dono)) {
+        porNo.computeIfAbsent(dono, chave -> new ArrayList<>()).add(id);
+      }
+    }
+  }
+}
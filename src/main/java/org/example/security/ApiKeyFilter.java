@@ -0,0 +1,45 @@
+package org.example.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Autentica a requisição quando o cabeçalho {@code X-API-Key} está presente. Sem o cabeçalho a
+ * requisição segue anônima; com uma chave inválida é respondida com 401 sem passar pelo restante
+ * da cadeia.
+ */
+@RequiredArgsConstructor
+public class ApiKeyFilter extends OncePerRequestFilter {
+
+  public static final String CABECALHO_API_KEY = "X-API-Key";
+
+  private final ApiKeyVerificador apiKeyVerificador;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    var chave = request.getHeader(CABECALHO_API_KEY);
+    if (chave == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    var autenticacao = apiKeyVerificador.verificar(chave);
+    if (autenticacao.isEmpty()) {
+      response.setStatus(HttpStatus.UNAUTHORIZED.value());
+      return;
+    }
+
+    var contexto = SecurityContextHolder.createEmptyContext();
+    contexto.setAuthentication(autenticacao.get());
+    SecurityContextHolder.setContext(contexto);
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,81 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Valida a chave do cabeçalho {@code X-API-Key} contra as chaves configuradas em
+ * {@code seguranca.api-keys}. O resultado (válido ou não) fica em cache para que requisições
+ * repetidas do mesmo cliente não paguem o hash e a comparação em tempo constante.
+ */
+@Component
+public class ApiKeyVerificador {
+
+  static final String PAPEL_API = "ROLE_API";
+
+  private final List<byte[]> resumosChaves;
+
+  private final Cache<String, Optional<Authentication>> cache;
+
+  public ApiKeyVerificador(
+      @Value("${seguranca.api-keys:}") List<String> chaves,
+      @Value("${seguranca.api-keys-cache.tamanho-maximo:10000}") long tamanhoMaximoCache,
+      @Value("${seguranca.api-keys-cache.expiracao:5m}") Duration expiracaoCache) {
+    this.resumosChaves = chaves.stream()
+        .filter(chave -> !chave.isBlank())
+        .map(ApiKeyVerificador::resumir)
+        .toList();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(tamanhoMaximoCache)
+        .expireAfterWrite(expiracaoCache)
+        .build();
+  }
+
+  public Optional<Authentication> verificar(String chave) {
+    return cache.get(chave, this::autenticar);
+  }
+
+  private Optional<Authentication> autenticar(String chave) {
+    var resumo = resumir(chave);
+    var valida = false;
+    for (byte[] resumoChave : resumosChaves) {
+      valida |= MessageDigest.isEqual(resumoChave, resumo);
+    }
+    if (!valida) {
+      return Optional.empty();
+    }
+    return Optional.of(UsernamePasswordAuthenticationToken.authenticated(
+        identificar(resumo), null, AuthorityUtils.createAuthorityList(PAPEL_API)));
+  }
+
+  /**
+   * O principal é derivado do resumo da chave, assim a chave em si não aparece em logs ou
+   * métricas.
+   */
+  private static String identificar(byte[] resumo) {
+    var identificador = new StringBuilder("api-key-");
+    for (int i = 0; i < 6; i++) {
+      identificador.append(String.format("%02x", resumo[i]));
+    }
+    return identificador.toString();
+  }
+
+  private static byte[] resumir(String chave) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(chave.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.example.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Identifica quem fez a requisição: o principal da API key quando autenticada, senão o endereço
+ * remoto. Usada para separar por cliente os limites de requisições e as chaves de idempotência.
+ */
+public final class IdentificacaoCliente {
+
+  private IdentificacaoCliente() {
+  }
+
+  public static String identificar(HttpServletRequest request) {
+    var autenticacao = SecurityContextHolder.getContext().getAuthentication();
+    if (autenticacao != null && autenticacao.isAuthenticated()
+        && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+      return autenticacao.getName();
+    }
+    return request.getRemoteAddr();
+  }
+}
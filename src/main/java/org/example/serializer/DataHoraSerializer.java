@@ -0,0 +1,59 @@
+
+package org.example.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escreve datas no padrão {@value #PADRAO} montando os caracteres diretamente, sem passar pelo
+ * {@link DateTimeFormatter} a cada escrita. Anos fora do intervalo de quatro dígitos utilizam o
+ * formatador em cache, mantendo a saída idêntica à de {@code @JsonFormat(pattern = PADRAO)}.
+ */
+public class DataHoraSerializer extends StdSerializer<LocalDateTime> {
+
+  public static final String PADRAO = "yyyy-MM-dd HH:mm:ss.SSSSS";
+
+  private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern(PADRAO);
+
+  private static final int TAMANHO = PADRAO.length();
+
+  public DataHoraSerializer() {
+    super(LocalDateTime.class);
+  }
+
+  @Override
+  public void serialize(LocalDateTime valor, JsonGenerator gerador, SerializerProvider provider)
+      throws IOException {
+    var ano = valor.getYear();
+    if (ano < 1 || ano > 9999) {
+      gerador.writeString(FORMATO.format(valor));
+      return;
+    }
+    var buffer = new char[TAMANHO];
+    escreverDigitos(buffer, 0, ano, 4);
+    buffer[4] = '-';
+    escreverDigitos(buffer, 5, valor.getMonthValue(), 2);
+    buffer[7] = '-';
+    escreverDigitos(buffer, 8, valor.getDayOfMonth(), 2);
+    buffer[10] = ' ';
+    escreverDigitos(buffer, 11, valor.getHour(), 2);
+    buffer[13] = ':';
+    escreverDigitos(buffer, 14, valor.getMinute(), 2);
+    buffer[16] = ':';
+    escreverDigitos(buffer, 17, valor.getSecond(), 2);
+    buffer[19] = '.';
+    escreverDigitos(buffer, 20, valor.getNano() / 10_000, 5);
+    gerador.writeString(buffer, 0, TAMANHO);
+  }
+
+  private static void escreverDigitos(char[] buffer, int inicio, int valor, int digitos) {
+    for (var posicao = inicio + digitos - 1; posicao >= inicio; posicao--) {
+      buffer[posicao] = (char) ('0' + valor % 10);
+      valor /= 10;
+    }
+  }
+}
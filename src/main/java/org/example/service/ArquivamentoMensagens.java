@@ -0,0 +1,106 @@
+package org.example.service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ParticionamentoProperties;
+import org.example.ranking.RankingGostei;
+import org.example.repository.ParticaoMensagemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Move os meses fechados da tabela {@code mensagem} para as partições mensais, do mais antigo para
+ * o mais novo, em lotes de uma transação cada; depois descarta as partições além da retenção com
+ * um {@code DROP TABLE} por mês, em vez de apagar linha a linha.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "particionamento", name = "habilitado", matchIfMissing = true)
+public class ArquivamentoMensagens {
+
+  private final ParticaoMensagemRepository particaoMensagemRepository;
+
+  private final RankingGostei rankingGostei;
+
+  private final TransactionTemplate transacao;
+
+  private final ParticionamentoProperties properties;
+
+  private final Clock relogio;
+
+  @Autowired
+  public ArquivamentoMensagens(ParticaoMensagemRepository particaoMensagemRepository,
+      RankingGostei rankingGostei, PlatformTransactionManager transactionManager,
+      ParticionamentoProperties properties) {
+    this(particaoMensagemRepository, rankingGostei, new TransactionTemplate(transactionManager),
+        properties, Clock.systemDefaultZone());
+  }
+
+  ArquivamentoMensagens(ParticaoMensagemRepository particaoMensagemRepository,
+      RankingGostei rankingGostei, TransactionTemplate transacao,
+      ParticionamentoProperties properties, Clock relogio) {
+    this.particaoMensagemRepository = particaoMensagemRepository;
+    this.rankingGostei = rankingGostei;
+    this.transacao = transacao;
+    this.properties = properties;
+    this.relogio = relogio;
+  }
+
+  /**
+   * @return quantidade de mensagens movidas para as partições nesta execução
+   */
+  @Scheduled(cron = "${particionamento.cron:0 0 3 * * *}")
+  public int arquivar() {
+    var mesAtual = YearMonth.now(relogio);
+    var primeiroCorrente = mesAtual.minusMonths(properties.mesesCorrentes() - 1L);
+    var movidas = 0;
+    var mes = particaoMensagemRepository.mesMaisAntigoAntesDe(primeiroCorrente);
+    while (mes.isPresent()) {
+      var movidasNoMes = moverMes(mes.get());
+      if (movidasNoMes == 0) {
+        break;
+      }
+      movidas += movidasNoMes;
+      mes = particaoMensagemRepository.mesMaisAntigoAntesDe(primeiroCorrente);
+    }
+    if (movidas > 0) {
+      log.info("mensagens movidas para partições: Quantidade={}", movidas);
+    }
+    descartarExpiradas(mesAtual);
+    return movidas;
+  }
+
+  private int moverMes(YearMonth mes) {
+    particaoMensagemRepository.criar(mes);
+    var total = 0;
+    Integer movidas;
+    do {
+      movidas = transacao.execute(
+          status -> particaoMensagemRepository.mover(mes, properties.tamanhoLote()));
+      total += movidas == null ? 0 : movidas;
+    } while (movidas != null && movidas == properties.tamanhoLote());
+    return total;
+  }
+
+  /** Com {@code mesesRetidos} zero as partições são mantidas indefinidamente. */
+  private void descartarExpiradas(YearMonth mesAtual) {
+    if (properties.mesesRetidos() <= 0) {
+      return;
+    }
+    var limite = mesAtual.minusMonths(properties.mesesRetidos());
+    for (var mes : particaoMensagemRepository.particoes()) {
+      if (!mes.isBefore(limite)) {
+        continue;
+      }
+      // só as ranqueadas interessam ao ranking, consultadas pela chave em vez de ler a partição
+      var ranqueadas = particaoMensagemRepository.contidas(mes, rankingGostei.ranqueadas());
+      particaoMensagemRepository.descartar(mes);
+      ranqueadas.forEach(rankingGostei::remover);
+    }
+  }
+}
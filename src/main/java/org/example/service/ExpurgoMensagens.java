@@ -0,0 +1,68 @@
+package org.example.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ExpurgoProperties;
+import org.example.repository.MensagemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Remove fisicamente, fora do horário de pico, as mensagens apagadas logicamente. Cada lote roda
+ * em sua própria transação para que os locks e a manutenção dos índices fiquem limitados ao
+ * tamanho do lote.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "expurgo", name = "habilitado", matchIfMissing = true)
+public class ExpurgoMensagens {
+
+  private final MensagemRepository mensagemRepository;
+
+  private final TransactionTemplate transacao;
+
+  private final ExpurgoProperties properties;
+
+  private final Clock relogio;
+
+  @Autowired
+  public ExpurgoMensagens(MensagemRepository mensagemRepository,
+      PlatformTransactionManager transactionManager, ExpurgoProperties properties) {
+    this(mensagemRepository, new TransactionTemplate(transactionManager), properties,
+        Clock.systemDefaultZone());
+  }
+
+  ExpurgoMensagens(MensagemRepository mensagemRepository, TransactionTemplate transacao,
+      ExpurgoProperties properties, Clock relogio) {
+    this.mensagemRepository = mensagemRepository;
+    this.transacao = transacao;
+    this.properties = properties;
+    this.relogio = relogio;
+  }
+
+  /**
+   * @return quantidade de mensagens removidas nesta execução
+   */
+  @Scheduled(cron = "${expurgo.cron:0 */10 2-5 * * *}")
+  public int expurgar() {
+    var limite = LocalDateTime.now(relogio).minus(properties.carencia());
+    var total = 0;
+    for (int lote = 0; lote < properties.maximoLotes(); lote++) {
+      Integer removidas = transacao.execute(
+          status -> mensagemRepository.expurgarExcluidas(limite, properties.tamanhoLote()));
+      total += removidas == null ? 0 : removidas;
+      if (removidas == null || removidas < properties.tamanhoLote()) {
+        break;
+      }
+    }
+    if (total > 0) {
+      log.info("mensagens apagadas removidas: Quantidade={}", total);
+    }
+    return total;
+  }
+}
@@ -1,10 +1,19 @@
 
 package org.example.service;
 
+import org.example.dto.CursorListagem;
+import org.example.dto.GosteiLoteResponse;
+import org.example.dto.HistoricoResponse;
+import org.example.dto.MensagemResponse;
+import org.example.dto.MensagensResponse;
+import org.example.dto.RankingResponse;
 import org.example.model.Mensagem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface MensagemService {
@@ -13,11 +22,27 @@ public interface MensagemService {
 
   Mensagem buscarMensagem(UUID id);
 
+  MensagensResponse buscarMensagens(List<UUID> ids);
+
   Mensagem alterarMensagem(UUID id, Mensagem mensagemNova);
 
   boolean apagarMensagem(UUID id);
 
   Mensagem incrementarGostei(UUID id);
 
-  Page<Mensagem> listarMensagens(Pageable pageable);
+  GosteiLoteResponse incrementarGostei(Map<UUID, Integer> incrementos);
+
+  Page<MensagemResponse> listarMensagens(Pageable pageable);
+
+  /** Até {@code size} mensagens depois do cursor, ou as mais recentes sem cursor. */
+  List<MensagemResponse> listarMensagens(CursorListagem cursor, int size);
+
+  /**
+   * Mensagens com mais gostei; com {@code janela} considera apenas os gostei recebidos nesse
+   * período.
+   */
+  List<RankingResponse> listarTop(int n, Duration janela);
+
+  /** Versões do conteúdo da mensagem, da atual para a original. */
+  List<HistoricoResponse> listarHistorico(UUID id);
 }
@@ -1,62 +1,450 @@
 
 package org.example.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
+import org.example.concurrent.SingleFlight;
+import org.example.config.ShardingProperties;
+import org.example.dto.CursorListagem;
+import org.example.dto.GosteiLoteResponse;
+import org.example.dto.HistoricoResponse;
+import org.example.dto.MensagemResponse;
+import org.example.dto.MensagensResponse;
+import org.example.dto.RankingResponse;
+import org.example.exception.MensagemConflitoException;
 import org.example.exception.MensagemNotFoundException;
+import org.example.exception.PaginaProfundaException;
 import org.example.model.Mensagem;
+import org.example.model.MensagemHistorico;
+import org.example.model.TipoEvento;
+import org.example.outbox.RegistroOutbox;
+import org.example.ranking.PosicaoRanking;
+import org.example.ranking.RankingGostei;
+import org.example.repository.MensagemHistoricoRepository;
 import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.example.repository.ShardMensagemRepository;
+import org.example.sharding.Intercalacao;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
+@Transactional
 @RequiredArgsConstructor
 public class MensagemServiceImpl implements MensagemService {
 
   private final MensagemRepository mensagemRepository;
 
+  private final MensagemHistoricoRepository mensagemHistoricoRepository;
+
+  private final ParticaoMensagemRepository particaoMensagemRepository;
+
+  private final ShardMensagemRepository shardMensagemRepository;
+
+  private final RankingGostei rankingGostei;
+
+  private final RegistroOutbox registroOutbox;
+
+  private final ShardingProperties shardingProperties;
+
+  private final SingleFlight<UUID, Mensagem> buscasEmAndamento = new SingleFlight<>();
+
   @Override
   public Mensagem criarMensagem(Mensagem mensagem) {
     mensagem.setId(UUID.randomUUID());
-    return mensagemRepository.save(mensagem);
+    var mensagemCriada = criar(mensagem);
+    registroOutbox.registrar(TipoEvento.MENSAGEM_CRIADA, mensagemCriada.getId(),
+        MensagemResponse.de(mensagemCriada));
+    aposCommit(() -> rankingGostei.registrarGostei(mensagemCriada.getId(), 0,
+        mensagemCriada.getGostei()));
+    return mensagemCriada;
   }
 
+  /**
+   * Buscas simultâneas do mesmo id compartilham uma única consulta. Sem transação própria, para
+   * que as chamadas que aguardam não segurem uma conexão; dentro de uma transação existente a
+   * busca não é compartilhada, pois a entidade precisa pertencer àquele contexto de persistência.
+   */
   @Override
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
   public Mensagem buscarMensagem(UUID id) {
-    return mensagemRepository.findById(id)
-        .orElseThrow(() -> new MensagemNotFoundException("mensagem não encontrada"));
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return obterMensagem(id);
+    }
+    return buscasEmAndamento.executar(id, () -> obterMensagem(id));
   }
 
+  /**
+   * Ids repetidos são considerados uma vez; a resposta segue a ordem da primeira ocorrência.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public MensagensResponse buscarMensagens(List<UUID> ids) {
+    var idsDistintos = List.copyOf(new LinkedHashSet<>(ids));
+    var mensagens = completar(idsDistintos,
+        mensagemRepository.buscarMensagens(idsDistintos));
+    var encontradas = new ArrayList<MensagemResponse>(idsDistintos.size());
+    var naoEncontrados = new ArrayList<UUID>();
+    for (int i = 0; i < idsDistintos.size(); i++) {
+      var mensagem = mensagens.get(i);
+      if (mensagem == null) {
+        naoEncontrados.add(idsDistintos.get(i));
+      } else {
+        encontradas.add(MensagemResponse.de(mensagem));
+      }
+    }
+    return new MensagensResponse(encontradas, naoEncontrados);
+  }
+
+  /**
+   * Lock otimista pela versão: se outra alteração gravou depois da leitura, nada é gravado e a
+   * chamada falha com {@link MensagemConflitoException}, sem repetir a versão no histórico.
+   */
   @Override
   public Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada) {
-    var mensagem = buscarMensagem(id);
+    var mensagem = obterMensagem(id);
     if (!mensagem.getId().equals(mensagemAtualizada.getId())) {
       throw new MensagemNotFoundException("mensagem não apresenta o ID correto");
     }
-    mensagem.setDataAlteracao(LocalDateTime.now());
-    mensagem.setConteudo(mensagemAtualizada.getConteudo());
-    return mensagemRepository.save(mensagem);
+    // a entidade lida fica intacta, para que o Hibernate não grave por cima do update condicional
+    var mensagemAlterada = mensagem.toBuilder()
+        .versao(mensagem.getVersao() + 1)
+        .dataAlteracao(LocalDateTime.now())
+        .conteudo(mensagemAtualizada.getConteudo())
+        .build();
+    if (!alterar(mensagem, mensagemAlterada)) {
+      throw new MensagemConflitoException("mensagem alterada ou apagada por outra requisição");
+    }
+    mensagemHistoricoRepository.save(MensagemHistorico.de(mensagem));
+    registroOutbox.registrar(TipoEvento.MENSAGEM_ALTERADA, id,
+        MensagemResponse.de(mensagemAlterada));
+    return mensagemAlterada;
   }
 
+  /**
+   * O shard é consultado de novo no fim, como em {@link #alterar}: a mensagem pode ter saído do
+   * principal para um shard enquanto o update aguardava a redistribuição.
+   */
   @Override
   public boolean apagarMensagem(UUID id) {
-    var mensagem = buscarMensagem(id);
-    mensagemRepository.delete(mensagem);
+    if (!apagarNoShard(id)
+        && !mensagemRepository.marcarExclusao(id, LocalDateTime.now())
+        && !particaoMensagemRepository.apagar(id)
+        && !apagarNoShard(id)) {
+      throw new MensagemNotFoundException("mensagem não encontrada");
+    }
+    registroOutbox.registrar(TipoEvento.MENSAGEM_APAGADA, id, Map.of("id", id));
+    aposCommit(() -> rankingGostei.remover(id));
     return true;
   }
 
+  /**
+   * O gostei é somado no banco ({@code gostei = gostei + 1}), como no lote, para que gostei e
+   * alterações simultâneas não se sobrescrevam.
+   */
   @Override
   public Mensagem incrementarGostei(UUID id) {
-    var mensagem = buscarMensagem(id);
-    mensagem.setGostei(mensagem.getGostei() + 1);
-    return mensagemRepository.save(mensagem);
+    var mensagem = obterMensagem(id);
+    var total = somarGostei(Map.of(id, 1)).get(id);
+    if (total == null) {
+      throw new MensagemNotFoundException("mensagem não encontrada");
+    }
+    registrarGostei(id, 1, total);
+    aposCommit(() -> rankingGostei.registrarGostei(id, 1, total));
+    // a entidade lida fica intacta, para que o Hibernate não grave o gostei lido por cima da soma
+    return mensagem.toBuilder().gostei(total).build();
+  }
+
+  @Override
+  public GosteiLoteResponse incrementarGostei(Map<UUID, Integer> incrementos) {
+    var gostei = somarGostei(incrementos);
+    gostei.forEach((id, total) -> registrarGostei(id, incrementos.get(id), total));
+    aposCommit(() -> gostei.forEach((id, total) ->
+        rankingGostei.registrarGostei(id, incrementos.get(id), total)));
+    var naoEncontrados = incrementos.keySet().stream()
+        .filter(id -> !gostei.containsKey(id))
+        .toList();
+    return new GosteiLoteResponse(gostei, naoEncontrados);
+  }
+
+  /**
+   * Com shards, cada nó entrega as primeiras {@code offset + size} mensagens e a página é
+   * recortada da intercalação delas. Como o custo cresce com a profundidade, páginas além de
+   * {@code sharding.profundidade-maxima} são recusadas em favor da listagem por cursor, e essas
+   * consultas não passam pelo cache de consultas, que guardaria uma entrada por profundidade.
+   *
+   * @throws PaginaProfundaException se {@code offset + size} passa da profundidade máxima
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MensagemResponse> listarMensagens(Pageable pageable) {
+    if (pageable.isUnpaged() || !shardMensagemRepository.habilitado()) {
+      return listarPrincipal(pageable, true);
+    }
+    var profundidade = pageable.getOffset() + pageable.getPageSize();
+    if (profundidade > shardingProperties.profundidadeMaxima()) {
+      throw new PaginaProfundaException("com shards, page * size + size deve ser no máximo "
+          + shardingProperties.profundidadeMaxima() + "; para ir além, use ?cursor=");
+    }
+    var ate = (int) profundidade;
+    var principal = listarPrincipal(PageRequest.of(0, ate), false);
+    var intercaladas = Intercalacao.intercalar(
+        List.of(principal.getContent(), shardMensagemRepository.listar(null, ate)),
+        CursorListagem.ORDEM, ate);
+    var conteudo = intercaladas.subList(
+        (int) Math.min(pageable.getOffset(), intercaladas.size()), intercaladas.size());
+    return new PageImpl<>(conteudo, pageable,
+        principal.getTotalElements() + shardMensagemRepository.contar());
+  }
+
+  /**
+   * A tabela corrente tem as mensagens mais novas; quando a página passa do fim dela, o restante
+   * vem das partições, que são puladas pela contagem até o offset.
+   */
+  private Page<MensagemResponse> listarPrincipal(Pageable pageable, boolean usarCache) {
+    var correntes = usarCache && pageable.isPaged() && pageable.getPageNumber() == 0
+        ? mensagemRepository.listarMensagensEmCache(pageable)
+        : mensagemRepository.listarMensagens(pageable);
+    if (pageable.isUnpaged() || !particaoMensagemRepository.existemParticoes()) {
+      return correntes;
+    }
+    var conteudo = new ArrayList<>(correntes.getContent());
+    if (conteudo.size() < pageable.getPageSize()) {
+      var offset = Math.max(0, pageable.getOffset() - correntes.getTotalElements());
+      conteudo.addAll(particaoMensagemRepository.listar(offset,
+          pageable.getPageSize() - conteudo.size()));
+    }
+    return new PageImpl<>(conteudo, pageable,
+        correntes.getTotalElements() + particaoMensagemRepository.contar());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<MensagemResponse> listarMensagens(CursorListagem cursor, int size) {
+    var principal = particaoMensagemRepository.listar(cursor, size);
+    if (!shardMensagemRepository.habilitado()) {
+      return principal;
+    }
+    return Intercalacao.intercalar(
+        List.of(principal, shardMensagemRepository.listar(cursor, size)), CursorListagem.ORDEM,
+        size);
+  }
+
+  private Mensagem obterMensagem(UUID id) {
+    // mensagens cujo dono é um shard não chegam a consultar o principal
+    return shardMensagemRepository.buscar(id)
+        .or(() -> mensagemRepository.findById(id)
+            // entidades vindas do cache de segundo nível não passam pelo @Where
+            .filter(mensagem -> mensagem.getDataExclusao() == null))
+        // meses fechados ficam nas partições, fora do Hibernate
+        .or(() -> particaoMensagemRepository.buscar(id))
+        // movida do principal para um shard entre as consultas acima
+        .or(() -> shardMensagemRepository.buscar(id))
+        .orElseThrow(() -> new MensagemNotFoundException("mensagem não encontrada"));
+  }
+
+  /**
+   * Mensagens de shard são gravadas no dono do id, por JDBC; se a transação for desfeita, a
+   * inserção é desfeita também.
+   */
+  private Mensagem criar(Mensagem mensagem) {
+    if (!shardMensagemRepository.inserir(mensagem)) {
+      return mensagemRepository.save(mensagem);
+    }
+    aoDesfazer(() -> shardMensagemRepository.apagar(mensagem.getId()));
+    return mensagem;
   }
 
+  /**
+   * Grava o conteúdo no shard, na partição ou na tabela corrente, sempre por um update condicional
+   * na versão de {@code lida} que não toca no gostei. Na redistribuição a mensagem pode ter saído
+   * do principal para um shard enquanto o update aguardava, por isso o shard é tentado de novo;
+   * para os ids cujo dono é o principal essa tentativa não chega a consultar nada.
+   */
+  private boolean alterar(Mensagem lida, Mensagem alterada) {
+    return alterarNoShard(lida, alterada)
+        || particaoMensagemRepository.alterarConteudo(alterada, lida.getVersao())
+        || mensagemRepository.alterarConteudo(alterada.getId(), lida.getVersao(),
+            alterada.getConteudo(), alterada.getDataAlteracao())
+        || alterarNoShard(lida, alterada);
+  }
+
+  private boolean alterarNoShard(Mensagem lida, Mensagem alterada) {
+    if (!shardMensagemRepository.alterarConteudo(alterada, lida.getVersao())) {
+      return false;
+    }
+    aoDesfazer(() -> shardMensagemRepository.desfazerAlteracao(lida, alterada.getVersao()));
+    return true;
+  }
+
+  private boolean apagarNoShard(UUID id) {
+    var apagada = shardMensagemRepository.apagar(id);
+    apagada.ifPresent(mensagem -> aoDesfazer(() -> shardMensagemRepository.restaurar(mensagem)));
+    return apagada.isPresent();
+  }
+
+  /**
+   * Soma os incrementos nos shards, na tabela corrente e nas partições, nessa ordem, passando
+   * adiante só os ids ainda não encontrados; como no {@link #alterar}, os restantes voltam aos
+   * shards durante a redistribuição.
+   *
+   * @return a nova quantidade de gostei das mensagens encontradas
+   */
+  private Map<UUID, Integer> somarGostei(Map<UUID, Integer> incrementos) {
+    var gostei = new HashMap<>(somarGosteiNoShard(incrementos));
+    if (gostei.size() < incrementos.size()) {
+      gostei.putAll(mensagemRepository.incrementarGostei(restantes(incrementos, gostei)));
+    }
+    if (gostei.size() < incrementos.size() && particaoMensagemRepository.existemParticoes()) {
+      gostei.putAll(particaoMensagemRepository.incrementarGostei(restantes(incrementos, gostei)));
+    }
+    if (gostei.size() < incrementos.size()) {
+      gostei.putAll(somarGosteiNoShard(restantes(incrementos, gostei)));
+    }
+    return gostei;
+  }
+
+  /** Se a transação for desfeita, os mesmos incrementos são subtraídos. */
+  private Map<UUID, Integer> somarGosteiNoShard(Map<UUID, Integer> incrementos) {
+    var gostei = shardMensagemRepository.incrementarGostei(incrementos);
+    if (!gostei.isEmpty()) {
+      var estornos = new HashMap<UUID, Integer>();
+      gostei.keySet().forEach(id -> estornos.put(id, -incrementos.get(id)));
+      aoDesfazer(() -> shardMensagemRepository.incrementarGostei(estornos));
+    }
+    return gostei;
+  }
+
+  /**
+   * Busca nas partições e nos shards as posições que a tabela corrente deixou em {@code null}.
+   */
+  private List<Mensagem> completar(List<UUID> ids, List<Mensagem> mensagens) {
+    if (!particaoMensagemRepository.existemParticoes() && !shardMensagemRepository.habilitado()
+        || !mensagens.contains(null)) {
+      return mensagens;
+    }
+    var faltantes = new ArrayList<UUID>();
+    for (int i = 0; i < ids.size(); i++) {
+      if (mensagens.get(i) == null) {
+        faltantes.add(ids.get(i));
+      }
+    }
+    var encontradas = new HashMap<>(shardMensagemRepository.buscar(faltantes));
+    if (encontradas.size() < faltantes.size() && particaoMensagemRepository.existemParticoes()) {
+      encontradas.putAll(particaoMensagemRepository.buscar(
+          faltantes.stream().filter(id -> !encontradas.containsKey(id)).toList()));
+    }
+    var completas = new ArrayList<>(mensagens);
+    for (int i = 0; i < ids.size(); i++) {
+      if (completas.get(i) == null) {
+        completas.set(i, encontradas.get(ids.get(i)));
+      }
+    }
+    return completas;
+  }
+
+  private static Map<UUID, Integer> restantes(Map<UUID, Integer> incrementos,
+      Map<UUID, Integer> aplicados) {
+    if (aplicados.isEmpty()) {
+      return incrementos;
+    }
+    var restantes = new HashMap<>(incrementos);
+    restantes.keySet().removeAll(aplicados.keySet());
+    return restantes;
+  }
+
+  /**
+   * A versão atual vem da própria mensagem (normalmente do cache de segundo nível); as anteriores
+   * são lidas pela chave {@code (mensagem_id, versao)}.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<HistoricoResponse> listarHistorico(UUID id) {
+    var mensagem = obterMensagem(id);
+    var historico = new ArrayList<HistoricoResponse>(mensagem.getVersao());
+    historico.add(HistoricoResponse.de(mensagem));
+    if (mensagem.getVersao() > 1) {
+      historico.addAll(mensagemHistoricoRepository.listarHistorico(id));
+    }
+    return historico;
+  }
+
+  /**
+   * Posições cujas mensagens não são mais encontradas, como as de uma partição descartada, são
+   * puladas, e as seguintes do ranking completam as {@code n}.
+   */
   @Override
-  public Page<Mensagem> listarMensagens(Pageable pageable) {
-    return mensagemRepository.listarMensagens(pageable);
+  @Transactional(readOnly = true)
+  public List<RankingResponse> listarTop(int n, Duration janela) {
+    var ranking = new ArrayList<RankingResponse>(n);
+    var consultadas = new HashSet<UUID>();
+    var pedidas = n;
+    while (true) {
+      var lidas = janela == null ? rankingGostei.top(pedidas) : rankingGostei.top(pedidas, janela);
+      var posicoes = lidas.stream().filter(posicao -> consultadas.add(posicao.id())).toList();
+      var ids = posicoes.stream().map(PosicaoRanking::id).toList();
+      var mensagens = completar(ids, mensagemRepository.buscarMensagens(ids));
+      for (int i = 0; i < posicoes.size() && ranking.size() < n; i++) {
+        var mensagem = mensagens.get(i);
+        if (mensagem != null) {
+          ranking.add(new RankingResponse(ranking.size() + 1, posicoes.get(i).gostei(),
+              MensagemResponse.de(mensagem)));
+        }
+      }
+      if (ranking.size() == n || lidas.size() < pedidas) {
+        return ranking;
+      }
+      pedidas += n;
+    }
+  }
+
+  private void registrarGostei(UUID id, int incremento, int total) {
+    registroOutbox.registrar(TipoEvento.GOSTEI, id,
+        Map.of("id", id, "incremento", incremento, "gostei", total));
+  }
+
+  /** O ranking em memória só reflete alterações confirmadas no banco. */
+  private static void aposCommit(Runnable acao) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      acao.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        acao.run();
+      }
+    });
+  }
+
+  /** Compensa gravações feitas fora da transação, como as dos shards. */
+  private static void aoDesfazer(Runnable acao) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_ROLLED_BACK) {
+          acao.run();
+        }
+      }
+    });
   }
 }
@@ -0,0 +1,48 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.ShardingProperties;
+import org.example.repository.ShardMensagemRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Move para os shards recém-incluídos as mensagens que passaram a ser deles, com o sistema no
+ * ar. Agendado em {@link org.example.config.ShardingConfig}; fora de uma inclusão não faz nada.
+ * Também agenda a recontagem periódica dos shards.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sharding", name = "habilitado")
+public class RebalanceamentoShards {
+
+  private final ShardMensagemRepository shardMensagemRepository;
+
+  private final ShardingProperties properties;
+
+  /**
+   * @return quantidade de mensagens movidas nesta execução
+   */
+  public int rebalancear() {
+    if (!shardMensagemRepository.emRebalanceamento()) {
+      return 0;
+    }
+    try {
+      var movidas = shardMensagemRepository.rebalancear(properties.tamanhoLote());
+      if (movidas > 0) {
+        log.info("mensagens movidas entre shards: Quantidade={}", movidas);
+      }
+      return movidas;
+    } catch (RuntimeException e) {
+      log.warn("falha ao redistribuir mensagens; nova tentativa no próximo ciclo", e);
+      return 0;
+    }
+  }
+
+  /** Descarta o total em memória dos shards; a próxima listagem por offset os conta de novo. */
+  public void recontar() {
+    shardMensagemRepository.recontar();
+  }
+}
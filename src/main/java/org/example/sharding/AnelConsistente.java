@@ -0,0 +1,84 @@
+package org.example.sharding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Anel de hash consistente dos nós de mensagens. Cada nó ocupa {@code nosVirtuais} pontos do anel
+ * e uma mensagem pertence ao primeiro ponto a partir do hash do seu id; com isso, incluir um nó
+ * só tira dos demais as chaves que passam a ser dele, cerca de {@code 1/n} do total.
+ * <p>
+ * Imutável: {@link #com(String)} devolve um novo anel, o que permite consultar o anel anterior
+ * enquanto as mensagens são redistribuídas.
+ */
+public final class AnelConsistente {
+
+  private final NavigableMap<Long, String> pontos = new TreeMap<>();
+
+  private final Set<String> nos;
+
+  private final int nosVirtuais;
+
+  public AnelConsistente(Collection<String> nos, int nosVirtuais) {
+    if (nos.isEmpty() || nosVirtuais < 1) {
+      throw new IllegalArgumentException("o anel precisa de ao menos um nó e um ponto por nó");
+    }
+    this.nos = Collections.unmodifiableSet(new LinkedHashSet<>(nos));
+    this.nosVirtuais = nosVirtuais;
+    for (var no : this.nos) {
+      for (int i = 0; i < nosVirtuais; i++) {
+        // colisões são raras; o nó que chegou primeiro fica com o ponto
+        pontos.putIfAbsent(hash(no + "#" + i), no);
+      }
+    }
+  }
+
+  public AnelConsistente com(String no) {
+    if (nos.contains(no)) {
+      throw new IllegalArgumentException("nó já faz parte do anel: " + no);
+    }
+    var todos = new LinkedHashSet<>(nos);
+    todos.add(no);
+    return new AnelConsistente(todos, nosVirtuais);
+  }
+
+  /** Nós na ordem de inclusão. */
+  public Set<String> nos() {
+    return nos;
+  }
+
+  public String no(UUID id) {
+    var ponto = pontos.ceilingEntry(hash(id));
+    return (ponto == null ? pontos.firstEntry() : ponto).getValue();
+  }
+
+  /** Primeiros 8 bytes do MD5: os pontos de um nó ficam iguais em qualquer instância. */
+  static long hash(String valor) {
+    try {
+      var md5 = MessageDigest.getInstance("MD5").digest(valor.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(md5).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Finalizador do MurmurHash3: espalha também ids que não são aleatórios. */
+  static long hash(UUID id) {
+    var h = id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,50 @@
+package org.example.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Intercalação de k listas já ordenadas, como as páginas devolvidas por cada nó: um heap com a
+ * cabeça de cada lista entrega os {@code limite} primeiros em {@code O(limite log k)}.
+ */
+public final class Intercalacao {
+
+  private Intercalacao() {
+  }
+
+  /**
+   * Elementos iguais na {@code ordem} aparecem uma vez: durante a redistribuição a mesma
+   * mensagem pode estar na origem e no destino.
+   */
+  public static <T> List<T> intercalar(List<? extends List<? extends T>> listas,
+      Comparator<? super T> ordem, int limite) {
+    var cabecas = new PriorityQueue<Cabeca<T>>(Math.max(1, listas.size()),
+        (a, b) -> ordem.compare(a.valor(), b.valor()));
+    for (var lista : listas) {
+      if (!lista.isEmpty()) {
+        cabecas.add(new Cabeca<>(lista, 0));
+      }
+    }
+    var resultado = new ArrayList<T>(limite);
+    while (resultado.size() < limite && !cabecas.isEmpty()) {
+      var cabeca = cabecas.poll();
+      if (resultado.isEmpty() || ordem.compare(resultado.get(resultado.size() - 1),
+          cabeca.valor()) != 0) {
+        resultado.add(cabeca.valor());
+      }
+      if (cabeca.posicao() + 1 < cabeca.lista().size()) {
+        cabecas.add(new Cabeca<>(cabeca.lista(), cabeca.posicao() + 1));
+      }
+    }
+    return resultado;
+  }
+
+  private record Cabeca<T>(List<? extends T> lista, int posicao) {
+
+    T valor() {
+      return lista.get(posicao);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import org.example.dto.MensagemResponse;
+import org.example.dto.PaginaResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compara custo de CPU e tamanho do payload da listagem em JSON, JSON com gzip, CBOR e Smile.
+ * Os tamanhos em bytes de cada formato são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoBenchmark {
+
+  @Param({"10", "100"})
+  private int tamanhoPagina;
+
+  private ObjectMapper objectMapperJson;
+
+  private ObjectMapper objectMapperCbor;
+
+  private ObjectMapper objectMapperSmile;
+
+  private PaginaResponse<MensagemResponse> pagina;
+
+  @Setup(Level.Trial)
+  public void iniciar() throws IOException {
+    objectMapperJson = Jackson2ObjectMapperBuilder.json()
+        .modulesToInstall(new BlackbirdModule())
+        .build();
+    objectMapperCbor = Jackson2ObjectMapperBuilder.json()
+        .factory(new CBORFactory())
+        .modulesToInstall(new BlackbirdModule())
+        .build();
+    objectMapperSmile = Jackson2ObjectMapperBuilder.json()
+        .factory(new SmileFactory())
+        .modulesToInstall(new BlackbirdModule())
+        .build();
+
+    var agora = LocalDateTime.now();
+    var mensagens = IntStream.range(0, tamanhoPagina)
+        .mapToObj(i -> new MensagemResponse(UUID.randomUUID(), "usuario-" + i,
+            "conteúdo da mensagem " + i, agora.minusSeconds(i), agora.minusSeconds(i), i))
+        .toList();
+    pagina = PaginaResponse.de(
+        new PageImpl<>(mensagens, PageRequest.of(0, tamanhoPagina), 1_000));
+
+    System.out.printf("%ntamanho (bytes) pagina=%d json=%d json+gzip=%d cbor=%d smile=%d%n",
+        tamanhoPagina, serializarJson().length, serializarJsonGzip().length,
+        serializarCbor().length, serializarSmile().length);
+  }
+
+  @Benchmark
+  public byte[] serializarJson() throws IOException {
+    return objectMapperJson.writeValueAsBytes(pagina);
+  }
+
+  @Benchmark
+  public byte[] serializarJsonGzip() throws IOException {
+    var saida = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(saida)) {
+      objectMapperJson.writeValue(gzip, pagina);
+    }
+    return saida.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] serializarCbor() throws IOException {
+    return objectMapperCbor.writeValueAsBytes(pagina);
+  }
+
+  @Benchmark
+  public byte[] serializarSmile() throws IOException {
+    return objectMapperSmile.writeValueAsBytes(pagina);
+  }
+}
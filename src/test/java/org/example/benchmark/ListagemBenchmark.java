@@ -0,0 +1,113 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.example.RestApiApplication;
+import org.example.dto.MensagemResponse;
+import org.example.model.Mensagem;
+import org.example.repository.MensagemRepository;
+import org.example.utils.GeradorMensagens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compara a listagem paginada com entidades gerenciadas e com a projeção
+ * {@link MensagemResponse}. Executar com {@code make benchmark JMH_FILTRO=ListagemBenchmark}
+ * e observar {@code gc.alloc.rate.norm} (bytes alocados por página). Com {@code mensagens} em
+ * volume de produção o tempo passa a ser dominado pela ordenação da tabela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ListagemBenchmark {
+
+  private static final String LISTAR_ENTIDADES =
+      "SELECT m FROM Mensagem m ORDER BY m.dataCriacao DESC";
+
+  @Param({"2000", "100000"})
+  private int mensagens;
+
+  @Param({"10", "100", "1000"})
+  private int tamanhoPagina;
+
+  private ConfigurableApplicationContext contexto;
+
+  private EntityManagerFactory entityManagerFactory;
+
+  private TransactionTemplate transacao;
+
+  private TransactionTemplate transacaoLeitura;
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    contexto = new SpringApplicationBuilder(RestApiApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.sql.init.mode=never",
+            "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+            "logging.level.root=WARN")
+        .run();
+    entityManagerFactory = contexto.getBean(EntityManagerFactory.class);
+    var transactionManager = contexto.getBean(PlatformTransactionManager.class);
+    transacao = new TransactionTemplate(transactionManager);
+    transacaoLeitura = new TransactionTemplate(transactionManager);
+    transacaoLeitura.setReadOnly(true);
+
+    GeradorMensagens.builder()
+        .dataSource(contexto.getBean(DataSource.class))
+        .build()
+        .gerar(mensagens);
+  }
+
+  @TearDown(Level.Trial)
+  public void encerrar() {
+    contexto.close();
+  }
+
+  @Benchmark
+  public List<Mensagem> listarEntidades() {
+    return transacao.execute(status -> listar(LISTAR_ENTIDADES, Mensagem.class));
+  }
+
+  @Benchmark
+  public List<Mensagem> listarEntidadesSomenteLeitura() {
+    return transacaoLeitura.execute(status -> listar(LISTAR_ENTIDADES, Mensagem.class));
+  }
+
+  @Benchmark
+  public List<MensagemResponse> listarProjecao() {
+    return transacaoLeitura.execute(
+        status -> listar(MensagemRepository.LISTAR_MENSAGENS, MensagemResponse.class));
+  }
+
+  private <T> List<T> listar(String consulta, Class<T> tipo) {
+    EntityManager entityManager =
+        EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+    return entityManager.createQuery(consulta, tipo)
+        .setMaxResults(tamanhoPagina)
+        .getResultList();
+  }
+}
@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.example.ranking.PosicaoRanking;
+import org.example.ranking.RankingGostei;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo de manter e consultar o {@link RankingGostei} com {@code mensagens} já curtidas, das quais
+ * as 1000 primeiras ficam no ranking: registrar um gostei em uma mensagem qualquer, ler o top 10
+ * geral e o top 10 da última hora.
+ * Na janela, {@code recentes} mensagens receberam gostei, que é o que a consulta percorre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RankingBenchmark {
+
+  @Param({"1000000"})
+  private int mensagens;
+
+  @Param({"10000"})
+  private int recentes;
+
+  private RankingGostei ranking;
+
+  private UUID[] ids;
+
+  private long[] totais;
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    // o repositório só é usado na reconstrução, que o benchmark não executa
+    ranking = new RankingGostei(null, null, null, Duration.ofHours(24), 1000);
+    ids = new UUID[mensagens];
+    totais = new long[mensagens];
+    var aleatorio = ThreadLocalRandom.current();
+    for (int i = 0; i < mensagens; i++) {
+      ids[i] = UUID.randomUUID();
+      totais[i] = aleatorio.nextInt(1, 10_000);
+      ranking.registrarGostei(ids[i], 0, totais[i]);
+    }
+    for (int i = 0; i < recentes; i++) {
+      var indice = aleatorio.nextInt(mensagens);
+      ranking.registrarGostei(ids[indice], 1, ++totais[indice]);
+    }
+  }
+
+  @Benchmark
+  public void registrarGostei() {
+    var indice = ThreadLocalRandom.current().nextInt(mensagens);
+    ranking.registrarGostei(ids[indice], 1, ++totais[indice]);
+  }
+
+  @Benchmark
+  public List<PosicaoRanking> topGeral() {
+    return ranking.top(10);
+  }
+
+  @Benchmark
+  public List<PosicaoRanking> topUltimaHora() {
+    return ranking.top(10, Duration.ofHours(1));
+  }
+}
@@ -0,0 +1,96 @@
+package org.example.benchmark;
+
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.example.config.LimiteRequisicoesProperties;
+import org.example.filter.RateLimitFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Custo do {@link RateLimitFilter} por requisição com muitos clientes distintos (IPs) acessando
+ * a rota limitada, incluindo localização da regra, busca do bucket no cache e consumo do token.
+ * O objeto da requisição é reaproveitado; só o endereço do cliente muda a cada chamada.
+ * {@code mapaReferencia} mede só uma busca em {@link ConcurrentHashMap} com as mesmas chaves, o
+ * piso imposto pela latência de memória com muitos clientes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class RateLimitBenchmark {
+
+  private static final FilterChain CADEIA_VAZIA = (request, response) -> {
+  };
+
+  @Param({"1000", "100000"})
+  private int clientes;
+
+  private RateLimitFilter filtro;
+
+  private String[] enderecos;
+
+  private Map<String, long[]> mapa;
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    var regra = new LimiteRequisicoesProperties.Regra("POST", "/mensagens", 1_000_000,
+        Duration.ofSeconds(1), false);
+    filtro = new RateLimitFilter(
+        new LimiteRequisicoesProperties(true, 200_000, List.of(regra)));
+    enderecos = new String[clientes];
+    for (int i = 0; i < clientes; i++) {
+      enderecos[i] = "10.%d.%d.%d".formatted(i >> 16 & 0xff, i >> 8 & 0xff, i & 0xff);
+    }
+    mapa = new ConcurrentHashMap<>();
+    for (String endereco : enderecos) {
+      mapa.put(new String(endereco), new long[1]);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int posicao;
+
+    private final MockHttpServletRequest requisicao =
+        new MockHttpServletRequest("POST", "/mensagens");
+
+    private final MockHttpServletResponse resposta = new MockHttpServletResponse();
+  }
+
+  @Benchmark
+  public int filtrar(Cursor cursor) throws Exception {
+    cursor.requisicao.setRemoteAddr(enderecos[cursor.posicao]);
+    cursor.posicao = (cursor.posicao + 7919) % clientes;
+    filtro.doFilter(cursor.requisicao, cursor.resposta, CADEIA_VAZIA);
+    return cursor.resposta.getStatus();
+  }
+
+  @Benchmark
+  public long mapaReferencia(Cursor cursor) {
+    var endereco = enderecos[cursor.posicao];
+    cursor.posicao = (cursor.posicao + 7919) % clientes;
+    return mapa.get(endereco)[0]++ + System.nanoTime();
+  }
+}
@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.example.dto.MensagemResponse;
+import org.example.dto.PaginaResponse;
+import org.example.model.Mensagem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compara a serialização da entidade {@link Mensagem} em um {@link PageImpl} (formato anterior)
+ * com {@link PaginaResponse} de {@link MensagemResponse} utilizando Blackbird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int tamanhoPagina;
+
+  private ObjectMapper objectMapperEntidade;
+
+  private ObjectMapper objectMapperResposta;
+
+  private Page<Mensagem> paginaEntidades;
+
+  private PaginaResponse<MensagemResponse> paginaRespostas;
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    objectMapperEntidade = Jackson2ObjectMapperBuilder.json().build();
+    objectMapperResposta = Jackson2ObjectMapperBuilder.json()
+        .modulesToInstall(new BlackbirdModule())
+        .build();
+
+    var agora = LocalDateTime.now();
+    var mensagens = IntStream.range(0, tamanhoPagina)
+        .mapToObj(i -> Mensagem.builder()
+            .id(UUID.randomUUID())
+            .usuario("usuario-" + i)
+            .conteudo("conteúdo da mensagem " + i)
+            .dataCriacao(agora.minusSeconds(i))
+            .dataAlteracao(agora.minusSeconds(i))
+            .gostei(i)
+            .build())
+        .toList();
+    var pageable = PageRequest.of(0, tamanhoPagina);
+    paginaEntidades = new PageImpl<>(mensagens, pageable, 1_000);
+    paginaRespostas = PaginaResponse.de(new PageImpl<>(
+        mensagens.stream().map(MensagemResponse::de).toList(), pageable, 1_000));
+  }
+
+  @Benchmark
+  public byte[] serializarPaginaEntidades() throws Exception {
+    return objectMapperEntidade.writeValueAsBytes(paginaEntidades);
+  }
+
+  @Benchmark
+  public byte[] serializarPaginaRespostas() throws Exception {
+    return objectMapperResposta.writeValueAsBytes(paginaRespostas);
+  }
+}
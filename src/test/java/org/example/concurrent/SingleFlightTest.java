@@ -0,0 +1,79 @@
+package org.example.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+  private final AtomicInteger consultas = new AtomicInteger();
+
+  @Test
+  void deveCompartilharResultado_QuandoChamadasSimultaneas() throws Exception {
+    var iniciou = new CountDownLatch(1);
+    var liberar = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(4);
+
+    var primeira = executor.submit(() -> singleFlight.executar("a", () -> {
+      iniciou.countDown();
+      aguardar(liberar);
+      return consultas.incrementAndGet();
+    }));
+    iniciou.await();
+    var demais = new ArrayList<Future<Integer>>();
+    for (int i = 0; i < 3; i++) {
+      demais.add(executor.submit(() -> singleFlight.executar("a", consultas::incrementAndGet)));
+    }
+    TimeUnit.MILLISECONDS.sleep(100);
+    liberar.countDown();
+
+    assertThat(primeira.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    for (Future<Integer> resultado : demais) {
+      assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+    executor.shutdown();
+    assertThat(consultas).hasValue(1);
+    assertThat(singleFlight.emAndamento()).isZero();
+  }
+
+  @Test
+  void naoDeveCompartilhar_ChavesDiferentes() {
+    singleFlight.executar("a", consultas::incrementAndGet);
+    singleFlight.executar("b", consultas::incrementAndGet);
+
+    assertThat(consultas).hasValue(2);
+  }
+
+  @Test
+  void deveExecutarNovamente_AposConsultaTerminar() {
+    assertThat(singleFlight.executar("a", consultas::incrementAndGet)).isEqualTo(1);
+    assertThat(singleFlight.executar("a", consultas::incrementAndGet)).isEqualTo(2);
+  }
+
+  @Test
+  void devePropagarExcecao_ELiberarChave() {
+    assertThatThrownBy(() -> singleFlight.executar("a", () -> {
+      throw new IllegalStateException("falhou");
+    })).isInstanceOf(IllegalStateException.class).hasMessage("falhou");
+
+    assertThat(singleFlight.emAndamento()).isZero();
+    assertThat(singleFlight.executar("a", consultas::incrementAndGet)).isEqualTo(1);
+  }
+
+  private static void aguardar(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
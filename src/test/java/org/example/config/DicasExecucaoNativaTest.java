@@ -0,0 +1,41 @@
+package org.example.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.example.dto.HistoricoResponse;
+import org.example.model.Mensagem;
+import org.example.model.MensagemHistorico;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class DicasExecucaoNativaTest {
+
+  private final RuntimeHints hints = new RuntimeHints();
+
+  DicasExecucaoNativaTest() {
+    new DicasExecucaoNativa().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void deveRegistrarBuilderJacksonized_QuandoMensagemDesserializada() throws Exception {
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onMethod(Mensagem.MensagemBuilder.class.getDeclaredMethod("build"))).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(Mensagem.class)
+        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+  }
+
+  @Test
+  void deveRegistrarConstrutores_QuandoUsadosPeloHibernate() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(MensagemHistorico.Chave.class)
+        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(HistoricoResponse.class)
+        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+  }
+
+  @Test
+  void deveIncluirConfiguracaoDoCache_QuandoImagemNativa() {
+    assertThat(RuntimeHintsPredicates.resource().forResource("application.conf")).accepts(hints);
+  }
+}
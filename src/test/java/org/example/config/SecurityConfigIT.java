@@ -0,0 +1,95 @@
+package org.example.config;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.example.security.ApiKeyFilter;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import io.restassured.RestAssured;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "seguranca.api-keys=chave-teste")
+@AutoConfigureTestDatabase
+class SecurityConfigIT {
+
+  @LocalServerPort
+  private int port;
+
+  @BeforeEach
+  public void setup() {
+    RestAssured.port = port;
+    RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+  }
+
+  @Test
+  void devePermitirRegistrarMensagem_SemTokenCsrfESemSessao() {
+    given()
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(MensagemHelper.gerarMensagemRequest())
+        .when()
+        .post("/mensagens")
+        .then()
+        .statusCode(HttpStatus.CREATED.value())
+        .header("Set-Cookie", nullValue());
+  }
+
+  @Test
+  void devePermitirListarMensagens_SemApiKey() {
+    given()
+        .when()
+        .get("/mensagens")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .header("Set-Cookie", nullValue())
+        .header("WWW-Authenticate", nullValue());
+  }
+
+  @Test
+  void devePermitirConsultarHealth_SemApiKey() {
+    given()
+        .when()
+        .get("/actuator/health")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .body("status", equalTo("UP"));
+  }
+
+  @Test
+  void deveGerarExcecao_QuandoConsultarMetricas_SemApiKey() {
+    given()
+        .when()
+        .get("/actuator/metrics")
+        .then()
+        .statusCode(HttpStatus.UNAUTHORIZED.value())
+        .header("WWW-Authenticate", nullValue());
+  }
+
+  @Test
+  void devePermitirConsultarMetricas_ComApiKey() {
+    given()
+        .header(ApiKeyFilter.CABECALHO_API_KEY, "chave-teste")
+        .when()
+        .get("/actuator/metrics")
+        .then()
+        .statusCode(HttpStatus.OK.value());
+  }
+
+  @Test
+  void deveGerarExcecao_QuandoApiKeyInvalida() {
+    given()
+        .header(ApiKeyFilter.CABECALHO_API_KEY, "chave-invalida")
+        .when()
+        .get("/mensagens")
+        .then()
+        .statusCode(HttpStatus.UNAUTHORIZED.value());
+  }
+}
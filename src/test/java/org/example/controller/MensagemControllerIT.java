@@ -3,17 +3,32 @@ package org.example.controller;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.example.idempotencia.RegistroIdempotencia;
+import org.example.repository.MensagemRepository;
 import org.example.utils.MensagemHelper;
+import org.hibernate.Cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
@@ -21,21 +36,34 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 import io.qameta.allure.restassured.AllureRestAssured;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import jakarta.persistence.EntityManagerFactory;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
 @Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 class MensagemControllerIT {
 
   @LocalServerPort
   private int port;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MensagemRepository mensagemRepository;
+
   @BeforeEach
   public void setup() {
+    // os scripts SQL alteram a base sem passar pelo Hibernate
+    entityManagerFactory.unwrap(Cache.class).evictAllRegions();
     RestAssured.port = port;
     RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
     // RestAssured.filters(new AllureRestAssured()); // desta forma como estamos utilizando nested class gera informação duplicada
@@ -65,6 +93,35 @@ class MensagemControllerIT {
           .body("conteudo", equalTo(mensagemRequest.getConteudo()));
     }
 
+    @Test
+    void devePermitirRegistrarMensagem_UmaVez_QuandoRepetirIdempotencyKey() {
+      var mensagemRequest = MensagemHelper.gerarMensagemRequest();
+      var chave = UUID.randomUUID().toString();
+
+      String id = given()
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, chave)
+          .contentType(MediaType.APPLICATION_JSON_VALUE)
+          .body(mensagemRequest)
+          .when()
+          .post("/mensagens")
+          .then()
+          .statusCode(HttpStatus.CREATED.value())
+          .extract().path("id");
+
+      given()
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, chave)
+          .contentType(MediaType.APPLICATION_JSON_VALUE)
+          .body(mensagemRequest)
+          .when()
+          .post("/mensagens")
+          .then()
+          .statusCode(HttpStatus.CREATED.value())
+          .header(RegistroIdempotencia.CABECALHO_REPETIDA, equalTo("true"))
+          .body("id", equalTo(id));
+
+      assertThat(mensagemRepository.count()).isEqualTo(1);
+    }
+
     @Test
     void deveGerarExcecao_QuandoRegistrarMensagem_UsuarioEmBranco() {
       var mensagemRequest = MensagemHelper.gerarMensagemRequest();
@@ -181,7 +238,8 @@ class MensagemControllerIT {
           .get("/mensagens/{id}", id)
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value())
-          .body(equalTo("mensagem não encontrada"));
+          .body("message", equalTo("Not found error"))
+          .body("errors[0]", equalTo("mensagem não encontrada"));
     }
 
     @Test
@@ -194,7 +252,8 @@ class MensagemControllerIT {
           .get("/mensagens/{id}", id)
           .then()
           .statusCode(HttpStatus.BAD_REQUEST.value())
-          .body(equalTo("ID inválido"));
+          .body("message", equalTo("Validation error"))
+          .body("errors[0]", equalTo("ID inválido"));
     }
   }
 
@@ -220,6 +279,70 @@ class MensagemControllerIT {
           .body("conteudo", equalTo(mensagem.getConteudo()));
     }
 
+    @Test
+    @Sql(scripts = {"/clean.sql",
+        "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void devePermitirListarHistorico_AposAlterarMensagem() {
+      var id = "5f789b39-4295-42c1-a65b-cfca5b987db2";
+      for (String conteudo : new String[] {"segunda versão", "terceira versão"}) {
+        var mensagem = MensagemHelper.gerarMensagemCompleta();
+        mensagem.setId(UUID.fromString(id));
+        mensagem.setConteudo(conteudo);
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .body(mensagem)
+            .when()
+            .put("/mensagens/{id}", id)
+            .then()
+            .statusCode(HttpStatus.OK.value());
+      }
+
+      given()
+      .filter(new AllureRestAssured())
+          .when()
+          .get("/mensagens/{id}/historico", id)
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .body("versao", contains(3, 2, 1))
+          .body("conteudo", contains("terceira versão", "segunda versão", "abcd 1234"));
+    }
+
+    @Test
+    @Sql(scripts = {"/clean.sql",
+        "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void deveGerarConflito_QuandoAlterarMensagem_Simultaneamente() throws Exception {
+      var id = "5f789b39-4295-42c1-a65b-cfca5b987db2";
+      var executor = Executors.newFixedThreadPool(8);
+      var status = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < 8; i++) {
+        var mensagem = MensagemHelper.gerarMensagemCompleta();
+        mensagem.setId(UUID.fromString(id));
+        mensagem.setConteudo("versão concorrente " + i);
+        status.add(executor.submit(() -> given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .body(mensagem)
+            .when()
+            .put("/mensagens/{id}", id)
+            .statusCode()));
+      }
+      var alteradas = 0;
+      for (Future<Integer> resultado : status) {
+        var codigo = resultado.get(30, TimeUnit.SECONDS);
+        assertThat(codigo).isIn(HttpStatus.OK.value(), HttpStatus.CONFLICT.value());
+        alteradas += codigo == HttpStatus.OK.value() ? 1 : 0;
+      }
+      executor.shutdown();
+
+      assertThat(alteradas).isPositive();
+      var versoes = given()
+          .when()
+          .get("/mensagens/{id}/historico", id)
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .extract().jsonPath().getList("versao", Integer.class);
+      assertThat(versoes).hasSize(alteradas + 1).doesNotHaveDuplicates();
+    }
+
     @Test
     void deveGerarExcecao_QuandoAlterarMensagem_IdNaoCoincide() {
       var id = "5f789b39-4295-42c1-a65b-cfca5b987db2";
@@ -286,6 +409,41 @@ class MensagemControllerIT {
           .body(equalTo("mensagem removida"));
     }
 
+    @Test
+    @Sql(scripts = {"/clean.sql",
+        "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void deveOcultarMensagem_AposApagarMensagem() {
+      var id = "5f789b39-4295-42c1-a65b-cfca5b987db2";
+      given()
+          .when()
+          .get("/mensagens/{id}", id)
+          .then()
+          .statusCode(HttpStatus.OK.value());
+      given()
+          .when()
+          .delete("/mensagens/{id}", id)
+          .then()
+          .statusCode(HttpStatus.OK.value());
+
+      given()
+      .filter(new AllureRestAssured())
+          .when()
+          .get("/mensagens/{id}", id)
+          .then()
+          .statusCode(HttpStatus.NOT_FOUND.value());
+      given()
+          .when()
+          .delete("/mensagens/{id}", id)
+          .then()
+          .statusCode(HttpStatus.NOT_FOUND.value());
+      given()
+          .when()
+          .get("/mensagens")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .body("content.id", not(hasItem(id)));
+    }
+
     @Test
     void deveGerarExcecao_QuandoApagarMensagem_IdNaoExistente() {
       var id = "5f789b39-4295-42c1-a65b-cfca5b987db3";
@@ -360,6 +518,51 @@ class MensagemControllerIT {
     }
   }
 
+  @Nested
+  class ListarTop {
+
+    @Test
+    void devePermitirListarTop_AposIncrementarGostei() {
+      var id = given()
+          .contentType(MediaType.APPLICATION_JSON_VALUE)
+          .body(MensagemHelper.gerarMensagemRequest())
+          .when()
+          .post("/mensagens")
+          .then()
+          .statusCode(HttpStatus.CREATED.value())
+          .extract().path("id");
+      for (int i = 0; i < 2; i++) {
+        given()
+            .when()
+            .put("/mensagens/{id}/gostei", id)
+            .then()
+            .statusCode(HttpStatus.OK.value());
+      }
+
+      given()
+      .filter(new AllureRestAssured())
+          .queryParam("window", "1h")
+          .when()
+          .get("/mensagens/top")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .body("[0].posicao", equalTo(1))
+          .body("[0].gostei", equalTo(2))
+          .body("[0].mensagem.id", equalTo(id));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarTop_JanelaAcimaDaRetencao() {
+      given()
+      .filter(new AllureRestAssured())
+          .queryParam("window", "48h")
+          .when()
+          .get("/mensagens/top")
+          .then()
+          .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+  }
+
   @Nested
   class ListarMensagem {
 
@@ -432,4 +635,65 @@ class MensagemControllerIT {
     }
   }
 
+  @Nested
+  class NegociarConteudo {
+
+    @Test
+    @Sql(scripts = {"/clean.sql",
+        "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void devePermitirBuscarMensagem_EmCbor() throws Exception {
+      var id = "5f789b39-4295-42c1-a65b-cfca5b987db2";
+      var corpo = given()
+          .accept(MediaType.APPLICATION_CBOR_VALUE)
+          .when()
+          .get("/mensagens/{id}", id)
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .contentType(MediaType.APPLICATION_CBOR_VALUE)
+          .extract().asByteArray();
+
+      var mensagem = new CBORMapper().readTree(corpo);
+      assertThat(mensagem.get("id").isBinary()).isTrue();
+      var bytes = ByteBuffer.wrap(mensagem.get("id").binaryValue());
+      assertThat(new UUID(bytes.getLong(), bytes.getLong())).hasToString(id);
+      assertThat(mensagem.get("dataCriacao").asText())
+          .isEqualTo("2023-07-01 00:00:00.10000");
+    }
+
+    @Test
+    @Sql(scripts = {"/clean.sql",
+        "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void devePermitirListarMensagens_EmSmile() throws Exception {
+      var corpo = given()
+          .accept(MensagemController.APPLICATION_SMILE_VALUE)
+          .when()
+          .get("/mensagens")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .contentType(MensagemController.APPLICATION_SMILE_VALUE)
+          .extract().asByteArray();
+
+      var pagina = new SmileMapper().readValue(corpo, new TypeReference<Map<String, Object>>() {});
+      assertThat(pagina)
+          .containsEntry("totalElements", 5)
+          .containsKey("content");
+    }
+
+    @Test
+    void devePermitirListarMensagens_ComCompressao() {
+      for (int i = 0; i < 50; i++) {
+        MensagemHelper.registrarMensagem(mensagemRepository);
+      }
+
+      given()
+          .header("Accept-Encoding", "gzip")
+          .queryParam("size", "50")
+          .when()
+          .get("/mensagens")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .header("Content-Encoding", equalTo("gzip"))
+          .body("content.size()", equalTo(50));
+    }
+  }
 }
@@ -4,6 +4,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -13,18 +19,36 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
+import org.example.dto.CursorListagem;
+import org.example.dto.GosteiLoteResponse;
+import org.example.dto.HistoricoResponse;
 import org.example.dto.MensagemRequest;
+import org.example.dto.MensagemResponse;
+import org.example.dto.MensagensResponse;
+import org.example.dto.RankingResponse;
+import org.example.exception.MensagemConflitoException;
 import org.example.exception.MensagemNotFoundException;
+import org.example.exception.PaginaProfundaException;
 import org.example.handler.GlobalExceptionHandler;
+import org.example.idempotencia.RegistroIdempotencia;
 import org.example.model.Mensagem;
+import org.example.ranking.RankingGostei;
+import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.example.repository.ShardMensagemRepository;
 import org.example.service.MensagemService;
 import org.example.utils.MensagemHelper;
 import org.junit.jupiter.api.AfterEach;
@@ -65,7 +89,10 @@ class MensagemControllerTest {
   @BeforeEach
   void setUp() {
     openMocks = MockitoAnnotations.openMocks(this);
-    MensagemController mensagemController = new MensagemController(mensagemService);
+    MensagemController mensagemController = new MensagemController(mensagemService,
+        new RegistroIdempotencia(100, Duration.ofMinutes(1), Duration.ofSeconds(5)),
+        new RankingGostei(mock(MensagemRepository.class), mock(ParticaoMensagemRepository.class),
+            mock(ShardMensagemRepository.class), Duration.ofHours(24), 1000));
     mockMvc = MockMvcBuilders.standaloneSetup(mensagemController)
         .setControllerAdvice(new GlobalExceptionHandler())
         .addFilter((request, response, chain) -> {
@@ -176,6 +203,87 @@ void deveGerarMensagemDeLog_QuandoRegistrarMensagem() throws Exception {
       .criarMensagem(any(Mensagem.class));
   assertThat(logTracker.size()).isEqualTo(1);
 }
+
+@Test
+void devePermitirRegistrarMensagem_UmaVez_QuandoRepetirIdempotencyKey() throws Exception {
+  var mensagemRequest = MensagemHelper.gerarMensagemRequest();
+  when(mensagemService.criarMensagem(any(Mensagem.class)))
+      .thenAnswer(i -> {
+        Mensagem mensagem = i.getArgument(0);
+        mensagem.setId(UUID.randomUUID());
+        return mensagem;
+      });
+
+  var primeira = mockMvc.perform(post("/mensagens")
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(mensagemRequest)))
+      .andExpect(status().isCreated())
+      .andExpect(header().doesNotExist(RegistroIdempotencia.CABECALHO_REPETIDA))
+      .andReturn().getResponse().getContentAsString();
+
+  mockMvc.perform(post("/mensagens")
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(mensagemRequest)))
+      .andExpect(status().isCreated())
+      .andExpect(header().string(RegistroIdempotencia.CABECALHO_REPETIDA, "true"))
+      .andExpect(content().json(primeira));
+  verify(mensagemService, times(1))
+      .criarMensagem(any(Mensagem.class));
+}
+
+@Test
+void devePermitirRegistrarMensagem_QuandoOutroClienteRepetirIdempotencyKey() throws Exception {
+  var mensagemRequest = MensagemHelper.gerarMensagemRequest();
+  when(mensagemService.criarMensagem(any(Mensagem.class)))
+      .thenAnswer(i -> {
+        Mensagem mensagem = i.getArgument(0);
+        mensagem.setId(UUID.randomUUID());
+        return mensagem;
+      });
+
+  for (var endereco : List.of("10.0.0.1", "10.0.0.2")) {
+    mockMvc.perform(post("/mensagens")
+            .with(requisicao -> {
+              requisicao.setRemoteAddr(endereco);
+              return requisicao;
+            })
+            .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(asJsonString(mensagemRequest)))
+        .andExpect(status().isCreated())
+        .andExpect(header().doesNotExist(RegistroIdempotencia.CABECALHO_REPETIDA));
+  }
+  verify(mensagemService, times(2))
+      .criarMensagem(any(Mensagem.class));
+}
+
+@Test
+void deveGerarExcecao_QuandoRegistrarMensagem_IdempotencyKeyComOutroConteudo()
+    throws Exception {
+  when(mensagemService.criarMensagem(any(Mensagem.class)))
+      .thenAnswer(i -> i.getArgument(0));
+
+  mockMvc.perform(post("/mensagens")
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(MensagemHelper.gerarMensagemRequest())))
+      .andExpect(status().isCreated());
+
+  var outraMensagem = MensagemRequest.builder()
+      .usuario("John")
+      .conteudo("outro conteúdo")
+      .build();
+  mockMvc.perform(post("/mensagens")
+          .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-1")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(outraMensagem)))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.message").value("Idempotency error"));
+  verify(mensagemService, times(1))
+      .criarMensagem(any(Mensagem.class));
+}
   }
 
   @Nested
@@ -225,11 +333,25 @@ void deveGerarMensagemDeLog_QuandoRegistrarMensagem() throws Exception {
       mockMvc.perform(get("/mensagens/{id}", id)
               .contentType(MediaType.APPLICATION_JSON))
           .andExpect(status().isBadRequest())
-          .andExpect(content().string("ID inválido"));
+          .andExpect(jsonPath("$.message").value("Validation error"))
+          .andExpect(jsonPath("$.errors.[0]").value("ID inválido"));
       verify(mensagemService, never())
           .buscarMensagem(any(UUID.class));
     }
 
+    @Test
+    void deveGerarErroEmJson_QuandoBuscarMensagemEmCbor_IdNaoExistente() throws Exception {
+      when(mensagemService.buscarMensagem(any(UUID.class)))
+          .thenThrow(new MensagemNotFoundException("mensagem não encontrada"));
+
+      mockMvc.perform(get("/mensagens/{id}", UUID.randomUUID())
+              .accept(MediaType.APPLICATION_CBOR))
+          .andExpect(status().isNotFound())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+          .andExpect(jsonPath("$.message").value("Not found error"))
+          .andExpect(jsonPath("$.errors.[0]").value("mensagem não encontrada"));
+    }
+
     @Test
     void deveGerarMensagemDeLog_QuandoBuscarMensagem() throws Exception {
       var id = UUID.fromString("259bdc02-1ab5-11ee-be56-0242ac120002");
@@ -289,6 +411,22 @@ void deveGerarMensagemDeLog_QuandoRegistrarMensagem() throws Exception {
       verify(mensagemService, never()).apagarMensagem(any(UUID.class));
     }
 
+    @Test
+    void deveGerarExcecao_QuandoAlterarMensagem_AlteradaPorOutraRequisicao() throws Exception {
+      var id = "259bdc02-1ab5-11ee-be56-0242ac120002";
+      var mensagemRequest = MensagemHelper.gerarMensagem();
+
+      when(mensagemService.alterarMensagem(any(UUID.class), any(Mensagem.class)))
+          .thenThrow(new MensagemConflitoException(
+              "mensagem alterada ou apagada por outra requisição"));
+
+      mockMvc.perform(put("/mensagens/{id}", id)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(asJsonString(mensagemRequest)))
+          .andExpect(status().isConflict())
+          .andExpect(jsonPath("$.message").value("Conflict error"));
+    }
+
     @Test
     void deveGerarExcecao_QuandoAlterarMensagem_IdInvalido() throws Exception {
       var id = "2";
@@ -461,6 +599,240 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
   assertThat(logTracker.contains("requisição para incrementar gostei foi efetuada"))
       .isTrue();
 }
+
+@Test
+void devePermitirIncrementarGostei_UmaVez_QuandoRepetirIdempotencyKey() throws Exception {
+  var mensagem = MensagemHelper.gerarMensagemCompleta();
+  mensagem.setGostei(mensagem.getGostei() + 1);
+  var id = mensagem.getId().toString();
+
+  when(mensagemService.incrementarGostei(any(UUID.class))).thenReturn(mensagem);
+
+  for (int i = 0; i < 3; i++) {
+    mockMvc.perform(put("/mensagens/{id}/gostei", id)
+            .header(RegistroIdempotencia.CABECALHO_CHAVE, "chave-gostei")
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.gostei").value(1));
+  }
+  verify(mensagemService, times(1))
+      .incrementarGostei(any(UUID.class));
+}
+  }
+
+  @Nested
+  class ListarHistorico {
+
+    @Test
+    void devePermitirListarHistorico() throws Exception {
+      var id = UUID.randomUUID();
+      when(mensagemService.listarHistorico(id)).thenReturn(List.of(
+          new HistoricoResponse(2, "atual", LocalDateTime.now()),
+          new HistoricoResponse(1, "original", LocalDateTime.now().minusDays(1))));
+
+      mockMvc.perform(get("/mensagens/{id}/historico", id))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].versao").value(2))
+          .andExpect(jsonPath("$[1].conteudo").value("original"))
+          .andExpect(jsonPath("$[1].dataAlteracao").exists());
+      verify(mensagemService, times(1)).listarHistorico(id);
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarHistorico_IdNaoExistente() throws Exception {
+      var id = UUID.randomUUID();
+      when(mensagemService.listarHistorico(id))
+          .thenThrow(new MensagemNotFoundException("mensagem não encontrada"));
+
+      mockMvc.perform(get("/mensagens/{id}/historico", id))
+          .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarHistorico_IdInvalido() throws Exception {
+      mockMvc.perform(get("/mensagens/{id}/historico", "2"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Validation error"))
+          .andExpect(jsonPath("$.errors.[0]").value("ID inválido"));
+      verify(mensagemService, never()).listarHistorico(any(UUID.class));
+    }
+  }
+
+  @Nested
+  class ListarTop {
+
+    @Test
+    void devePermitirListarTop() throws Exception {
+      var mensagem = MensagemHelper.gerarMensagemResponse();
+      when(mensagemService.listarTop(10, null))
+          .thenReturn(List.of(new RankingResponse(1, 42, mensagem)));
+
+      mockMvc.perform(get("/mensagens/top"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(jsonPath("$[0].posicao").value(1))
+          .andExpect(jsonPath("$[0].gostei").value(42))
+          .andExpect(jsonPath("$[0].mensagem.id").value(mensagem.id().toString()));
+      verify(mensagemService, times(1)).listarTop(10, null);
+    }
+
+    @Test
+    void devePermitirListarTop_QuandoInformadaJanela() throws Exception {
+      when(mensagemService.listarTop(5, Duration.ofHours(1)))
+          .thenReturn(List.of());
+
+      mockMvc.perform(get("/mensagens/top").param("n", "5").param("window", "1h"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", empty()));
+      verify(mensagemService, times(1)).listarTop(5, Duration.ofHours(1));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarTop_QuantidadeForaDoLimite() throws Exception {
+      mockMvc.perform(get("/mensagens/top")
+              .param("n", String.valueOf(MensagemController.LIMITE_IDS + 1)))
+          .andExpect(status().isBadRequest());
+      verify(mensagemService, never()).listarTop(anyInt(), any());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarTop_JanelaInvalida() throws Exception {
+      mockMvc.perform(get("/mensagens/top").param("window", "ontem"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Validation error"))
+          .andExpect(jsonPath("$.errors.[0]").value("janela inválida"));
+      verify(mensagemService, never()).listarTop(anyInt(), any());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarTop_JanelaAcimaDaRetencao() throws Exception {
+      mockMvc.perform(get("/mensagens/top").param("window", "2d"))
+          .andExpect(status().isBadRequest());
+      verify(mensagemService, never()).listarTop(anyInt(), any());
+    }
+  }
+
+  @Nested
+  class BuscarMensagens {
+
+    @Test
+    void devePermitirBuscarMensagens() throws Exception {
+      var mensagem = MensagemHelper.gerarMensagemResponse();
+      var idInexistente = UUID.randomUUID();
+      when(mensagemService.buscarMensagens(anyList()))
+          .thenReturn(new MensagensResponse(List.of(mensagem), List.of(idInexistente)));
+
+      mockMvc.perform(get("/mensagens")
+              .param("ids", mensagem.id().toString(), idInexistente.toString()))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.mensagens", hasSize(1)))
+          .andExpect(jsonPath("$.mensagens[0].id").value(mensagem.id().toString()))
+          .andExpect(jsonPath("$.naoEncontrados[0]").value(idInexistente.toString()));
+      verify(mensagemService, times(1))
+          .buscarMensagens(List.of(mensagem.id(), idInexistente));
+      verify(mensagemService, never())
+          .listarMensagens(any(Pageable.class));
+    }
+
+    @Test
+    void devePermitirBuscarMensagens_IdsSeparadosPorVirgula() throws Exception {
+      var id1 = UUID.randomUUID();
+      var id2 = UUID.randomUUID();
+      when(mensagemService.buscarMensagens(anyList()))
+          .thenReturn(new MensagensResponse(List.of(), List.of(id1, id2)));
+
+      mockMvc.perform(get("/mensagens").param("ids", id1 + "," + id2))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.naoEncontrados", hasSize(2)));
+      verify(mensagemService, times(1)).buscarMensagens(List.of(id1, id2));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoBuscarMensagens_IdInvalido() throws Exception {
+      mockMvc.perform(get("/mensagens").param("ids", UUID.randomUUID() + ",2"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Validation error"))
+          .andExpect(jsonPath("$.errors.[0]").value("ID inválido"));
+      verify(mensagemService, never()).buscarMensagens(anyList());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoBuscarMensagens_AcimaDoLimite() throws Exception {
+      var ids = IntStream.rangeClosed(0, MensagemController.LIMITE_IDS)
+          .mapToObj(i -> UUID.randomUUID().toString())
+          .toArray(String[]::new);
+
+      mockMvc.perform(get("/mensagens").param("ids", ids))
+          .andExpect(status().isBadRequest());
+      verify(mensagemService, never()).buscarMensagens(anyList());
+    }
+  }
+
+  @Nested
+  class IncrementarGosteiEmLote {
+
+    @Test
+    void devePermitirIncrementarGosteiEmLote() throws Exception {
+      var id = UUID.randomUUID();
+      var idInexistente = UUID.randomUUID();
+      when(mensagemService.incrementarGostei(anyMap()))
+          .thenReturn(new GosteiLoteResponse(Map.of(id, 7), List.of(idInexistente)));
+
+      mockMvc.perform(post("/mensagens/gostei/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(asJsonString(Map.of(id, 3, idInexistente, 1))))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.gostei['" + id + "']").value(7))
+          .andExpect(jsonPath("$.naoEncontrados[0]").value(idInexistente.toString()));
+      verify(mensagemService, times(1))
+          .incrementarGostei(Map.of(id, 3, idInexistente, 1));
+    }
+
+    @Test
+    void devePermitirIncrementarGosteiEmLote_UmaVez_QuandoRepetirIdempotencyKey()
+        throws Exception {
+      var id = UUID.randomUUID();
+      when(mensagemService.incrementarGostei(anyMap()))
+          .thenReturn(new GosteiLoteResponse(Map.of(id, 3), List.of()));
+
+      for (int i = 0; i < 2; i++) {
+        mockMvc.perform(post("/mensagens/gostei/batch")
+                .header(RegistroIdempotencia.CABECALHO_CHAVE, "lote-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(Map.of(id, 3))))
+            .andExpect(status().isOk());
+      }
+      verify(mensagemService, times(1)).incrementarGostei(anyMap());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoIncrementarGosteiEmLote_SemIds() throws Exception {
+      mockMvc.perform(post("/mensagens/gostei/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{}"))
+          .andExpect(status().isBadRequest());
+      verify(mensagemService, never()).incrementarGostei(anyMap());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoIncrementarGosteiEmLote_IncrementoInvalido() throws Exception {
+      mockMvc.perform(post("/mensagens/gostei/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(asJsonString(Map.of(UUID.randomUUID(), -1))))
+          .andExpect(status().isBadRequest())
+          .andExpect(content().string("incremento deve estar entre 1 e 1000"));
+      verify(mensagemService, never()).incrementarGostei(anyMap());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoIncrementarGosteiEmLote_IdInvalido() throws Exception {
+      mockMvc.perform(post("/mensagens/gostei/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"2\": 1}"))
+          .andExpect(status().isBadRequest());
+      verify(mensagemService, never()).incrementarGostei(anyMap());
+    }
   }
 
   @Nested
@@ -468,8 +840,8 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
 
     @Test
     void devePermitirListarMensagens() throws Exception {
-      var mensagem = MensagemHelper.gerarMensagemCompleta();
-      Page<Mensagem> page = new PageImpl<>(Collections.singletonList(
+      var mensagem = MensagemHelper.gerarMensagemResponse();
+      Page<MensagemResponse> page = new PageImpl<>(Collections.singletonList(
           mensagem
       ));
       when(mensagemService.listarMensagens(any(Pageable.class)))
@@ -477,19 +849,31 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
       mockMvc.perform(get("/mensagens")
               .contentType(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
-          .andExpect(jsonPath("$.content[0].id").value(mensagem.getId().toString()))
-          .andExpect(jsonPath("$.content[0].conteudo").value(mensagem.getConteudo()))
-          .andExpect(jsonPath("$.content[0].usuario").value(mensagem.getUsuario()))
+          .andExpect(jsonPath("$.content[0].id").value(mensagem.id().toString()))
+          .andExpect(jsonPath("$.content[0].conteudo").value(mensagem.conteudo()))
+          .andExpect(jsonPath("$.content[0].usuario").value(mensagem.usuario()))
           .andExpect(jsonPath("$.content[0].dataCriacao").exists())
           .andExpect(jsonPath("$.content[0].gostei").exists());
       verify(mensagemService, times(1))
           .listarMensagens(any(Pageable.class));
     }
 
+    @Test
+    void deveGerarExcecao_QuandoListarMensagens_PaginaProfunda() throws Exception {
+      when(mensagemService.listarMensagens(any(Pageable.class)))
+          .thenThrow(new PaginaProfundaException("use ?cursor="));
+      mockMvc.perform(get("/mensagens")
+              .param("page", "500")
+              .param("size", "10"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Pagination error"))
+          .andExpect(jsonPath("$.errors.[0]").value("use ?cursor="));
+    }
+
     @Test
     void devePermitirListarMensagens_QuandoNaoExisteRegistro()
         throws Exception {
-      Page<Mensagem> page = new PageImpl<>(Collections.emptyList());
+      Page<MensagemResponse> page = new PageImpl<>(Collections.emptyList());
       when(mensagemService.listarMensagens(any(Pageable.class)))
           .thenReturn(page);
       mockMvc.perform(get("/mensagens")
@@ -505,7 +889,7 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
     @Test
     void devePermitirListarMensagens_QuandoReceberParametrosInvalidos()
         throws Exception {
-      Page<Mensagem> page = new PageImpl<>(Collections.emptyList());
+      Page<MensagemResponse> page = new PageImpl<>(Collections.emptyList());
       when(mensagemService.listarMensagens(any(Pageable.class)))
           .thenReturn(page);
       mockMvc.perform(get("/mensagens?page=2&ping=pong")
@@ -519,8 +903,8 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
 
     @Test
     void deveGerarMensagemDeLog_QuandoListarMensagens() throws Exception {
-      var mensagem = MensagemHelper.gerarMensagemCompleta();
-      Page<Mensagem> page = new PageImpl<>(Collections.singletonList(
+      var mensagem = MensagemHelper.gerarMensagemResponse();
+      Page<MensagemResponse> page = new PageImpl<>(Collections.singletonList(
           mensagem
       ));
       when(mensagemService.listarMensagens(any(Pageable.class)))
@@ -533,6 +917,38 @@ void deveGerarMensagemDeLog_QuandoIncrementarGostei() throws Exception {
           "requisição para listar mensagens foi efetuada: Página=0, Tamanho=10")).isTrue();
 
     }
+
+    @Test
+    void devePermitirListarMensagensPorCursor_InformandoProximo() throws Exception {
+      var mensagem = MensagemHelper.gerarMensagemResponse();
+      when(mensagemService.listarMensagens(isNull(), eq(1)))
+          .thenReturn(List.of(mensagem));
+      var proximo = CursorListagem.de(mensagem).codificar();
+
+      mockMvc.perform(get("/mensagens?cursor=&size=1")
+              .contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content[0].id").value(mensagem.id().toString()))
+          .andExpect(jsonPath("$.proximo").value(proximo));
+
+      when(mensagemService.listarMensagens(CursorListagem.de(mensagem), 1))
+          .thenReturn(List.of());
+      mockMvc.perform(get("/mensagens?size=1&cursor=" + proximo)
+              .contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content", empty()))
+          .andExpect(jsonPath("$.proximo").doesNotExist());
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarMensagensPorCursor_CursorInvalido() throws Exception {
+      mockMvc.perform(get("/mensagens?cursor=xpto")
+              .contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Validation error"))
+          .andExpect(jsonPath("$.errors.[0]").value("cursor inválido"));
+      verify(mensagemService, never()).listarMensagens(any(), anyInt());
+    }
   }
 
   public static String asJsonString(final Object obj) {
@@ -0,0 +1,114 @@
+package org.example.filter;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.HashMap;
+import java.util.UUID;
+import org.example.security.ApiKeyFilter;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import io.restassured.RestAssured;
+import io.restassured.response.ValidatableResponse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "seguranca.api-keys=chave-1,chave-2",
+        "limite-requisicoes.regras[0].metodo=POST",
+        "limite-requisicoes.regras[0].caminho=/mensagens",
+        "limite-requisicoes.regras[0].capacidade=2",
+        "limite-requisicoes.regras[0].periodo=1h",
+        "limite-requisicoes.regras[1].metodo=PUT",
+        "limite-requisicoes.regras[1].caminho=/mensagens/{id}/gostei",
+        "limite-requisicoes.regras[1].capacidade=1",
+        "limite-requisicoes.regras[1].periodo=1h",
+        "limite-requisicoes.regras[2].metodo=POST",
+        "limite-requisicoes.regras[2].caminho=/mensagens/gostei/batch",
+        "limite-requisicoes.regras[2].capacidade=3",
+        "limite-requisicoes.regras[2].periodo=1h",
+        "limite-requisicoes.regras[2].peso-por-id=true"})
+@AutoConfigureTestDatabase
+class RateLimitFilterIT {
+
+  @LocalServerPort
+  private int port;
+
+  @BeforeEach
+  public void setup() {
+    RestAssured.port = port;
+    RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+  }
+
+  @Test
+  void deveLimitarRequisicoes_PorCliente() {
+    registrarMensagem("chave-1").statusCode(HttpStatus.CREATED.value());
+    registrarMensagem("chave-1").statusCode(HttpStatus.CREATED.value());
+    registrarMensagem("chave-1")
+        .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+        .header("Retry-After", equalTo("1800"));
+
+    registrarMensagem("chave-2").statusCode(HttpStatus.CREATED.value());
+  }
+
+  @Test
+  void deveLimitarRequisicoes_PorRota() {
+    var id = given()
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(MensagemHelper.gerarMensagemRequest())
+        .post("/mensagens")
+        .then()
+        .statusCode(HttpStatus.CREATED.value())
+        .extract().path("id");
+
+    given().put("/mensagens/{id}/gostei", id)
+        .then().statusCode(HttpStatus.OK.value());
+    given().put("/mensagens/{id}/gostei", id)
+        .then().statusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+
+    given().get("/mensagens/{id}", id)
+        .then().statusCode(HttpStatus.OK.value());
+  }
+
+  @Test
+  void deveLimitarGosteiEmLote_PorQuantidadeDeIds() {
+    incrementarEmLote(2)
+        .statusCode(HttpStatus.OK.value())
+        .body("naoEncontrados.size()", equalTo(2));
+    incrementarEmLote(2)
+        .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+        .header("Retry-After", equalTo("1200"));
+    incrementarEmLote(1).statusCode(HttpStatus.OK.value());
+    incrementarEmLote(1).statusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+  }
+
+  private ValidatableResponse incrementarEmLote(int ids) {
+    var incrementos = new HashMap<UUID, Integer>();
+    for (int i = 0; i < ids; i++) {
+      incrementos.put(UUID.randomUUID(), 1);
+    }
+    return given()
+        .header(ApiKeyFilter.CABECALHO_API_KEY, "chave-1")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(incrementos)
+        .when()
+        .post("/mensagens/gostei/batch")
+        .then();
+  }
+
+  private ValidatableResponse registrarMensagem(String apiKey) {
+    return given()
+        .header(ApiKeyFilter.CABECALHO_API_KEY, apiKey)
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(MensagemHelper.gerarMensagemRequest())
+        .when()
+        .post("/mensagens")
+        .then();
+  }
+}
@@ -0,0 +1,87 @@
+package org.example.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+  private static final long SEGUNDO = Duration.ofSeconds(1).toNanos();
+
+  @Test
+  void devePermitirRajada_AteCapacidade() {
+    var bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(bucket.consumir(0)).isZero();
+    }
+    assertThat(bucket.consumir(0)).isEqualTo(SEGUNDO / 5);
+  }
+
+  @Test
+  void deveReporTokens_ComPassarDoTempo() {
+    var bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+    for (int i = 0; i < 5; i++) {
+      bucket.consumir(0);
+    }
+
+    assertThat(bucket.consumir(SEGUNDO / 5)).isZero();
+    assertThat(bucket.consumir(SEGUNDO / 5)).isPositive();
+    assertThat(bucket.consumir(SEGUNDO / 5 + SEGUNDO)).isZero();
+  }
+
+  @Test
+  void deveConsumirVariosTokens_DeUmaVez() {
+    var bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+
+    assertThat(bucket.consumir(0, 3)).isZero();
+    assertThat(bucket.consumir(0, 3)).isEqualTo(SEGUNDO / 5);
+    assertThat(bucket.consumir(0, 2)).isZero();
+    assertThat(bucket.consumir(0)).isPositive();
+  }
+
+  @Test
+  void naoDeveAcumularTokens_AlemDaCapacidade() {
+    var bucket = new TokenBucket(2, Duration.ofSeconds(1), 0);
+
+    var agora = 60 * SEGUNDO;
+    assertThat(bucket.consumir(agora)).isZero();
+    assertThat(bucket.consumir(agora)).isZero();
+    assertThat(bucket.consumir(agora)).isPositive();
+  }
+
+  @Test
+  void deveLiberarExatamenteCapacidade_QuandoConcorrente() throws InterruptedException {
+    var bucket = new TokenBucket(1_000, Duration.ofHours(1), 0);
+    var liberadas = new AtomicInteger();
+    var inicio = new CountDownLatch(1);
+    var fim = new CountDownLatch(8);
+
+    var executor = Executors.newFixedThreadPool(8);
+    for (int t = 0; t < 8; t++) {
+      executor.execute(() -> {
+        try {
+          inicio.await();
+          for (int i = 0; i < 500; i++) {
+            if (bucket.consumir(0) == 0) {
+              liberadas.incrementAndGet();
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          fim.countDown();
+        }
+      });
+    }
+    inicio.countDown();
+    fim.await();
+    executor.shutdown();
+
+    assertThat(liberadas).hasValue(1_000);
+  }
+}
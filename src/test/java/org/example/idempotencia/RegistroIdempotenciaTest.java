@@ -0,0 +1,142 @@
+package org.example.idempotencia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.exception.IdempotenciaConflitoException;
+import org.example.exception.IdempotenciaEmAndamentoException;
+import org.example.exception.MensagemNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class RegistroIdempotenciaTest {
+
+  private static final String CLIENTE = "10.0.0.1";
+
+  private final RegistroIdempotencia registroIdempotencia =
+      new RegistroIdempotencia(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+  private final AtomicInteger execucoes = new AtomicInteger();
+
+  private ResponseEntity<String> criar() {
+    return new ResponseEntity<>("criado-" + execucoes.incrementAndGet(), HttpStatus.CREATED);
+  }
+
+  @Test
+  void deveExecutarSempre_QuandoSemChave() {
+    registroIdempotencia.executar(CLIENTE, null, "POST /x", "a", this::criar);
+    registroIdempotencia.executar(CLIENTE, "", "POST /x", "a", this::criar);
+
+    assertThat(execucoes).hasValue(2);
+  }
+
+  @Test
+  void deveRepetirResposta_QuandoMesmaChave() {
+    var primeira = registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", this::criar);
+    var segunda = registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", this::criar);
+
+    assertThat(execucoes).hasValue(1);
+    assertThat(segunda.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(segunda.getBody()).isEqualTo(primeira.getBody());
+    assertThat(segunda.getHeaders().getFirst(RegistroIdempotencia.CABECALHO_REPETIDA))
+        .isEqualTo("true");
+  }
+
+  @Test
+  void deveSepararChaves_PorEscopo() {
+    registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", this::criar);
+    registroIdempotencia.executar(CLIENTE, "k", "POST /y", "a", this::criar);
+
+    assertThat(execucoes).hasValue(2);
+  }
+
+  @Test
+  void deveSepararChaves_PorCliente() {
+    var primeira = registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", this::criar);
+    var outroCliente = registroIdempotencia.executar("10.0.0.2", "k", "POST /x", "b", this::criar);
+
+    assertThat(execucoes).hasValue(2);
+    assertThat(outroCliente.getBody()).isNotEqualTo(primeira.getBody());
+    assertThat(outroCliente.getHeaders())
+        .doesNotContainKey(RegistroIdempotencia.CABECALHO_REPETIDA);
+  }
+
+  @Test
+  void deveGerarExcecao_QuandoMesmaChaveComOutroConteudo() {
+    registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", this::criar);
+
+    assertThatThrownBy(
+        () -> registroIdempotencia.executar(CLIENTE, "k", "POST /x", "b", this::criar))
+        .isInstanceOf(IdempotenciaConflitoException.class);
+    assertThat(execucoes).hasValue(1);
+  }
+
+  @Test
+  void naoDeveGuardarFalha_PermitindoNovaTentativa() {
+    assertThatThrownBy(() -> registroIdempotencia.executar(CLIENTE, "k", "PUT /x", "a", () -> {
+      throw new MensagemNotFoundException("mensagem não encontrada");
+    })).isInstanceOf(MensagemNotFoundException.class);
+
+    var resposta = registroIdempotencia.executar(CLIENTE, "k", "PUT /x", "a", this::criar);
+
+    assertThat(resposta.getBody()).isEqualTo("criado-1");
+  }
+
+  @Test
+  void deveExecutarUmaVez_QuandoRequisicoesSimultaneas() throws Exception {
+    var liberar = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(8);
+    var respostas = new ArrayList<Future<ResponseEntity<String>>>();
+    for (int i = 0; i < 8; i++) {
+      respostas.add(executor.submit(() ->
+          registroIdempotencia.executar(CLIENTE, "k", "POST /x", "a", () -> {
+            try {
+              liberar.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return criar();
+          })));
+    }
+    TimeUnit.MILLISECONDS.sleep(100);
+    liberar.countDown();
+
+    for (Future<ResponseEntity<String>> resposta : respostas) {
+      assertThat(resposta.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("criado-1");
+    }
+    executor.shutdown();
+    assertThat(execucoes).hasValue(1);
+  }
+
+  @Test
+  void deveGerarExcecao_QuandoPrimeiraRequisicaoNaoTerminaDentroDaEspera() throws Exception {
+    var registro = new RegistroIdempotencia(100, Duration.ofMinutes(1), Duration.ofMillis(50));
+    var liberar = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    var primeira = executor.submit(() -> registro.executar(CLIENTE, "k", "POST /x", "a", () -> {
+      try {
+        liberar.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return criar();
+    }));
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    assertThatThrownBy(() -> registro.executar(CLIENTE, "k", "POST /x", "a", this::criar))
+        .isInstanceOf(IdempotenciaEmAndamentoException.class);
+    liberar.countDown();
+    assertThat(primeira.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("criado-1");
+    executor.shutdown();
+    assertThat(registro.executar(CLIENTE, "k", "POST /x", "a", this::criar).getBody())
+        .isEqualTo("criado-1");
+  }
+}
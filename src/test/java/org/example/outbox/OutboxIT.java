@@ -0,0 +1,75 @@
+package org.example.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import org.example.exception.MensagemNotFoundException;
+import org.example.model.EventoOutbox;
+import org.example.model.TipoEvento;
+import org.example.repository.EventoOutboxRepository;
+import org.example.service.MensagemService;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// intervalo longo para que o relay agendado não concorra com as chamadas explícitas
+@SpringBootTest(properties = "outbox.intervalo=1h")
+@AutoConfigureTestDatabase
+class OutboxIT {
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private EventoOutboxRepository eventoOutboxRepository;
+
+  @Autowired
+  private RelayOutbox relayOutbox;
+
+  @Autowired
+  private PublicadorEventosMemoria publicador;
+
+  @BeforeEach
+  void setUp() {
+    relayOutbox.drenar();
+    publicador.limpar();
+  }
+
+  @Test
+  void devePublicarEventos_NaOrdemDasOperacoes() {
+    var mensagem = mensagemService.criarMensagem(MensagemHelper.gerarMensagem());
+    mensagemService.incrementarGostei(mensagem.getId());
+    mensagemService.incrementarGostei(Map.of(mensagem.getId(), 2));
+    mensagemService.apagarMensagem(mensagem.getId());
+    assertThat(eventoOutboxRepository.count()).isEqualTo(4);
+
+    var publicados = relayOutbox.drenar();
+
+    assertThat(publicados).isEqualTo(4);
+    assertThat(eventoOutboxRepository.count()).isZero();
+    assertThat(publicador.eventos())
+        .extracting(EventoOutbox::getTipo)
+        .containsExactly(TipoEvento.MENSAGEM_CRIADA, TipoEvento.GOSTEI, TipoEvento.GOSTEI,
+            TipoEvento.MENSAGEM_APAGADA);
+    assertThat(publicador.eventos())
+        .allSatisfy(evento -> assertThat(evento.getMensagemId()).isEqualTo(mensagem.getId()));
+    assertThat(publicador.eventos().get(2).getPayload())
+        .contains("\"incremento\":2", "\"gostei\":3");
+  }
+
+  @Test
+  void naoDeveGravarEvento_QuandoOperacaoFalhar() {
+    var mensagem = mensagemService.criarMensagem(MensagemHelper.gerarMensagem());
+    var outra = MensagemHelper.gerarMensagemCompleta();
+    var pendentes = eventoOutboxRepository.count();
+
+    assertThatThrownBy(() -> mensagemService.alterarMensagem(mensagem.getId(), outra))
+        .isInstanceOf(MensagemNotFoundException.class);
+
+    assertThat(eventoOutboxRepository.count()).isEqualTo(pendentes);
+  }
+}
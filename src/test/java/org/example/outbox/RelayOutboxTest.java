@@ -0,0 +1,125 @@
+package org.example.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import org.example.config.OutboxProperties;
+import org.example.model.EventoOutbox;
+import org.example.model.TipoEvento;
+import org.example.repository.EventoOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class RelayOutboxTest {
+
+  private static final Instant AGORA = Instant.parse("2023-07-10T12:00:00Z");
+
+  private final EventoOutboxRepository eventoOutboxRepository =
+      mock(EventoOutboxRepository.class);
+
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+
+  private final PublicadorEventosMemoria publicador = new PublicadorEventosMemoria(100);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private RelayOutbox criarRelay(PublicadorEventos destino, int tamanhoLote, int maximoLotes) {
+    var properties = new OutboxProperties(true, tamanhoLote, Duration.ofSeconds(1), maximoLotes,
+        "memoria", 100, Path.of("outbox.jsonl"));
+    return new RelayOutbox(eventoOutboxRepository, destino,
+        new TransactionTemplate(transactionManager), properties, meterRegistry,
+        Clock.fixed(AGORA, ZoneOffset.UTC));
+  }
+
+  @Test
+  void devePublicarEmLotes_AteOutboxVazio() {
+    var primeiroLote = gerarEventos(1, 2, Duration.ofSeconds(5));
+    var segundoLote = gerarEventos(3, 3, Duration.ofSeconds(2));
+    when(eventoOutboxRepository.listarPendentes(any(Pageable.class)))
+        .thenReturn(primeiroLote)
+        .thenReturn(segundoLote);
+
+    var publicados = criarRelay(publicador, 2, 10).drenar();
+
+    assertThat(publicados).isEqualTo(3);
+    assertThat(publicador.eventos()).extracting(EventoOutbox::getId).containsExactly(1L, 2L, 3L);
+    verify(eventoOutboxRepository, times(2)).listarPendentes(PageRequest.of(0, 2));
+    verify(eventoOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(eventoOutboxRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(transactionManager, times(2)).commit(any());
+    assertThat(meterRegistry.get("outbox.eventos.publicados").counter().count()).isEqualTo(3);
+    assertThat(meterRegistry.get("outbox.lote.publicacao").timer().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("outbox.atraso").gauge().value()).isEqualTo(2.0);
+  }
+
+  @Test
+  void deveLimitarQuantidadeDeLotes_PorCiclo() {
+    when(eventoOutboxRepository.listarPendentes(any(Pageable.class)))
+        .thenReturn(gerarEventos(1, 2, Duration.ZERO))
+        .thenReturn(gerarEventos(3, 4, Duration.ZERO));
+
+    var publicados = criarRelay(publicador, 2, 2).drenar();
+
+    assertThat(publicados).isEqualTo(4);
+    verify(eventoOutboxRepository, times(2)).listarPendentes(any(Pageable.class));
+  }
+
+  @Test
+  void deveManterEventos_QuandoPublicacaoFalhar() {
+    var destino = mock(PublicadorEventos.class);
+    doThrow(new IllegalStateException("destino indisponível")).when(destino).publicar(anyList());
+    when(eventoOutboxRepository.listarPendentes(any(Pageable.class)))
+        .thenReturn(gerarEventos(1, 2, Duration.ZERO));
+
+    var publicados = criarRelay(destino, 10, 10).drenar();
+
+    assertThat(publicados).isZero();
+    verify(eventoOutboxRepository, never()).deleteAllByIdInBatch(anyList());
+    verify(transactionManager, times(1)).rollback(any());
+    assertThat(meterRegistry.get("outbox.eventos.publicados").counter().count()).isZero();
+  }
+
+  @Test
+  void deveDescartarMaisAntigos_QuandoPublicadorMemoriaCheio() {
+    var destino = new PublicadorEventosMemoria(3);
+
+    destino.publicar(gerarEventos(1, 2, Duration.ZERO));
+    destino.publicar(gerarEventos(3, 5, Duration.ZERO));
+
+    assertThat(destino.eventos()).extracting(EventoOutbox::getId).containsExactly(3L, 4L, 5L);
+  }
+
+  private static List<EventoOutbox> gerarEventos(long primeiro, long ultimo, Duration idade) {
+    var dataCriacao = LocalDateTime.ofInstant(AGORA.minus(idade), ZoneOffset.UTC);
+    return LongStream.rangeClosed(primeiro, ultimo)
+        .mapToObj(id -> EventoOutbox.builder()
+            .id(id)
+            .tipo(TipoEvento.GOSTEI)
+            .mensagemId(UUID.randomUUID())
+            .payload("{}")
+            .dataCriacao(dataCriacao)
+            .build())
+        .toList();
+  }
+}
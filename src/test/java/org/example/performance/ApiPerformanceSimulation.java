@@ -1,97 +1,67 @@
 package org.example.performance;
 
-import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.OpenInjectionStep;
 import io.gatling.javaapi.core.ScenarioBuilder;
 import io.gatling.javaapi.core.Simulation;
 import io.gatling.javaapi.http.HttpProtocolBuilder;
 
-import java.time.Duration;
+import java.util.ArrayList;
 
 import static io.gatling.javaapi.core.CoreDsl.*;
 import static io.gatling.javaapi.http.HttpDsl.http;
-import static io.gatling.javaapi.http.HttpDsl.status;
+import static org.example.performance.ConfiguracaoCarga.*;
 
+/**
+ * Carga sobre todos os endpoints de {@code /mensagens}, com leituras e escritas em cenários
+ * separados e volume inicial criado antes da medição. Taxas, duração, volume e limites vêm de
+ * {@link ConfiguracaoCarga}; os percentis de cada requisição também são comparados com a
+ * {@link BaselineDesempenho} da última execução registrada.
+ * <p>
+ * {@code make performance-test PERFIL=smoke} e, para registrar a baseline,
+ * {@code make performance-baseline PERFIL=smoke}
+ */
 public class ApiPerformanceSimulation extends Simulation {
 
+    private final CenariosMensagem cenarios = new CenariosMensagem(MENSAGENS, TAMANHO_PAGINA);
+
     private final HttpProtocolBuilder httpProtocol = http
-            .baseUrl("http://localhost:8080")
+            .baseUrl(BASE_URL)
             .header("Content-Type", "application/json");
 
-    ActionBuilder adicinarMensagemRequest = http("adicionar mensagem")
-            .post("/mensagens")
-            .body(StringBody("{ \"usuario\": \"user\", \"conteudo\": \"demo\" }"))
-            .check(status().is(201))
-            .check(jsonPath("$.id").saveAs("mensagemId"));
-
-    ActionBuilder buscarMensagemRequest = http("buscar mensagem")
-            .get("/mensagens/#{mensagemId}")
-            .check(status().is(200));
-
-    ActionBuilder listarMensagemRequest = http("listar mensagens")
-            .get("/mensagens")
-            .queryParam("page", "0")
-            .queryParam("size", "10")
-            .check(status().is(200));
-
-    ActionBuilder removerMensagemRequest = http("remover mensagem")
-            .delete("/mensagens/#{mensagemId}")
-            .check(status().is(200));
-
-    ScenarioBuilder cenarioAdicionarMensagem = scenario("Adicionar mensagem")
-            .exec(adicinarMensagemRequest);
-
-    ScenarioBuilder cenarioListarMensagem = scenario("Listar mensagens")
-            .exec(listarMensagemRequest);
+    ScenarioBuilder cenarioLeitura = scenario("Leitura")
+            .feed(cenarios.mensagemSorteada())
+            .exec(cenarios.leitura());
 
-    ScenarioBuilder cenarioAdicionarBuscarMensagem = scenario("Adicionar e Buscar mensagem")
-            .exec(adicinarMensagemRequest)
-            .exec(buscarMensagemRequest);
-
-    ScenarioBuilder cenarioAdicionarRemoverMensagem = scenario("Adicionar e Remover mensagem")
-            .exec(adicinarMensagemRequest)
-            .exec(removerMensagemRequest);
+    ScenarioBuilder cenarioEscrita = scenario("Escrita")
+            .feed(cenarios.mensagemSorteada())
+            .exec(cenarios.escrita());
 
     {
+        var assertions = new ArrayList<Assertion>();
+        assertions.add(global().failedRequests().count().is(0L));
+        assertions.addAll(CenariosMensagem.limites(P95_LEITURA, P99_LEITURA, P95_ESCRITA,
+                P99_ESCRITA));
+        assertions.addAll(BaselineDesempenho.assercoes(getClass().getSimpleName()));
+
         setUp(
-                cenarioAdicionarMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(60)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioAdicionarRemoverMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(30)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(30)
-                                .during(Duration.ofSeconds(60)),
-                        rampUsersPerSec(30)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioAdicionarBuscarMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(30)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(30)
-                                .during(Duration.ofSeconds(60)),
-                        rampUsersPerSec(30)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioListarMensagem.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(100)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(100)
-                                .during(Duration.ofSeconds(60)),
-                        rampUsersPerSec(100)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))))
+                cenarioLeitura.injectOpen(perfilDeCarga(TAXA_LEITURA)),
+                cenarioEscrita.injectOpen(perfilDeCarga(TAXA_ESCRITA)))
                 .protocols(httpProtocol)
-                .assertions(
-                        global().responseTime().max().lt(50),
-                        global().failedRequests().count().is(0L));
+                .assertions(assertions);
+    }
+
+    @Override
+    public void before() {
+        System.out.printf("perfil %s: %.0f leituras/s e %.0f escritas/s por %ds, %d mensagens%n",
+                PERFIL, TAXA_LEITURA, TAXA_ESCRITA, DURACAO.toSeconds(), MENSAGENS);
+        cenarios.carregar(BASE_URL, MENSAGENS);
+    }
+
+    private static OpenInjectionStep[] perfilDeCarga(double taxa) {
+        return new OpenInjectionStep[] {
+                rampUsersPerSec(1).to(taxa).during(RAMPA),
+                constantUsersPerSec(taxa).during(DURACAO),
+                rampUsersPerSec(taxa).to(1).during(RAMPA)};
     }
 }
@@ -0,0 +1,87 @@
+package org.example.performance;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.RestApiApplication;
+import org.example.ranking.RankingGostei;
+import org.example.utils.GeradorMensagens;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Sobe a API na mesma JVM da simulação, em porta aleatória, como o {@code RestApiApplicationIT}.
+ * Com {@code -DbaseUrl} a simulação usa a API já em execução e nada é iniciado.
+ * <p>
+ * O limite de requisições fica desligado: com todos os usuários virtuais no mesmo IP ele limitaria
+ * o gerador de carga, e não a aplicação.
+ */
+final class AplicacaoEmbarcada implements AutoCloseable {
+
+    private final ConfigurableApplicationContext contexto;
+
+    private final String baseUrl;
+
+    private AplicacaoEmbarcada(ConfigurableApplicationContext contexto, String baseUrl) {
+        this.contexto = contexto;
+        this.baseUrl = baseUrl;
+    }
+
+    static AplicacaoEmbarcada iniciar() {
+        var externa = System.getProperty("baseUrl");
+        if (externa != null) {
+            return new AplicacaoEmbarcada(null, externa);
+        }
+        // o devtools está no classpath de teste e reiniciaria a thread principal do Gatling
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        var contexto = new SpringApplicationBuilder(RestApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "limite-requisicoes.habilitado=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.example=WARN")
+                .run();
+        var porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        return new AplicacaoEmbarcada(contexto, "http://localhost:" + porta);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    boolean embarcada() {
+        return contexto != null;
+    }
+
+    /**
+     * Popula o banco com {@link GeradorMensagens} e reconstrói o ranking, muito mais rápido que
+     * criar as mensagens pela API. Só disponível na aplicação embarcada.
+     *
+     * @return até {@code amostra} ids das mensagens geradas
+     */
+    List<String> gerarMensagens(long quantidade, int amostra) {
+        GeradorMensagens.builder()
+                .dataSource(contexto.getBean(DataSource.class))
+                .build()
+                .gerar(quantidade);
+        contexto.getBean(RankingGostei.class).reconstruir();
+        // ids aleatórios: a ordem da chave primária já é uma amostra sem relação com a data
+        return contexto.getBean(JdbcTemplate.class).queryForList(
+                "SELECT CAST(id AS VARCHAR) FROM mensagem ORDER BY id LIMIT ?", String.class, amostra);
+    }
+
+    /** Métricas da aplicação embarcada; {@code null} quando a API é externa. */
+    MeterRegistry metricas() {
+        return contexto == null ? null : contexto.getBean(MeterRegistry.class);
+    }
+
+    @Override
+    public void close() {
+        if (contexto != null) {
+            contexto.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.gatling.javaapi.core.Assertion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.details;
+
+/**
+ * Percentis p95 e p99 de cada requisição na última execução registrada. A simulação transforma a
+ * baseline em assertions do Gatling, então o build falha quando uma requisição fica mais lenta que
+ * {@code percentil * (1 + tolerancia) + folgaMs}.
+ * <p>
+ * A baseline é registrada explicitamente a partir do relatório mais recente, e só quando todas as
+ * assertions daquela execução passaram: {@code make performance-baseline}.
+ */
+public final class BaselineDesempenho {
+
+    private static final String SEPARADOR_GRUPO = " / ";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private BaselineDesempenho() {
+    }
+
+    record Percentis(int p95, int p99) {
+    }
+
+    record Baseline(String simulacao, String registradaEm, Map<String, Percentis> requisicoes) {
+    }
+
+    /** Assertions contra a baseline; vazia quando o arquivo ainda não existe. */
+    static List<Assertion> assercoes(String simulacao) {
+        return assercoes(ConfiguracaoCarga.baseline(simulacao), ConfiguracaoCarga.TOLERANCIA,
+                ConfiguracaoCarga.FOLGA_MS);
+    }
+
+    static List<Assertion> assercoes(Path arquivo, double tolerancia, int folgaMs) {
+        if (!Files.exists(arquivo)) {
+            System.out.println("sem baseline em " + arquivo + "; apenas os limites absolutos valem");
+            return List.of();
+        }
+        var assercoes = new ArrayList<Assertion>();
+        try {
+            var baseline = OBJECT_MAPPER.readValue(arquivo.toFile(), Baseline.class);
+            baseline.requisicoes().forEach((caminho, percentis) -> {
+                var partes = caminho.split(SEPARADOR_GRUPO);
+                assercoes.add(details(partes).responseTime().percentile(95.0)
+                        .lte(limite(percentis.p95(), tolerancia, folgaMs)));
+                assercoes.add(details(partes).responseTime().percentile(99.0)
+                        .lte(limite(percentis.p99(), tolerancia, folgaMs)));
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("baseline inválida: " + arquivo, e);
+        }
+        return assercoes;
+    }
+
+    static int limite(int percentil, double tolerancia, int folgaMs) {
+        return (int) Math.ceil(percentil * (1 + tolerancia)) + folgaMs;
+    }
+
+    /**
+     * Registra a baseline a partir do relatório mais recente da simulação.
+     *
+     * @param args nome da simulação (padrão {@code ApiPerformanceSimulation})
+     */
+    public static void main(String[] args) throws IOException {
+        var simulacao = args.length > 0 ? args[0] : "ApiPerformanceSimulation";
+        var relatorio = relatorioMaisRecente(simulacao);
+
+        var assertions = OBJECT_MAPPER.readTree(relatorio.resolve("js/assertions.json").toFile());
+        for (JsonNode assertion : assertions.path("assertions")) {
+            if (!assertion.path("result").asBoolean()) {
+                throw new IllegalStateException("a execução " + relatorio.getFileName()
+                        + " falhou (" + assertion.path("message").asText()
+                        + "); a baseline não foi alterada");
+            }
+        }
+
+        var requisicoes = new TreeMap<String, Percentis>();
+        var todas = OBJECT_MAPPER.readTree(relatorio.resolve("js/stats.json").toFile());
+        todas.path("contents").forEach(no -> coletar(no, "", requisicoes));
+        var arquivo = ConfiguracaoCarga.baseline(simulacao);
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writeValue(arquivo.toFile(),
+                new Baseline(simulacao, Instant.now().toString(), requisicoes));
+        System.out.println("baseline " + arquivo + " registrada a partir de "
+                + relatorio.getFileName() + " (" + requisicoes.size() + " requisições)");
+    }
+
+    private static Path relatorioMaisRecente(String simulacao) throws IOException {
+        var prefixo = simulacao.toLowerCase() + "-";
+        try (Stream<Path> relatorios = Files.list(Path.of("target/gatling"))) {
+            return relatorios
+                    .filter(p -> p.getFileName().toString().startsWith(prefixo))
+                    .filter(p -> Files.exists(p.resolve("js/stats.json")))
+                    .max(Comparator.comparing(p -> p.getFileName().toString()))
+                    .orElseThrow(() -> new IllegalStateException(
+                            "nenhum relatório de " + simulacao + " em target/gatling"));
+        }
+    }
+
+    /**
+     * Percorre os grupos recursivamente; apenas requisições entram na baseline, com o caminho
+     * {@code grupo / requisicao} que o {@code details(...)} espera. Os percentis 3 e 4 do relatório
+     * são p95 e p99 com a configuração padrão do Gatling.
+     */
+    private static void coletar(JsonNode no, String grupo, Map<String, Percentis> requisicoes) {
+        var tipo = no.path("type").asText();
+        var nome = no.path("name").asText();
+        if ("REQUEST".equals(tipo)) {
+            var stats = no.path("stats");
+            requisicoes.put(grupo + nome, new Percentis(
+                    stats.path("percentiles3").path("ok").asInt(),
+                    stats.path("percentiles4").path("ok").asInt()));
+        }
+        var prefixo = "GROUP".equals(tipo) ? grupo + nome + SEPARADOR_GRUPO : grupo;
+        no.path("contents").forEach(filho -> coletar(filho, prefixo, requisicoes));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cria mensagens antes da medição para que leituras, paginação e escritas operem sobre um volume
+ * conhecido. Respeita o {@code Retry-After} do limite de requisições em vez de falhar com 429.
+ */
+final class CargaInicial {
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+
+    CargaInicial(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /** @return ids das mensagens criadas, na ordem de criação */
+    List<String> criarMensagens(int quantidade, String usuario) {
+        var ids = new ArrayList<String>(quantidade);
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                ids.add(criar(usuario, "mensagem " + i));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("não foi possível criar as mensagens iniciais", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return ids;
+    }
+
+    private String criar(String usuario, String conteudo) throws IOException, InterruptedException {
+        var requisicao = HttpRequest.newBuilder(URI.create(baseUrl + "/mensagens"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        new Corpo(usuario, conteudo))))
+                .build();
+        while (true) {
+            var resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() == 429) {
+                long espera = resposta.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(espera * 1000);
+                continue;
+            }
+            if (resposta.statusCode() != 201) {
+                throw new IOException("POST /mensagens retornou " + resposta.statusCode());
+            }
+            return objectMapper.readTree(resposta.body()).get("id").asText();
+        }
+    }
+
+    private record Corpo(String usuario, String conteudo) {
+    }
+}
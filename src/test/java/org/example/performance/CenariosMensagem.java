@@ -0,0 +1,180 @@
+package org.example.performance;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.Choice;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Requisições de todos os endpoints de {@code /mensagens}, agrupadas em uma cadeia de leitura e
+ * outra de escrita com pesos fixos. Compartilhado pelas simulações, que só mudam o modelo de carga.
+ * As mensagens sorteadas são as criadas (ou geradas no banco) pelo {@code carregar}.
+ */
+final class CenariosMensagem {
+
+    static final List<String> LEITURAS = List.of("buscar mensagem", "listar mensagens",
+            "buscar mensagens", "listar top", "listar historico");
+
+    static final List<String> ESCRITAS = List.of("adicionar mensagem", "atualizar mensagem",
+            "incrementar gostei", "incrementar gostei em lote", "remover mensagem");
+
+    private static final int IDS_POR_MULTI_GET = 10;
+
+    /** Ids guardados para sorteio quando as mensagens são geradas direto no banco. */
+    private static final int AMOSTRA_IDS = 10_000;
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final int paginas;
+
+    private final int tamanhoPagina;
+
+    CenariosMensagem(int mensagens, int tamanhoPagina) {
+        this.paginas = Math.max(1, mensagens / tamanhoPagina);
+        this.tamanhoPagina = tamanhoPagina;
+    }
+
+    /** Cria as mensagens sorteadas pelas requisições; chamado no {@code before()} da simulação. */
+    void carregar(String baseUrl, int mensagens) {
+        ids.addAll(new CargaInicial(baseUrl).criarMensagens(mensagens, "carga"));
+    }
+
+    /**
+     * Na aplicação embarcada gera as mensagens direto no banco, o que permite milhões de linhas
+     * ({@code -Dmensagens=1000000}); na externa, cria pela API.
+     */
+    void carregar(AplicacaoEmbarcada aplicacao, int mensagens) {
+        if (aplicacao.embarcada()) {
+            ids.addAll(aplicacao.gerarMensagens(mensagens, AMOSTRA_IDS));
+        } else {
+            carregar(aplicacao.baseUrl(), mensagens);
+        }
+    }
+
+    /** Sorteia uma das mensagens iniciais; lido só durante a execução, depois do carregamento. */
+    Iterator<Map<String, Object>> mensagemSorteada() {
+        return Stream.generate(() -> Map.<String, Object>of("mensagemId", sortear())).iterator();
+    }
+
+    ChainBuilder leitura() {
+        return randomSwitch().on(
+                Choice.withWeight(40.0, exec(buscarMensagem())),
+                Choice.withWeight(25.0, exec(listarMensagens())),
+                Choice.withWeight(15.0, exec(buscarMensagens())),
+                Choice.withWeight(10.0, exec(listarTop())),
+                Choice.withWeight(10.0, exec(listarHistorico())));
+    }
+
+    ChainBuilder escrita() {
+        return exec(session -> session.set("editada", System.nanoTime()))
+                .randomSwitch().on(
+                        Choice.withWeight(30.0, exec(adicionarMensagem())),
+                        Choice.withWeight(25.0, exec(atualizarMensagem())),
+                        Choice.withWeight(25.0, exec(incrementarGostei())),
+                        Choice.withWeight(10.0, exec(incrementarGosteiEmLote())),
+                        Choice.withWeight(10.0, exec(adicionarMensagem()).exec(removerMensagem())));
+    }
+
+    /** p95 e p99 de cada requisição abaixo dos limites de leitura e de escrita. */
+    static List<Assertion> limites(int p95Leitura, int p99Leitura, int p95Escrita, int p99Escrita) {
+        var assertions = new ArrayList<Assertion>();
+        LEITURAS.forEach(nome -> {
+            assertions.add(details(nome).responseTime().percentile(95.0).lt(p95Leitura));
+            assertions.add(details(nome).responseTime().percentile(99.0).lt(p99Leitura));
+        });
+        ESCRITAS.forEach(nome -> {
+            assertions.add(details(nome).responseTime().percentile(95.0).lt(p95Escrita));
+            assertions.add(details(nome).responseTime().percentile(99.0).lt(p99Escrita));
+        });
+        return assertions;
+    }
+
+    private HttpRequestActionBuilder buscarMensagem() {
+        return http("buscar mensagem")
+                .get("/mensagens/#{mensagemId}")
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder listarMensagens() {
+        return http("listar mensagens")
+                .get("/mensagens")
+                .queryParam("page", session -> ThreadLocalRandom.current().nextInt(paginas))
+                .queryParam("size", tamanhoPagina)
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder buscarMensagens() {
+        return http("buscar mensagens")
+                .get("/mensagens")
+                .queryParam("ids", session -> IntStream.range(0, IDS_POR_MULTI_GET)
+                        .mapToObj(i -> sortear())
+                        .collect(Collectors.joining(",")))
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder listarTop() {
+        return http("listar top")
+                .get("/mensagens/top")
+                .queryParam("n", 10)
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder listarHistorico() {
+        return http("listar historico")
+                .get("/mensagens/#{mensagemId}/historico")
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder adicionarMensagem() {
+        return http("adicionar mensagem")
+                .post("/mensagens")
+                .body(StringBody("{ \"usuario\": \"user\", \"conteudo\": \"demo\" }"))
+                .check(status().is(201))
+                .check(jsonPath("$.id").saveAs("novaMensagemId"));
+    }
+
+    private HttpRequestActionBuilder atualizarMensagem() {
+        return http("atualizar mensagem")
+                .put("/mensagens/#{mensagemId}")
+                .body(StringBody("{ \"id\": \"#{mensagemId}\", \"usuario\": \"user\","
+                        + " \"conteudo\": \"editada #{editada}\" }"))
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder incrementarGostei() {
+        return http("incrementar gostei")
+                .put("/mensagens/#{mensagemId}/gostei")
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder incrementarGosteiEmLote() {
+        return http("incrementar gostei em lote")
+                .post("/mensagens/gostei/batch")
+                .body(StringBody(session ->
+                        "{ \"" + sortear() + "\": 1, \"" + sortear() + "\": 2 }"))
+                .check(status().is(200));
+    }
+
+    private HttpRequestActionBuilder removerMensagem() {
+        return http("remover mensagem")
+                .delete("/mensagens/#{novaMensagemId}")
+                .check(status().is(200));
+    }
+
+    private String sortear() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.performance;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Parâmetros das simulações lidos de propriedades de sistema ({@code -Dpropriedade=valor} no
+ * {@code make performance-test}). O {@code perfil} define os padrões de taxa e duração; cada
+ * propriedade explícita tem precedência sobre o perfil.
+ *
+ * <ul>
+ *   <li>{@code perfil}: {@code smoke}, {@code carga} (padrão) ou {@code estresse}</li>
+ *   <li>{@code baseUrl}: endereço da API (padrão {@code http://localhost:8080})</li>
+ *   <li>{@code taxaLeitura} e {@code taxaEscrita}: usuários por segundo no patamar</li>
+ *   <li>{@code duracao} e {@code rampa}: em segundos</li>
+ *   <li>{@code mensagens}: volume criado antes da medição</li>
+ *   <li>{@code tamanhoPagina}: {@code size} usado na listagem paginada</li>
+ *   <li>{@code p95Leitura}, {@code p99Leitura}, {@code p95Escrita} e {@code p99Escrita}: limites
+ *       absolutos em ms por tipo de requisição</li>
+ *   <li>{@code baseline}, {@code tolerancia} e {@code folgaMs}: ver {@link BaselineDesempenho}</li>
+ * </ul>
+ */
+public final class ConfiguracaoCarga {
+
+    public static final String PERFIL = System.getProperty("perfil", "carga");
+
+    public static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+
+    public static final double TAXA_LEITURA = decimal("taxaLeitura", padrao(10, 100, 300));
+
+    public static final double TAXA_ESCRITA = decimal("taxaEscrita", padrao(2, 20, 60));
+
+    public static final Duration DURACAO =
+            Duration.ofSeconds(Long.getLong("duracao", padrao(20, 60, 180)));
+
+    public static final Duration RAMPA =
+            Duration.ofSeconds(Long.getLong("rampa", padrao(5, 10, 30)));
+
+    public static final int MENSAGENS = Integer.getInteger("mensagens", padrao(100, 1000, 10000));
+
+    public static final int TAMANHO_PAGINA = Integer.getInteger("tamanhoPagina", 10);
+
+    public static final int P95_LEITURA = Integer.getInteger("p95Leitura", 50);
+
+    public static final int P99_LEITURA = Integer.getInteger("p99Leitura", 100);
+
+    public static final int P95_ESCRITA = Integer.getInteger("p95Escrita", 100);
+
+    public static final int P99_ESCRITA = Integer.getInteger("p99Escrita", 200);
+
+    /** Aumento relativo aceito sobre o percentil da baseline antes de falhar. */
+    public static final double TOLERANCIA = decimal("tolerancia", 0.2);
+
+    /** Folga absoluta somada ao limite, para que percentis de poucos ms não falhem por ruído. */
+    public static final int FOLGA_MS = Integer.getInteger("folgaMs", 5);
+
+    private ConfiguracaoCarga() {
+    }
+
+    /** Arquivo da baseline da simulação no perfil atual, ou o informado em {@code baseline}. */
+    public static Path baseline(String simulacao) {
+        return Path.of(System.getProperty("baseline", "src/test/resources/performance/baseline/"
+                + simulacao.toLowerCase() + "-" + PERFIL + ".json"));
+    }
+
+    private static double decimal(String propriedade, double padrao) {
+        var valor = System.getProperty(propriedade);
+        return valor == null ? padrao : Double.parseDouble(valor);
+    }
+
+    private static int padrao(int smoke, int carga, int estresse) {
+        return switch (PERFIL) {
+            case "smoke" -> smoke;
+            case "carga" -> carga;
+            case "estresse" -> estresse;
+            default -> throw new IllegalArgumentException("perfil desconhecido: " + PERFIL);
+        };
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.performance;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amostra periodicamente, durante a simulação, o heap (total e geração antiga), as threads (total e
+ * workers do Tomcat) e o pool de conexões (ativas, pendentes e espera média por conexão). A série
+ * vai para um CSV e é avaliada no fim: piso da geração antiga ou threads crescendo indicam
+ * vazamento; espera pelo pool indica saturação.
+ * <p>
+ * Heap e threads são da JVM inteira, então incluem o próprio Gatling; o que importa é a tendência,
+ * não o valor absoluto.
+ */
+final class MonitorRecursos {
+
+    /** Início descartado da análise de tendência (aquecimento do JIT, caches e pools). */
+    private static final double AQUECIMENTO = 0.2;
+
+    private static final double MB = 1024 * 1024;
+
+    /** Janelas da série; o mínimo de cada uma é o piso do dente de serra do GC. */
+    private static final int JANELAS = 5;
+
+    private final MeterRegistry metricas;
+
+    private final long intervaloSegundos;
+
+    private final List<Amostra> amostras = new ArrayList<>();
+
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+            tarefa -> {
+                var thread = new Thread(tarefa, "monitor-recursos");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private long inicio;
+
+    private long aquisicoesAnteriores;
+
+    private double esperaAnteriorMs;
+
+    MonitorRecursos(MeterRegistry metricas, long intervaloSegundos) {
+        this.metricas = metricas;
+        this.intervaloSegundos = intervaloSegundos;
+    }
+
+    void iniciar() {
+        inicio = System.nanoTime();
+        agendador.scheduleAtFixedRate(this::amostrar, 0, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    /** Encerra a coleta e grava a série em {@code csv}. */
+    void parar(Path csv) {
+        agendador.shutdownNow();
+        var linhas = new ArrayList<String>();
+        linhas.add("segundos,heap_usado_mb,heap_antigo_mb,threads,threads_http,pool_ativas,"
+                + "pool_pendentes,pool_espera_media_ms");
+        synchronized (amostras) {
+            amostras.forEach(a -> linhas.add(a.csv()));
+        }
+        try {
+            Files.createDirectories(csv.toAbsolutePath().getParent());
+            Files.write(csv, linhas);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return alertas de vazamento: inclinação do piso da geração antiga (MB/h) ou crescimento de
+     *         threads acima dos limites, medidos depois do aquecimento
+     */
+    List<String> vazamentos(double limiteHeapMbPorHora, int limiteCrescimentoThreads) {
+        var alertas = new ArrayList<String>();
+        var analisadas = aposAquecimento();
+        if (analisadas.size() < JANELAS) {
+            return alertas;
+        }
+        var inclinacao = inclinacaoPorHora(pisos(analisadas));
+        System.out.printf(Locale.ROOT, "geracao antiga: %.1f MB/h; threads: %d -> %d%n",
+                inclinacao, analisadas.get(0).threads,
+                analisadas.get(analisadas.size() - 1).threads);
+        if (inclinacao > limiteHeapMbPorHora) {
+            alertas.add(String.format(Locale.ROOT,
+                    "geracao antiga cresce %.1f MB/h (limite %.1f)", inclinacao,
+                    limiteHeapMbPorHora));
+        }
+        var crescimento = analisadas.get(analisadas.size() - 1).threads
+                - analisadas.get(0).threads;
+        if (crescimento > limiteCrescimentoThreads) {
+            alertas.add("threads cresceram " + crescimento + " (limite "
+                    + limiteCrescimentoThreads + ")");
+        }
+        return alertas;
+    }
+
+    /** @return alertas de saturação do pool nas amostras a partir de {@code desdeSegundos} */
+    List<String> saturacao(long desdeSegundos, double limiteEsperaMs) {
+        List<Amostra> analisadas;
+        synchronized (amostras) {
+            analisadas = amostras.stream().filter(a -> a.segundos >= desdeSegundos).toList();
+        }
+        var pior = analisadas.stream().mapToDouble(a -> a.esperaPoolMs).max().orElse(0);
+        var pendentes = analisadas.stream().mapToInt(a -> a.pendentesPool).max().orElse(0);
+        System.out.printf(Locale.ROOT, "pool a partir de %ds: espera media maxima %.1f ms, "
+                + "%d pendentes no pico%n", desdeSegundos, pior, pendentes);
+        return pior > limiteEsperaMs
+                ? List.of(String.format(Locale.ROOT, "espera pelo pool chegou a %.1f ms a partir de"
+                        + " %ds (limite %.1f)", pior, desdeSegundos, limiteEsperaMs))
+                : List.of();
+    }
+
+    private void amostrar() {
+        var memoria = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        var threads = ManagementFactory.getThreadMXBean();
+        var threadsHttp = Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds()))
+                .filter(info -> info != null && info.getThreadName().startsWith("http-nio-"))
+                .count();
+
+        var aquisicao = metricas.find("hikaricp.connections.acquire").timer();
+        long aquisicoes = aquisicao == null ? 0 : aquisicao.count();
+        double esperaMs = aquisicao == null ? 0 : aquisicao.totalTime(TimeUnit.MILLISECONDS);
+        double esperaMedia = aquisicoes > aquisicoesAnteriores
+                ? (esperaMs - esperaAnteriorMs) / (aquisicoes - aquisicoesAnteriores)
+                : 0;
+        aquisicoesAnteriores = aquisicoes;
+        esperaAnteriorMs = esperaMs;
+
+        var amostra = new Amostra(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio),
+                memoria.getUsed() / MB,
+                geracaoAntiga() / MB,
+                threads.getThreadCount(),
+                (int) threadsHttp,
+                (int) medidor("hikaricp.connections.active"),
+                (int) medidor("hikaricp.connections.pending"),
+                esperaMedia);
+        synchronized (amostras) {
+            amostras.add(amostra);
+        }
+    }
+
+    private static long geracaoAntiga() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getName().contains("Old Gen")
+                        || pool.getName().contains("Tenured Gen"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+    }
+
+    private double medidor(String nome) {
+        var medidor = metricas.find(nome).gauge();
+        return medidor == null ? 0 : medidor.value();
+    }
+
+    private List<Amostra> aposAquecimento() {
+        synchronized (amostras) {
+            return List.copyOf(amostras.subList((int) (amostras.size() * AQUECIMENTO),
+                    amostras.size()));
+        }
+    }
+
+    /** Menor amostra da geração antiga em cada janela: o que sobra depois das coletas. */
+    private static List<Amostra> pisos(List<Amostra> serie) {
+        var pisos = new ArrayList<Amostra>();
+        var tamanho = serie.size() / JANELAS;
+        for (int i = 0; i < JANELAS; i++) {
+            var fim = i == JANELAS - 1 ? serie.size() : (i + 1) * tamanho;
+            serie.subList(i * tamanho, fim).stream()
+                    .min(Comparator.comparingDouble(Amostra::heapAntigoMb))
+                    .ifPresent(pisos::add);
+        }
+        return pisos;
+    }
+
+    /** Mínimos quadrados da geração antiga em função do tempo, convertido para MB por hora. */
+    private static double inclinacaoPorHora(List<Amostra> serie) {
+        double mediaX = serie.stream().mapToDouble(a -> a.segundos).average().orElse(0);
+        double mediaY = serie.stream().mapToDouble(a -> a.heapAntigoMb).average().orElse(0);
+        double numerador = 0;
+        double denominador = 0;
+        for (Amostra a : serie) {
+            numerador += (a.segundos - mediaX) * (a.heapAntigoMb - mediaY);
+            denominador += (a.segundos - mediaX) * (a.segundos - mediaX);
+        }
+        return denominador == 0 ? 0 : numerador / denominador * 3600;
+    }
+
+    private record Amostra(long segundos, double heapUsadoMb, double heapAntigoMb, int threads,
+            int threadsHttp, int ativasPool, int pendentesPool, double esperaPoolMs) {
+
+        String csv() {
+            return String.format(Locale.ROOT, "%d,%.1f,%.1f,%d,%d,%d,%d,%.2f", segundos,
+                    heapUsadoMb, heapAntigoMb, threads, threadsHttp, ativasPool, pendentesPool,
+                    esperaPoolMs);
+        }
+    }
+}
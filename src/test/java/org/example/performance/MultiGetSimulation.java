@@ -0,0 +1,73 @@
+package org.example.performance;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Compara montar uma página do feed com N {@code GET /mensagens/{id}} contra um único
+ * {@code GET /mensagens?ids=...}. As mensagens são criadas antes da simulação, fora da medição.
+ * <p>
+ * {@code make performance-test SIMULACAO=MultiGetSimulation}
+ */
+public class MultiGetSimulation extends Simulation {
+
+    private static final String BASE_URL = ConfiguracaoCarga.BASE_URL;
+
+    private static final int MENSAGENS_POR_PAGINA = Integer.getInteger("mensagensPorPagina", 30);
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .header("Content-Type", "application/json");
+
+    ScenarioBuilder cenarioGetsIndividuais = scenario("Feed com gets individuais")
+            .exec(session -> session.set("ids", ids))
+            .group("pagina com gets individuais").on(
+                    foreach("#{ids}", "id").on(
+                            exec(http("buscar mensagem")
+                                    .get("/mensagens/#{id}")
+                                    .check(status().is(200)))));
+
+    ScenarioBuilder cenarioMultiGet = scenario("Feed com multi-get")
+            .exec(session -> session.set("ids", String.join(",", ids)))
+            .group("pagina com multi-get").on(
+                    exec(http("buscar mensagens")
+                            .get("/mensagens")
+                            .queryParam("ids", "#{ids}")
+                            .check(status().is(200))
+                            .check(jsonPath("$.mensagens[*]").count().is(MENSAGENS_POR_PAGINA))));
+
+    {
+        setUp(
+                cenarioGetsIndividuais.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(20)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(20)
+                                .during(Duration.ofSeconds(60))),
+                cenarioMultiGet.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(20)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(20)
+                                .during(Duration.ofSeconds(60))))
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().count().is(0L));
+    }
+
+    @Override
+    public void before() {
+        ids.addAll(new CargaInicial(BASE_URL).criarMensagens(MENSAGENS_POR_PAGINA, "feed"));
+    }
+}
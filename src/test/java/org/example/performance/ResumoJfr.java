@@ -0,0 +1,230 @@
+package org.example.performance;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Resume uma gravação JFR de um teste de carga: taxa de alocação por ponto de chamada, pausas de
+ * GC (com os instantes das maiores, para cruzar com os picos do relatório do Gatling), contenção
+ * de locks e métodos mais amostrados.
+ *
+ * <p>Depende só do JDK, então roda direto do fonte:
+ * {@code java src/test/java/org/example/performance/ResumoJfr.java gravacao.jfr [saida.txt]}
+ */
+public class ResumoJfr {
+
+    private static final int TOPO = 15;
+
+    private final Map<String, Long> alocacaoPorPonto = new HashMap<>();
+    private final Map<String, Long> amostrasPorMetodo = new HashMap<>();
+    private final Map<String, Contencao> contencaoPorLock = new HashMap<>();
+    private final Map<String, Pausas> pausasPorColetor = new HashMap<>();
+    private final List<RecordedEvent> maioresPausas = new ArrayList<>();
+    private long bytesAlocados;
+    private long amostras;
+    private Instant inicio = Instant.MAX;
+    private Instant fim = Instant.MIN;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("uso: ResumoJfr <gravacao.jfr> [saida.txt]");
+            System.exit(1);
+        }
+        var resumo = new ResumoJfr();
+        try (var gravacao = new RecordingFile(Path.of(args[0]))) {
+            while (gravacao.hasMoreEvents()) {
+                resumo.registrar(gravacao.readEvent());
+            }
+        }
+        var texto = resumo.formatar(args[0]);
+        System.out.print(texto);
+        if (args.length > 1) {
+            Files.writeString(Path.of(args[1]), texto);
+        }
+    }
+
+    void registrar(RecordedEvent evento) {
+        if (evento.getStartTime().isBefore(inicio)) {
+            inicio = evento.getStartTime();
+        }
+        if (evento.getEndTime().isAfter(fim)) {
+            fim = evento.getEndTime();
+        }
+        switch (evento.getEventType().getName()) {
+            case "jdk.ObjectAllocationSample" -> {
+                long peso = evento.getLong("weight");
+                bytesAlocados += peso;
+                alocacaoPorPonto.merge(pontoDeChamada(evento.getStackTrace()), peso, Long::sum);
+            }
+            case "jdk.ExecutionSample" -> {
+                amostras++;
+                amostrasPorMetodo.merge(pontoDeChamada(evento.getStackTrace()), 1L, Long::sum);
+            }
+            case "jdk.JavaMonitorEnter" -> contencaoPorLock
+                .computeIfAbsent(lock(evento, "monitorClass"), k -> new Contencao())
+                .somar(evento.getDuration());
+            case "jdk.ThreadPark" -> {
+                if (!ocioso(evento)) {
+                    contencaoPorLock
+                        .computeIfAbsent(lock(evento, "parkedClass"), k -> new Contencao())
+                        .somar(evento.getDuration());
+                }
+            }
+            case "jdk.GarbageCollection" -> {
+                pausasPorColetor.computeIfAbsent(evento.getString("name"), k -> new Pausas())
+                    .somar(evento.getDuration("sumOfPauses"), evento.getDuration("longestPause"));
+                maioresPausas.add(evento);
+            }
+            default -> {
+            }
+        }
+    }
+
+    String formatar(String origem) {
+        var texto = new StringWriter();
+        var saida = new PrintWriter(texto);
+        var duracao = Duration.between(inicio, fim);
+        double segundos = Math.max(1, duracao.toMillis()) / 1000.0;
+        saida.printf("Resumo JFR: %s (%d s, de %s a %s)%n%n", origem, duracao.toSeconds(),
+            inicio, fim);
+
+        saida.printf("== Alocacao: %.1f MB/s (%.0f MB amostrados) ==%n",
+            bytesAlocados / segundos / 1_048_576, bytesAlocados / 1_048_576.0);
+        maiores(alocacaoPorPonto).forEach(e -> saida.printf("%10.1f MB/s  %5.1f%%  %s%n",
+            e.getValue() / segundos / 1_048_576, percentual(e.getValue(), bytesAlocados),
+            e.getKey()));
+
+        saida.printf("%n== Pausas de GC ==%n");
+        pausasPorColetor.forEach((coletor, pausas) -> saida.printf(
+            "%-22s %6d coletas  total %7d ms  maior %5d ms  %.2f%% do tempo%n", coletor,
+            pausas.coletas, pausas.total.toMillis(), pausas.maior.toMillis(),
+            percentual(pausas.total.toMillis(), duracao.toMillis())));
+        saida.printf("maiores pausas (para cruzar com o relatorio do Gatling):%n");
+        maioresPausas.stream()
+            .sorted(Comparator.comparing((RecordedEvent e) -> e.getDuration("longestPause"))
+                .reversed())
+            .limit(TOPO)
+            .forEach(e -> saida.printf("  %s  %5d ms  %s (%s)%n", e.getStartTime(),
+                e.getDuration("longestPause").toMillis(), e.getString("name"),
+                e.getString("cause")));
+
+        saida.printf("%n== Contencao de locks (monitores e park) ==%n");
+        contencaoPorLock.entrySet().stream()
+            .sorted(Map.Entry.<String, Contencao>comparingByValue(
+                Comparator.comparing(c -> c.total)).reversed())
+            .limit(TOPO)
+            .forEach(e -> saida.printf("%6d esperas  total %7d ms  maior %5d ms  %s%n",
+                e.getValue().esperas, e.getValue().total.toMillis(), e.getValue().maior.toMillis(),
+                e.getKey()));
+
+        saida.printf("%n== Metodos mais amostrados (%d amostras) ==%n", amostras);
+        maiores(amostrasPorMetodo).forEach(e -> saida.printf("%6d  %5.1f%%  %s%n", e.getValue(),
+            percentual(e.getValue(), amostras), e.getKey()));
+        saida.flush();
+        return texto.toString();
+    }
+
+    private static List<Map.Entry<String, Long>> maiores(Map<String, Long> valores) {
+        return valores.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(TOPO)
+            .toList();
+    }
+
+    private static double percentual(long parte, long total) {
+        return total == 0 ? 0 : 100.0 * parte / total;
+    }
+
+    private static String pontoDeChamada(RecordedStackTrace pilha) {
+        return pontoDeChamada(pilha, false);
+    }
+
+    /**
+     * Frame do topo, seguido do primeiro frame da aplicação quando o topo está em outra biblioteca.
+     * Com {@code pularJdk} o topo é o primeiro frame fora do JDK (quem pediu o lock, não o park).
+     */
+    private static String pontoDeChamada(RecordedStackTrace pilha, boolean pularJdk) {
+        if (pilha == null || pilha.getFrames().isEmpty()) {
+            return "(sem pilha)";
+        }
+        var frames = pilha.getFrames();
+        var topo = frames.get(0);
+        if (pularJdk) {
+            topo = frames.stream().filter(f -> !doJdk(f)).findFirst().orElse(topo);
+        }
+        var ponto = formatar(topo);
+        if (!topo.getMethod().getType().getName().startsWith("org.example.")) {
+            for (RecordedFrame frame : frames) {
+                if (frame.getMethod().getType().getName().startsWith("org.example.")) {
+                    return ponto + "  <- " + formatar(frame);
+                }
+            }
+        }
+        return ponto;
+    }
+
+    private static boolean doJdk(RecordedFrame frame) {
+        var tipo = frame.getMethod().getType().getName();
+        return tipo.startsWith("java.") || tipo.startsWith("jdk.") || tipo.startsWith("sun.");
+    }
+
+    /** Threads de pool paradas aguardando tarefa não são contenção. */
+    private static boolean ocioso(RecordedEvent evento) {
+        var classe = evento.getClass("parkedClass");
+        return classe != null && (classe.getName().endsWith("$ConditionObject")
+            || classe.getName().equals("java.util.concurrent.ForkJoinPool"));
+    }
+
+    private static String lock(RecordedEvent evento, String campoClasse) {
+        var classe = evento.getClass(campoClasse);
+        return (classe == null ? "?" : classe.getName()) + " em "
+            + pontoDeChamada(evento.getStackTrace(), true);
+    }
+
+    private static String formatar(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+
+    private static final class Pausas {
+        private long coletas;
+        private Duration total = Duration.ZERO;
+        private Duration maior = Duration.ZERO;
+
+        void somar(Duration soma, Duration maiorPausa) {
+            coletas++;
+            total = total.plus(soma);
+            if (maiorPausa.compareTo(maior) > 0) {
+                maior = maiorPausa;
+            }
+        }
+    }
+
+    private static final class Contencao {
+        private long esperas;
+        private Duration total = Duration.ZERO;
+        private Duration maior = Duration.ZERO;
+
+        void somar(Duration espera) {
+            esperas++;
+            total = total.plus(espera);
+            if (espera.compareTo(maior) > 0) {
+                maior = espera;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.performance;
+
+import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.header;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Mede o custo da cadeia de segurança por requisição: leituras anônimas e autenticadas por
+ * {@code X-API-Key} com a mesma carga. Executar também contra a versão anterior (cadeia padrão)
+ * para comparar os percentis.
+ * <p>
+ * {@code make performance-test SIMULACAO=SegurancaSimulation MVN_ARGS=-DapiKey=<chave>}
+ */
+public class SegurancaSimulation extends Simulation {
+
+    private final String apiKey = System.getProperty("apiKey", "");
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl("http://localhost:8080")
+            .header("Content-Type", "application/json")
+            .disableFollowRedirect();
+
+    ActionBuilder adicinarMensagemRequest = http("adicionar mensagem")
+            .post("/mensagens")
+            .body(StringBody("{ \"usuario\": \"user\", \"conteudo\": \"demo\" }"))
+            .check(status().is(201))
+            .check(header("Set-Cookie").notExists())
+            .check(jsonPath("$.id").saveAs("mensagemId"));
+
+    ActionBuilder buscarMensagemAnonimoRequest = http("buscar mensagem anonimo")
+            .get("/mensagens/#{mensagemId}")
+            .check(status().is(200))
+            .check(header("Set-Cookie").notExists());
+
+    ActionBuilder buscarMensagemApiKeyRequest = http("buscar mensagem api-key")
+            .get("/mensagens/#{mensagemId}")
+            .header("X-API-Key", apiKey)
+            .check(status().is(200));
+
+    ScenarioBuilder cenarioAnonimo = scenario("Leitura anonima")
+            .exec(adicinarMensagemRequest)
+            .repeat(20).on(exec(buscarMensagemAnonimoRequest));
+
+    ScenarioBuilder cenarioApiKey = scenario("Leitura com api-key")
+            .exec(adicinarMensagemRequest)
+            .repeat(20).on(exec(buscarMensagemApiKeyRequest));
+
+    {
+        setUp(
+                cenarioAnonimo.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(20)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(20)
+                                .during(Duration.ofSeconds(60))),
+                cenarioApiKey.injectOpen(
+                        rampUsersPerSec(1)
+                                .to(20)
+                                .during(Duration.ofSeconds(10)),
+                        constantUsersPerSec(20)
+                                .during(Duration.ofSeconds(60))))
+                .protocols(httpProtocol)
+                .assertions(
+                        details("buscar mensagem anonimo").responseTime().percentile(99.0).lt(20),
+                        details("buscar mensagem api-key").responseTime().percentile(99.0).lt(20),
+                        global().failedRequests().count().is(0L));
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.performance;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static org.example.performance.ConfiguracaoCarga.MENSAGENS;
+import static org.example.performance.ConfiguracaoCarga.TAMANHO_PAGINA;
+
+/**
+ * Base das simulações de longa duração: sobe a API na própria JVM ({@link AplicacaoEmbarcada}),
+ * acompanha heap, threads e pool durante a carga ({@link MonitorRecursos}) e falha a execução
+ * quando {@link #avaliar(MonitorRecursos)} encontra vazamento ou saturação. Com {@code -DbaseUrl}
+ * a API externa é usada e o monitoramento fica desligado.
+ */
+abstract class SimulacaoEmbarcada extends Simulation {
+
+    /** Parcela dos usuários concorrentes que só lê; o restante escreve. */
+    private static final double PARCELA_LEITURA = 0.8;
+
+    protected final AplicacaoEmbarcada aplicacao = AplicacaoEmbarcada.iniciar();
+
+    protected final CenariosMensagem cenarios = new CenariosMensagem(MENSAGENS, TAMANHO_PAGINA);
+
+    protected final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(aplicacao.baseUrl())
+            .header("Content-Type", "application/json");
+
+    private final Duration pausa = Duration.ofMillis(Long.getLong("pausaMs", 100));
+
+    private final MonitorRecursos monitor = aplicacao.metricas() == null
+            ? null
+            : new MonitorRecursos(aplicacao.metricas(), Long.getLong("intervaloAmostra", 10));
+
+    /** Usuário fechado: uma leitura e o tempo de reflexão; depois outro usuário o substitui. */
+    protected ScenarioBuilder leitura() {
+        return scenario("Leitura")
+                .feed(cenarios.mensagemSorteada())
+                .exec(cenarios.leitura())
+                .pause(pausa);
+    }
+
+    protected ScenarioBuilder escrita() {
+        return scenario("Escrita")
+                .feed(cenarios.mensagemSorteada())
+                .exec(cenarios.escrita())
+                .pause(pausa);
+    }
+
+    protected static int leitores(int usuarios) {
+        return (int) Math.round(usuarios * PARCELA_LEITURA);
+    }
+
+    protected static int escritores(int usuarios) {
+        return Math.max(1, usuarios - leitores(usuarios));
+    }
+
+    /** @return alertas que reprovam a execução */
+    protected abstract List<String> avaliar(MonitorRecursos monitor);
+
+    @Override
+    public void before() {
+        cenarios.carregar(aplicacao, MENSAGENS);
+        if (monitor != null) {
+            monitor.iniciar();
+        }
+    }
+
+    @Override
+    public void after() {
+        try {
+            if (monitor != null) {
+                var csv = Path.of("target/gatling", getClass().getSimpleName().toLowerCase()
+                        + "-recursos-" + LocalDateTime.now().format(
+                                DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ".csv");
+                monitor.parar(csv);
+                System.out.println("serie de recursos em " + csv);
+                var alertas = avaliar(monitor);
+                if (!alertas.isEmpty()) {
+                    throw new IllegalStateException(String.join("; ", alertas));
+                }
+            }
+        } finally {
+            aplicacao.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Carga constante e prolongada em modelo fechado (número fixo de usuários concorrentes) para
+ * encontrar vazamentos: o piso da geração antiga e as threads devem ficar estáveis depois do
+ * aquecimento e o pool de conexões não deve formar fila.
+ * <p>
+ * {@code make performance-test SIMULACAO=SoakSimulation
+ * CARGA_ARGS="-Dusuarios=50 -DduracaoSoak=7200"}
+ */
+public class SoakSimulation extends SimulacaoEmbarcada {
+
+    private static final int USUARIOS = Integer.getInteger("usuarios", 20);
+
+    private static final Duration DURACAO = Duration.ofSeconds(Long.getLong("duracaoSoak", 3600));
+
+    private static final Duration RAMPA = Duration.ofSeconds(Long.getLong("rampa", 30));
+
+    private static final double LIMITE_HEAP_MB_POR_HORA =
+            Double.parseDouble(System.getProperty("limiteHeapMbPorHora", "64"));
+
+    private static final int LIMITE_CRESCIMENTO_THREADS = Integer.getInteger("limiteThreads", 20);
+
+    private static final double LIMITE_ESPERA_POOL_MS =
+            Double.parseDouble(System.getProperty("limiteEsperaPoolMs", "50"));
+
+    {
+        setUp(
+                leitura().injectClosed(
+                        rampConcurrentUsers(0).to(leitores(USUARIOS)).during(RAMPA),
+                        constantConcurrentUsers(leitores(USUARIOS)).during(DURACAO)),
+                escrita().injectClosed(
+                        rampConcurrentUsers(0).to(escritores(USUARIOS)).during(RAMPA),
+                        constantConcurrentUsers(escritores(USUARIOS)).during(DURACAO)))
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().percent().lt(0.1),
+                        global().responseTime().percentile(99.0).lt(500));
+    }
+
+    @Override
+    protected List<String> avaliar(MonitorRecursos monitor) {
+        var alertas = new ArrayList<String>(monitor.vazamentos(LIMITE_HEAP_MB_POR_HORA,
+                LIMITE_CRESCIMENTO_THREADS));
+        alertas.addAll(monitor.saturacao(RAMPA.toSeconds(), LIMITE_ESPERA_POOL_MS));
+        return alertas;
+    }
+}
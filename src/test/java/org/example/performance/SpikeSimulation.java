@@ -0,0 +1,65 @@
+package org.example.performance;
+
+import java.time.Duration;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Pico repentino em modelo fechado: a concorrência salta da base para o pico em um segundo, fica
+ * lá e volta. Durante o pico erros e latência alta são tolerados; depois dele o pool de conexões
+ * precisa voltar a atender sem fila dentro da carência.
+ * <p>
+ * {@code make performance-test SIMULACAO=SpikeSimulation CARGA_ARGS="-DusuariosPico=400"}
+ */
+public class SpikeSimulation extends SimulacaoEmbarcada {
+
+    private static final int USUARIOS_BASE = Integer.getInteger("usuariosBase", 10);
+
+    private static final int USUARIOS_PICO = Integer.getInteger("usuariosPico", 200);
+
+    private static final Duration DURACAO_BASE =
+            Duration.ofSeconds(Long.getLong("duracaoBase", 60));
+
+    private static final Duration DURACAO_PICO =
+            Duration.ofSeconds(Long.getLong("duracaoPico", 60));
+
+    private static final Duration RECUPERACAO =
+            Duration.ofSeconds(Long.getLong("recuperacao", 120));
+
+    /** Tempo depois do pico até a exigência de pool sem fila. */
+    private static final Duration CARENCIA = Duration.ofSeconds(Long.getLong("carencia", 30));
+
+    private static final Duration SALTO = Duration.ofSeconds(1);
+
+    private static final double LIMITE_ESPERA_POOL_MS =
+            Double.parseDouble(System.getProperty("limiteEsperaPoolMs", "50"));
+
+    {
+        setUp(
+                leitura().injectClosed(
+                        constantConcurrentUsers(leitores(USUARIOS_BASE)).during(DURACAO_BASE),
+                        rampConcurrentUsers(leitores(USUARIOS_BASE)).to(leitores(USUARIOS_PICO))
+                                .during(SALTO),
+                        constantConcurrentUsers(leitores(USUARIOS_PICO)).during(DURACAO_PICO),
+                        rampConcurrentUsers(leitores(USUARIOS_PICO)).to(leitores(USUARIOS_BASE))
+                                .during(SALTO),
+                        constantConcurrentUsers(leitores(USUARIOS_BASE)).during(RECUPERACAO)),
+                escrita().injectClosed(
+                        constantConcurrentUsers(escritores(USUARIOS_BASE)).during(DURACAO_BASE),
+                        rampConcurrentUsers(escritores(USUARIOS_BASE))
+                                .to(escritores(USUARIOS_PICO)).during(SALTO),
+                        constantConcurrentUsers(escritores(USUARIOS_PICO)).during(DURACAO_PICO),
+                        rampConcurrentUsers(escritores(USUARIOS_PICO))
+                                .to(escritores(USUARIOS_BASE)).during(SALTO),
+                        constantConcurrentUsers(escritores(USUARIOS_BASE)).during(RECUPERACAO)))
+                .protocols(httpProtocol)
+                .assertions(global().failedRequests().percent().lt(1.0));
+    }
+
+    @Override
+    protected List<String> avaliar(MonitorRecursos monitor) {
+        var fimDoPico = DURACAO_BASE.plus(SALTO).plus(DURACAO_PICO).plus(SALTO);
+        return monitor.saturacao(fimDoPico.plus(CARENCIA).toSeconds(), LIMITE_ESPERA_POOL_MS);
+    }
+}
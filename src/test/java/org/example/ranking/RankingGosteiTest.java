@@ -0,0 +1,196 @@
+package org.example.ranking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.example.repository.ShardMensagemRepository;
+import org.junit.jupiter.api.Test;
+
+class RankingGosteiTest {
+
+  private final MensagemRepository mensagemRepository = mock(MensagemRepository.class);
+
+  private final ParticaoMensagemRepository particaoMensagemRepository =
+      mock(ParticaoMensagemRepository.class);
+
+  private final ShardMensagemRepository shardMensagemRepository =
+      mock(ShardMensagemRepository.class);
+
+  private final RelogioAjustavel relogio =
+      new RelogioAjustavel(Instant.parse("2023-07-10T12:00:00Z"));
+
+  private final RankingGostei rankingGostei =
+      new RankingGostei(mensagemRepository, particaoMensagemRepository, shardMensagemRepository,
+          Duration.ofHours(24), 3, relogio);
+
+  private final UUID id1 = UUID.randomUUID();
+
+  private final UUID id2 = UUID.randomUUID();
+
+  private final UUID id3 = UUID.randomUUID();
+
+  @Test
+  void deveOrdenarPorGostei_QuandoRegistrarGostei() {
+    rankingGostei.registrarGostei(id1, 1, 5);
+    rankingGostei.registrarGostei(id2, 1, 9);
+    rankingGostei.registrarGostei(id3, 1, 7);
+
+    assertThat(rankingGostei.top(2))
+        .containsExactly(new PosicaoRanking(id2, 9), new PosicaoRanking(id3, 7));
+  }
+
+  @Test
+  void deveManterMaiorTotal_QuandoAtualizacaoForaDeOrdem() {
+    rankingGostei.registrarGostei(id1, 1, 5);
+    rankingGostei.registrarGostei(id1, 1, 4);
+
+    assertThat(rankingGostei.top(10)).containsExactly(new PosicaoRanking(id1, 5));
+  }
+
+  @Test
+  void deveIgnorarMensagemSemGostei() {
+    rankingGostei.registrarGostei(id1, 0, 0);
+
+    assertThat(rankingGostei.top(10)).isEmpty();
+  }
+
+  @Test
+  void deveRetirarMensagem_QuandoRemover() {
+    rankingGostei.registrarGostei(id1, 3, 3);
+    rankingGostei.registrarGostei(id2, 1, 1);
+
+    rankingGostei.remover(id1);
+
+    assertThat(rankingGostei.top(10)).containsExactly(new PosicaoRanking(id2, 1));
+    assertThat(rankingGostei.top(10, Duration.ofHours(1)))
+        .containsExactly(new PosicaoRanking(id2, 1));
+  }
+
+  @Test
+  void deveConsiderarApenasGosteiDaJanela_QuandoInformadaJanela() {
+    rankingGostei.registrarGostei(id1, 10, 10);
+    relogio.avancar(Duration.ofHours(2));
+    rankingGostei.registrarGostei(id2, 2, 2);
+    rankingGostei.registrarGostei(id3, 1, 1);
+    relogio.avancar(Duration.ofMinutes(30));
+    rankingGostei.registrarGostei(id3, 3, 4);
+
+    assertThat(rankingGostei.top(10, Duration.ofHours(1)))
+        .containsExactly(new PosicaoRanking(id3, 4), new PosicaoRanking(id2, 2));
+    assertThat(rankingGostei.top(1, Duration.ofHours(3)))
+        .containsExactly(new PosicaoRanking(id1, 10));
+    assertThat(rankingGostei.top(1))
+        .containsExactly(new PosicaoRanking(id1, 10));
+  }
+
+  @Test
+  void deveDescartarGostei_QuandoForaDaRetencao() {
+    rankingGostei.registrarGostei(id1, 10, 10);
+    relogio.avancar(Duration.ofHours(25));
+    rankingGostei.registrarGostei(id2, 1, 1);
+
+    assertThat(rankingGostei.top(10, Duration.ofHours(24)))
+        .containsExactly(new PosicaoRanking(id2, 1));
+    assertThat(rankingGostei.top(10))
+        .containsExactly(new PosicaoRanking(id1, 10), new PosicaoRanking(id2, 1));
+  }
+
+  @Test
+  void deveManterApenasCapacidade_DescartandoUltima() {
+    var id4 = UUID.randomUUID();
+    rankingGostei.registrarGostei(id1, 1, 5);
+    rankingGostei.registrarGostei(id2, 1, 9);
+    rankingGostei.registrarGostei(id3, 1, 7);
+
+    rankingGostei.registrarGostei(id4, 1, 6);
+    rankingGostei.registrarGostei(UUID.randomUUID(), 1, 2);
+
+    assertThat(rankingGostei.top(10)).containsExactly(new PosicaoRanking(id2, 9),
+        new PosicaoRanking(id3, 7), new PosicaoRanking(id4, 6));
+    assertThat(rankingGostei.ranqueadas()).containsExactlyInAnyOrder(id2, id3, id4);
+
+    rankingGostei.registrarGostei(id1, 1, 8);
+
+    assertThat(rankingGostei.top(10)).containsExactly(new PosicaoRanking(id2, 9),
+        new PosicaoRanking(id1, 8), new PosicaoRanking(id3, 7));
+  }
+
+  @Test
+  void naoDeveDevolverMensagem_QuandoGosteiRegistradoAposRemover() {
+    rankingGostei.registrarGostei(id1, 1, 3);
+
+    rankingGostei.remover(id1);
+    rankingGostei.registrarGostei(id1, 1, 4);
+
+    assertThat(rankingGostei.top(10)).isEmpty();
+    assertThat(rankingGostei.top(10, Duration.ofHours(1))).isEmpty();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void devePermitirReconstruir_ComAsMaisCurtidasDeCadaNo() {
+    doAnswer(invocation -> {
+      ObjLongConsumer<UUID> consumidor = invocation.getArgument(1);
+      consumidor.accept(id1, 3);
+      consumidor.accept(id2, 8);
+      return null;
+    }).when(mensagemRepository).percorrerMaisCurtidas(eq(3), any(ObjLongConsumer.class));
+    doAnswer(invocation -> {
+      ObjLongConsumer<UUID> consumidor = invocation.getArgument(1);
+      consumidor.accept(id3, 5);
+      return null;
+    }).when(particaoMensagemRepository).percorrerMaisCurtidas(eq(3), any(ObjLongConsumer.class));
+    var idShard = UUID.randomUUID();
+    doAnswer(invocation -> {
+      ObjLongConsumer<UUID> consumidor = invocation.getArgument(1);
+      consumidor.accept(idShard, 1);
+      return null;
+    }).when(shardMensagemRepository).percorrerMaisCurtidas(eq(3), any(ObjLongConsumer.class));
+
+    rankingGostei.reconstruir();
+
+    assertThat(rankingGostei.top(10)).containsExactly(new PosicaoRanking(id2, 8),
+        new PosicaoRanking(id3, 5), new PosicaoRanking(id1, 3));
+    assertThat(rankingGostei.top(10, Duration.ofHours(1))).isEmpty();
+  }
+
+  private static final class RelogioAjustavel extends Clock {
+
+    private Instant agora;
+
+    RelogioAjustavel(Instant agora) {
+      this.agora = agora;
+    }
+
+    void avancar(Duration duracao) {
+      agora = agora.plus(duracao);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return agora;
+    }
+  }
+}
@@ -2,15 +2,23 @@ package org.example.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import org.example.dto.MensagemResponse;
 import org.example.model.Mensagem;
+import org.example.model.MensagemHistorico;
 import org.example.utils.MensagemHelper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 @SpringBootTest
@@ -21,6 +29,15 @@ class MensagemRepositoryIT {
   @Autowired
   private MensagemRepository mensagemRepository;
 
+  @Autowired
+  private MensagemHistoricoRepository mensagemHistoricoRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
   @Test
   void devePermitirCriarTabela() {
     long totalTabelasCriada = mensagemRepository.count();
@@ -96,6 +113,109 @@ class MensagemRepositoryIT {
         .hasSize(5);
   }
 
+  @Test
+  void devePermitirBuscarMensagens_NaOrdemDosIds() {
+    // Arrange
+    var mensagem1 = registrarMensagem();
+    var mensagem2 = registrarMensagem();
+    var idInexistente = UUID.randomUUID();
+    // Act
+    var resultado = mensagemRepository.buscarMensagens(
+        List.of(mensagem2.getId(), idInexistente, mensagem1.getId()));
+    // Assert
+    assertThat(resultado)
+        .containsExactly(mensagem2, null, mensagem1);
+  }
+
+  @Test
+  void devePermitirIncrementarGostei_EmLote() {
+    // Arrange
+    var mensagem1 = registrarMensagem();
+    var mensagem2 = registrarMensagem();
+    var idInexistente = UUID.randomUUID();
+    // Act
+    var resultado = mensagemRepository.incrementarGostei(
+        Map.of(mensagem1.getId(), 3, mensagem2.getId(), 1, idInexistente, 2));
+    // Assert
+    assertThat(resultado)
+        .containsOnly(Map.entry(mensagem1.getId(), 3), Map.entry(mensagem2.getId(), 1));
+  }
+
+  @Test
+  void devePermitirMarcarExclusao_OcultandoMensagem() {
+    // Arrange
+    var mensagem = registrarMensagem();
+    var id = mensagem.getId();
+    // Act
+    var marcada = mensagemRepository.marcarExclusao(id, LocalDateTime.now());
+    entityManager.clear();
+    // Assert
+    assertThat(marcada).isTrue();
+    assertThat(mensagemRepository.findById(id)).isEmpty();
+    assertThat(mensagemRepository.buscarMensagens(List.of(id))).containsExactly((Mensagem) null);
+    assertThat(mensagemRepository.listarMensagens(Pageable.unpaged()))
+        .extracting(MensagemResponse::id)
+        .doesNotContain(id);
+    assertThat(mensagemRepository.incrementarGostei(Map.of(id, 1))).isEmpty();
+  }
+
+  @Test
+  void deveRetornarFalso_QuandoMarcarExclusao_MensagemJaApagada() {
+    // Arrange
+    var id = registrarMensagem().getId();
+    mensagemRepository.marcarExclusao(id, LocalDateTime.now());
+    // Act
+    var marcada = mensagemRepository.marcarExclusao(id, LocalDateTime.now());
+    // Assert
+    assertThat(marcada).isFalse();
+  }
+
+  @Test
+  void devePermitirAlterarConteudo_SomenteNaVersaoLida() {
+    // Arrange
+    var id = registrarMensagem().getId();
+    mensagemRepository.incrementarGostei(Map.of(id, 2));
+    // Act
+    var primeira = mensagemRepository.alterarConteudo(id, 1, "primeira", LocalDateTime.now());
+    var concorrente = mensagemRepository.alterarConteudo(id, 1, "concorrente",
+        LocalDateTime.now());
+    entityManager.clear();
+    // Assert
+    assertThat(primeira).isTrue();
+    assertThat(concorrente).isFalse();
+    assertThat(mensagemRepository.findById(id)).hasValueSatisfying(mensagem -> {
+      assertThat(mensagem.getConteudo()).isEqualTo("primeira");
+      assertThat(mensagem.getVersao()).isEqualTo(2);
+      assertThat(mensagem.getGostei()).isEqualTo(2);
+    });
+  }
+
+  @Test
+  void devePermitirExpurgarExcluidas_EmLotes() {
+    // Arrange
+    var agora = LocalDateTime.now();
+    for (int i = 0; i < 3; i++) {
+      var mensagem = registrarMensagem();
+      mensagemHistoricoRepository.save(MensagemHistorico.de(mensagem));
+      mensagemRepository.marcarExclusao(mensagem.getId(), agora.minusHours(2));
+    }
+    var recente = registrarMensagem().getId();
+    mensagemRepository.marcarExclusao(recente, agora);
+    var limite = agora.minusHours(1);
+    // Act
+    var primeiroLote = mensagemRepository.expurgarExcluidas(limite, 2);
+    var segundoLote = mensagemRepository.expurgarExcluidas(limite, 2);
+    var terceiroLote = mensagemRepository.expurgarExcluidas(limite, 2);
+    // Assert
+    assertThat(List.of(primeiroLote, segundoLote, terceiroLote)).containsExactly(2, 1, 0);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM mensagem WHERE id = ?", Integer.class, recente))
+        .isEqualTo(1);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM mensagem_historico", Integer.class))
+        .isZero();
+  }
+
   private Mensagem gerarMensagem() {
     return Mensagem.builder()
         .usuario("joe")
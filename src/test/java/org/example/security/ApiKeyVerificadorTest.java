@@ -0,0 +1,47 @@
+package org.example.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+class ApiKeyVerificadorTest {
+
+  private final ApiKeyVerificador apiKeyVerificador =
+      new ApiKeyVerificador(List.of("chave-1", "chave-2"), 100, Duration.ofMinutes(1));
+
+  @Test
+  void devePermitirAutenticar_QuandoChaveConfigurada() {
+    var autenticacao = apiKeyVerificador.verificar("chave-2");
+
+    assertThat(autenticacao).hasValueSatisfying(a -> {
+      assertThat(a.isAuthenticated()).isTrue();
+      assertThat(a.getName()).startsWith("api-key-").doesNotContain("chave-2");
+      assertThat(a.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+          .containsExactly(ApiKeyVerificador.PAPEL_API);
+    });
+  }
+
+  @Test
+  void deveRetornarVazio_QuandoChaveNaoConfigurada() {
+    assertThat(apiKeyVerificador.verificar("chave-3")).isEmpty();
+    assertThat(apiKeyVerificador.verificar("")).isEmpty();
+  }
+
+  @Test
+  void deveReutilizarVerificacao_QuandoChaveRepetida() {
+    var primeira = apiKeyVerificador.verificar("chave-1");
+    var segunda = apiKeyVerificador.verificar("chave-1");
+
+    assertThat(segunda).containsSame(primeira.orElseThrow());
+  }
+
+  @Test
+  void deveRetornarVazio_QuandoNenhumaChaveConfigurada() {
+    var semChaves = new ApiKeyVerificador(List.of(), 100, Duration.ofMinutes(1));
+
+    assertThat(semChaves.verificar("chave-1")).isEmpty();
+  }
+}
@@ -0,0 +1,47 @@
+package org.example.serializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.LocalDateTime;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DataHoraSerializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .registerModule(new JavaTimeModule());
+
+  record DataComFormato(@JsonFormat(pattern = DataHoraSerializer.PADRAO) LocalDateTime data) {
+
+  }
+
+  record DataComSerializer(@JsonSerialize(using = DataHoraSerializer.class) LocalDateTime data) {
+
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "2023-07-01T00:00:00",
+      "2023-07-01T00:00:00.1",
+      "2023-12-31T23:59:59.999999999",
+      "2024-02-29T12:34:56.000010000",
+      "2024-02-29T12:34:56.000009999",
+      "0001-01-01T01:02:03.123456789",
+      "9999-12-31T23:59:59.99999",
+      "+10000-01-01T00:00:00",
+      "0000-06-15T10:00:00",
+      "-0001-06-15T10:00:00"
+  })
+  void deveSerializarDataIgualAoJsonFormat(String valor) throws Exception {
+    var data = LocalDateTime.parse(valor);
+
+    var esperado = objectMapper.writeValueAsString(new DataComFormato(data));
+    var obtido = objectMapper.writeValueAsString(new DataComSerializer(data));
+
+    assertThat(obtido).isEqualTo(esperado);
+  }
+}
@@ -0,0 +1,170 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.example.dto.CursorListagem;
+import org.example.dto.MensagemResponse;
+import org.example.exception.MensagemNotFoundException;
+import org.example.model.Mensagem;
+import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ArquivamentoMensagensIT {
+
+  private static final YearMonth CINCO_MESES_ATRAS = YearMonth.now().minusMonths(5);
+
+  private static final YearMonth QUATRO_MESES_ATRAS = YearMonth.now().minusMonths(4);
+
+  @Autowired
+  private ArquivamentoMensagens arquivamentoMensagens;
+
+  @Autowired
+  private ParticaoMensagemRepository particaoMensagemRepository;
+
+  @Autowired
+  private MensagemRepository mensagemRepository;
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<UUID> antigas = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < 3; i++) {
+      antigas.add(inserir(CINCO_MESES_ATRAS.atDay(10).atTime(12, i)));
+    }
+    for (int i = 0; i < 2; i++) {
+      antigas.add(inserir(QUATRO_MESES_ATRAS.atDay(10).atTime(12, i)));
+    }
+    inserir(LocalDateTime.now().minusMinutes(2));
+    inserir(LocalDateTime.now().minusMinutes(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    particaoMensagemRepository.particoes().forEach(particaoMensagemRepository::descartar);
+  }
+
+  @Test
+  void deveMoverMesesFechados_ParaParticoes() {
+    var movidas = arquivamentoMensagens.arquivar();
+
+    assertThat(movidas).isEqualTo(5);
+    assertThat(particaoMensagemRepository.particoes())
+        .containsExactly(QUATRO_MESES_ATRAS, CINCO_MESES_ATRAS);
+    assertThat(mensagemRepository.count()).isEqualTo(2);
+    assertThat(particaoMensagemRepository.contar()).isEqualTo(5);
+    assertThat(arquivamentoMensagens.arquivar()).isZero();
+  }
+
+  @Test
+  void naoDeveMoverMensagemApagada_ParaParticao() {
+    var apagada = antigas.get(0);
+    mensagemService.apagarMensagem(apagada);
+
+    var movidas = arquivamentoMensagens.arquivar();
+
+    assertThat(movidas).isEqualTo(4);
+    assertThat(particaoMensagemRepository.contar()).isEqualTo(4);
+    assertThat(particaoMensagemRepository.buscar(apagada)).isEmpty();
+    assertThatThrownBy(() -> mensagemService.buscarMensagem(apagada))
+        .isInstanceOf(MensagemNotFoundException.class);
+    // fica na tabela corrente, marcada, até o expurgo
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM mensagem WHERE id = ? AND data_exclusao IS NOT NULL",
+        Long.class, apagada)).isEqualTo(1);
+  }
+
+  @Test
+  void devePermitirBuscarAlterarEApagarMensagem_QuandoEmParticao() {
+    arquivamentoMensagens.arquivar();
+    var id = antigas.get(0);
+
+    assertThat(mensagemService.buscarMensagem(id).getConteudo()).isEqualTo("mensagem antiga");
+    assertThat(mensagemService.incrementarGostei(id).getGostei()).isEqualTo(1);
+    var alteracao = Mensagem.builder().id(id).usuario("joe").conteudo("editada").build();
+    mensagemService.alterarMensagem(id, alteracao);
+
+    var mensagem = mensagemService.buscarMensagem(id);
+    assertThat(mensagem.getGostei()).isEqualTo(1);
+    assertThat(mensagem.getConteudo()).isEqualTo("editada");
+    assertThat(mensagemService.listarHistorico(id)).hasSize(2);
+    assertThat(mensagemRepository.count()).isEqualTo(2);
+
+    mensagemService.apagarMensagem(id);
+    assertThatThrownBy(() -> mensagemService.buscarMensagem(id))
+        .isInstanceOf(MensagemNotFoundException.class);
+    assertThat(particaoMensagemRepository.contar()).isEqualTo(4);
+  }
+
+  @Test
+  void devePermitirListarMensagens_AtravessandoParticoes() {
+    var esperadas = mensagemService.listarMensagens(PageRequest.of(0, 10)).getContent();
+    arquivamentoMensagens.arquivar();
+
+    var porOffset = new ArrayList<MensagemResponse>();
+    for (int pagina = 0; pagina < 3; pagina++) {
+      var resultado = mensagemService.listarMensagens(PageRequest.of(pagina, 3));
+      assertThat(resultado.getTotalElements()).isEqualTo(7);
+      porOffset.addAll(resultado.getContent());
+    }
+    var porCursor = new ArrayList<MensagemResponse>();
+    CursorListagem cursor = null;
+    List<MensagemResponse> pagina;
+    do {
+      pagina = mensagemService.listarMensagens(cursor, 2);
+      porCursor.addAll(pagina);
+      cursor = pagina.isEmpty() ? null : CursorListagem.de(pagina.get(pagina.size() - 1));
+    } while (pagina.size() == 2);
+
+    assertThat(porOffset).containsExactlyElementsOf(esperadas);
+    assertThat(porCursor).containsExactlyElementsOf(esperadas);
+    assertThat(esperadas).isSortedAccordingTo(
+        Comparator.comparing(MensagemResponse::dataCriacao).reversed());
+  }
+
+  @Test
+  void deveDescartarParticaoInteira() {
+    arquivamentoMensagens.arquivar();
+
+    var descartadas = particaoMensagemRepository.descartar(CINCO_MESES_ATRAS);
+
+    assertThat(descartadas).isEqualTo(3);
+    assertThat(particaoMensagemRepository.particoes()).containsExactly(QUATRO_MESES_ATRAS);
+    assertThatThrownBy(() -> mensagemService.buscarMensagem(antigas.get(0)))
+        .isInstanceOf(MensagemNotFoundException.class);
+    assertThat(mensagemService.buscarMensagem(antigas.get(4))).isNotNull();
+  }
+
+  private UUID inserir(LocalDateTime dataCriacao) {
+    var id = UUID.randomUUID();
+    jdbcTemplate.update("INSERT INTO mensagem (id, usuario, conteudo, data_criacao, "
+            + "data_alteracao, gostei, versao) VALUES (?, ?, ?, ?, ?, 0, 1)", id, "joe",
+        "mensagem antiga", dataCriacao, dataCriacao);
+    return id;
+  }
+}
@@ -0,0 +1,100 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.example.config.ParticionamentoProperties;
+import org.example.ranking.RankingGostei;
+import org.example.repository.ParticaoMensagemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ArquivamentoMensagensTest {
+
+  private static final Instant AGORA = Instant.parse("2023-07-10T03:00:00Z");
+
+  /** Com três meses correntes, julho, junho e maio ficam na tabela mensagem. */
+  private static final YearMonth PRIMEIRO_CORRENTE = YearMonth.of(2023, 5);
+
+  private final ParticaoMensagemRepository particaoMensagemRepository =
+      mock(ParticaoMensagemRepository.class);
+
+  private final RankingGostei rankingGostei = mock(RankingGostei.class);
+
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+
+  private ArquivamentoMensagens criarArquivamento(int tamanhoLote, int mesesRetidos) {
+    var properties = new ParticionamentoProperties(true, "-", 3, mesesRetidos, tamanhoLote);
+    return new ArquivamentoMensagens(particaoMensagemRepository, rankingGostei,
+        new TransactionTemplate(transactionManager), properties,
+        Clock.fixed(AGORA, ZoneOffset.UTC));
+  }
+
+  @Test
+  void deveMoverMesesFechados_DoMaisAntigo_EmLotes() {
+    var marco = YearMonth.of(2023, 3);
+    var abril = YearMonth.of(2023, 4);
+    when(particaoMensagemRepository.mesMaisAntigoAntesDe(PRIMEIRO_CORRENTE))
+        .thenReturn(Optional.of(marco))
+        .thenReturn(Optional.of(abril))
+        .thenReturn(Optional.empty());
+    when(particaoMensagemRepository.mover(marco, 100)).thenReturn(100, 30);
+    when(particaoMensagemRepository.mover(abril, 100)).thenReturn(10);
+
+    var total = criarArquivamento(100, 0).arquivar();
+
+    assertThat(total).isEqualTo(140);
+    verify(particaoMensagemRepository, times(1)).criar(marco);
+    verify(particaoMensagemRepository, times(1)).criar(abril);
+    verify(transactionManager, times(3)).commit(any());
+    verify(particaoMensagemRepository, never()).descartar(any());
+  }
+
+  @Test
+  void naoDeveMover_QuandoSoHaMesesCorrentes() {
+    when(particaoMensagemRepository.mesMaisAntigoAntesDe(PRIMEIRO_CORRENTE))
+        .thenReturn(Optional.empty());
+
+    var total = criarArquivamento(100, 0).arquivar();
+
+    assertThat(total).isZero();
+    verify(particaoMensagemRepository, never()).criar(any());
+    verify(particaoMensagemRepository, never()).mover(any(), anyInt());
+  }
+
+  @Test
+  void deveDescartarParticoesAlemDaRetencao_RemovendoDoRanking() {
+    var ranqueada = UUID.randomUUID();
+    var expirada = YearMonth.of(2022, 6);
+    when(particaoMensagemRepository.mesMaisAntigoAntesDe(PRIMEIRO_CORRENTE))
+        .thenReturn(Optional.empty());
+    when(particaoMensagemRepository.particoes())
+        .thenReturn(List.of(YearMonth.of(2023, 1), YearMonth.of(2022, 7), expirada));
+    var ranqueadas = Set.of(ranqueada, UUID.randomUUID());
+    when(rankingGostei.ranqueadas()).thenReturn(ranqueadas);
+    when(particaoMensagemRepository.contidas(expirada, ranqueadas)).thenReturn(List.of(ranqueada));
+
+    criarArquivamento(100, 12).arquivar();
+
+    verify(particaoMensagemRepository, times(1)).descartar(expirada);
+    verify(particaoMensagemRepository, never()).descartar(YearMonth.of(2022, 7));
+    verify(rankingGostei, times(1)).remover(ranqueada);
+    verify(rankingGostei, times(1)).remover(any());
+  }
+}
@@ -0,0 +1,74 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.example.config.ExpurgoProperties;
+import org.example.repository.MensagemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ExpurgoMensagensTest {
+
+  private static final Instant AGORA = Instant.parse("2023-07-10T03:00:00Z");
+
+  private static final LocalDateTime LIMITE = LocalDateTime.parse("2023-07-10T02:00:00");
+
+  private final MensagemRepository mensagemRepository = mock(MensagemRepository.class);
+
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+
+  private ExpurgoMensagens criarExpurgo(int tamanhoLote, int maximoLotes) {
+    var properties = new ExpurgoProperties(true, "-", Duration.ofHours(1), tamanhoLote,
+        maximoLotes);
+    return new ExpurgoMensagens(mensagemRepository, new TransactionTemplate(transactionManager),
+        properties, Clock.fixed(AGORA, ZoneOffset.UTC));
+  }
+
+  @Test
+  void deveExpurgarEmLotes_AteLoteIncompleto() {
+    when(mensagemRepository.expurgarExcluidas(LIMITE, 100))
+        .thenReturn(100, 100, 40);
+
+    var total = criarExpurgo(100, 10).expurgar();
+
+    assertThat(total).isEqualTo(240);
+    verify(mensagemRepository, times(3)).expurgarExcluidas(LIMITE, 100);
+    verify(transactionManager, times(3)).commit(any());
+  }
+
+  @Test
+  void deveLimitarQuantidadeDeLotes_PorExecucao() {
+    when(mensagemRepository.expurgarExcluidas(eq(LIMITE), anyInt()))
+        .thenReturn(10);
+
+    var total = criarExpurgo(10, 3).expurgar();
+
+    assertThat(total).isEqualTo(30);
+    verify(mensagemRepository, times(3)).expurgarExcluidas(LIMITE, 10);
+  }
+
+  @Test
+  void naoDeveExpurgar_QuandoNaoHaMensagensApagadas() {
+    when(mensagemRepository.expurgarExcluidas(eq(LIMITE), anyInt()))
+        .thenReturn(0);
+
+    var total = criarExpurgo(100, 10).expurgar();
+
+    assertThat(total).isZero();
+    verify(mensagemRepository, times(1)).expurgarExcluidas(LIMITE, 100);
+  }
+}
@@ -0,0 +1,202 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import org.example.model.Mensagem;
+import org.example.repository.MensagemRepository;
+import org.example.utils.MensagemHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+// sem o relay do outbox, cujas transações em segundo plano alterariam as estatísticas
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+    "outbox.habilitado=false"})
+@AutoConfigureTestDatabase
+class MensagemServiceEstatisticaIT {
+
+  @Autowired
+  private MensagemRepository mensagemRepository;
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Statistics estatisticas;
+
+  @BeforeEach
+  void setUp() {
+    estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    estatisticas.clear();
+  }
+
+  @Test
+  void devePermitirRegistrarMensagem_EmUmaTransacao() {
+    var mensagem = mensagemService.criarMensagem(MensagemHelper.gerarMensagem());
+
+    assertThat(mensagem.getId()).isNotNull();
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    assertThat(estatisticas.getFlushCount()).isEqualTo(1);
+    // mensagem e evento do outbox
+    assertThat(estatisticas.getEntityInsertCount()).isEqualTo(2);
+  }
+
+  @Test
+  void devePermitirBuscarMensagem_SemFlush() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    mensagemService.buscarMensagem(mensagem.getId());
+
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    assertThat(estatisticas.getFlushCount()).isZero();
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void devePermitirAlterarMensagem_EmUmaTransacao() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    mensagemService.alterarMensagem(mensagem.getId(), mensagem);
+
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    // o update condicional na versão vai por JDBC, depois de um flush do contexto
+    assertThat(estatisticas.getFlushCount()).isEqualTo(2);
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+    assertThat(estatisticas.getEntityUpdateCount()).isZero();
+    // histórico e outbox gravados sem consulta prévia: só os inserts e o update
+    assertThat(estatisticas.getEntityInsertCount()).isEqualTo(2);
+    assertThat(estatisticas.getEntityLoadCount()).isZero();
+    assertThat(estatisticas.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void devePermitirIncrementarGostei_EmUmaTransacao() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    mensagemService.incrementarGostei(mensagem.getId());
+
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+    // o gostei é somado por um update JDBC, sem o Hibernate regravar a entidade
+    assertThat(estatisticas.getEntityUpdateCount()).isZero();
+  }
+
+  @Test
+  void devePermitirApagarMensagem_ComUmUpdate_SemCarregarEntidade() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    mensagemService.apagarMensagem(mensagem.getId());
+
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isZero();
+    assertThat(estatisticas.getEntityLoadCount()).isZero();
+    assertThat(estatisticas.getEntityDeleteCount()).isZero();
+    assertThat(mensagemRepository.findById(mensagem.getId())).isEmpty();
+  }
+
+  @Test
+  void devePermitirListarMensagens_SemCarregarEntidades() {
+    MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    var mensagens = mensagemService.listarMensagens(PageRequest.of(1, 1));
+
+    assertThat(mensagens.getContent()).isNotEmpty();
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(1);
+    assertThat(estatisticas.getFlushCount()).isZero();
+    assertThat(estatisticas.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void devePermitirBuscarMensagem_UtilizandoCacheDeSegundoNivel() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    estatisticas.clear();
+
+    mensagemService.buscarMensagem(mensagem.getId());
+    mensagemService.buscarMensagem(mensagem.getId());
+
+    assertThat(estatisticas.getTransactionCount()).isEqualTo(2);
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(2);
+    assertThat(estatisticas.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void devePermitirListarPrimeiraPagina_UtilizandoCacheDeConsulta() {
+    mensagemService.listarMensagens(PageRequest.of(0, 10));
+    estatisticas.clear();
+
+    mensagemService.listarMensagens(PageRequest.of(0, 10));
+
+    assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(1);
+    assertThat(estatisticas.getQueryExecutionCount()).isZero();
+  }
+
+  @Test
+  void devePermitirExportarEstatisticasDoCache() {
+    var mensagem = MensagemHelper.registrarMensagem(mensagemRepository);
+    mensagemService.buscarMensagem(mensagem.getId());
+
+    assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+        .tag("result", "hit")
+        .functionCounter())
+        .isNotNull();
+  }
+
+  @Test
+  void devePermitirBuscarMensagens_ComUmaConsulta_ReutilizandoCache() {
+    var emCache = MensagemHelper.registrarMensagem(mensagemRepository);
+    mensagemService.buscarMensagem(emCache.getId());
+    var ids = new ArrayList<UUID>();
+    ids.add(emCache.getId());
+    for (int i = 0; i < 20; i++) {
+      ids.add(MensagemHelper.registrarMensagem(mensagemRepository).getId());
+    }
+    entityManagerFactory.unwrap(SessionFactory.class).getCache()
+        .evictEntityData(Mensagem.class);
+    mensagemService.buscarMensagem(emCache.getId());
+    estatisticas.clear();
+
+    var resultado = mensagemService.buscarMensagens(ids);
+
+    assertThat(resultado.mensagens()).hasSize(21);
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+    assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(estatisticas.getEntityLoadCount()).isEqualTo(20);
+  }
+
+  @Test
+  void devePermitirIncrementarGosteiEmLote_RemovendoDoCacheApenasAlteradas() {
+    var alterada = MensagemHelper.registrarMensagem(mensagemRepository);
+    var inalterada = MensagemHelper.registrarMensagem(mensagemRepository);
+    mensagemService.buscarMensagem(alterada.getId());
+    mensagemService.buscarMensagem(inalterada.getId());
+
+    var resultado = mensagemService.incrementarGostei(Map.of(alterada.getId(), 5));
+    estatisticas.clear();
+
+    assertThat(resultado.gostei()).containsExactly(Map.entry(alterada.getId(), 5));
+    assertThat(mensagemService.buscarMensagem(alterada.getId()).getGostei()).isEqualTo(5);
+    assertThat(mensagemService.buscarMensagem(inalterada.getId()).getGostei()).isZero();
+    assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+    assertThat(estatisticas.getSecondLevelCacheMissCount()).isEqualTo(1);
+  }
+}
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.UUID;
 
+import org.example.dto.MensagemResponse;
 import org.example.exception.MensagemNotFoundException;
 import org.example.model.Mensagem;
 import org.example.repository.MensagemRepository;
@@ -130,21 +131,21 @@ class MensagemServiceIT {
 
   @Test
   void devePermitirListarMensagens() {
-    Page<Mensagem> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
+    Page<MensagemResponse> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
 
     assertThat(mensagens).hasSize(5);
     assertThat(mensagens.getContent())
         .asList()
         .allSatisfy(mensagem -> {
           assertThat(mensagem).isNotNull();
-          assertThat(mensagem).isInstanceOf(Mensagem.class);
+          assertThat(mensagem).isInstanceOf(MensagemResponse.class);
         });
   }
 
   @Test
   @Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
   void devePermitirListarTodasAsMensagens_QuandoNaoExisteRegistro() {
-    Page<Mensagem> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
+    Page<MensagemResponse> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
     assertThat(mensagens).isEmpty();
   }
 
@@ -3,21 +3,50 @@ package org.example.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.example.config.ShardingProperties;
+import org.example.dto.CursorListagem;
+import org.example.dto.HistoricoResponse;
+import org.example.dto.MensagemResponse;
+import org.example.dto.RankingResponse;
+import org.example.exception.MensagemConflitoException;
 import org.example.exception.MensagemNotFoundException;
+import org.example.exception.PaginaProfundaException;
 import org.example.model.Mensagem;
+import org.example.model.MensagemHistorico;
+import org.example.model.TipoEvento;
+import org.example.ranking.PosicaoRanking;
+import org.example.ranking.RankingGostei;
+import org.example.outbox.RegistroOutbox;
+import org.example.repository.MensagemHistoricoRepository;
 import org.example.repository.MensagemRepository;
+import org.example.repository.ParticaoMensagemRepository;
+import org.example.repository.ShardMensagemRepository;
 import org.example.utils.MensagemHelper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +56,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 class MensagemServiceTest {
@@ -34,12 +64,25 @@ class MensagemServiceTest {
   private MensagemService mensagemService;
   @Mock
   private MensagemRepository mensagemRepository;
+  @Mock
+  private MensagemHistoricoRepository mensagemHistoricoRepository;
+  @Mock
+  private ParticaoMensagemRepository particaoMensagemRepository;
+  @Mock
+  private ShardMensagemRepository shardMensagemRepository;
+  @Mock
+  private RankingGostei rankingGostei;
+  @Mock
+  private RegistroOutbox registroOutbox;
   AutoCloseable openMocks;
 
   @BeforeEach
   void setUp() {
     openMocks = MockitoAnnotations.openMocks(this);
-    mensagemService = new MensagemServiceImpl(mensagemRepository);
+    mensagemService = new MensagemServiceImpl(mensagemRepository,
+        mensagemHistoricoRepository, particaoMensagemRepository, shardMensagemRepository,
+        rankingGostei, registroOutbox, new ShardingProperties(true, 160, 1000,
+            Duration.ofSeconds(10), Duration.ofMinutes(5), 10, List.of()));
   }
 
   @AfterEach
@@ -68,6 +111,22 @@ class MensagemServiceTest {
       assertThat(mensagemArmazenada.getConteudo())
           .isEqualTo(mensagem.getConteudo());
       verify(mensagemRepository, times(1)).save(mensagem);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_CRIADA,
+          mensagemArmazenada.getId(), MensagemResponse.de(mensagemArmazenada));
+    }
+
+    @Test
+    void devePermitirRegistrarMensagem_QuandoDonoEhShard() {
+      var mensagem = MensagemHelper.gerarMensagem();
+      when(shardMensagemRepository.inserir(any(Mensagem.class))).thenReturn(true);
+
+      var mensagemArmazenada = mensagemService.criarMensagem(mensagem);
+
+      assertThat(mensagemArmazenada.getId()).isNotNull();
+      verify(shardMensagemRepository, times(1)).inserir(mensagem);
+      verify(mensagemRepository, never()).save(any(Mensagem.class));
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_CRIADA,
+          mensagemArmazenada.getId(), MensagemResponse.de(mensagemArmazenada));
     }
   }
 
@@ -97,6 +156,31 @@ class MensagemServiceTest {
           .isEqualTo(mensagem.getDataCriacao());
     }
 
+    @Test
+    void devePermitirBuscarMensagem_QuandoMensagemEmParticao() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.empty());
+      when(particaoMensagemRepository.buscar(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+
+      var mensagemObtida = mensagemService.buscarMensagem(mensagem.getId());
+
+      assertThat(mensagemObtida).isEqualTo(mensagem);
+    }
+
+    @Test
+    void devePermitirBuscarMensagem_QuandoMensagemEmShard() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      when(shardMensagemRepository.buscar(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+
+      var mensagemObtida = mensagemService.buscarMensagem(mensagem.getId());
+
+      assertThat(mensagemObtida).isEqualTo(mensagem);
+      verify(mensagemRepository, never()).findById(any(UUID.class));
+    }
+
     @Test
     void deveGerarExcecao_QuandoBuscarMensagem_IdNaoExistente() {
       var id = UUID.randomUUID();
@@ -109,6 +193,119 @@ class MensagemServiceTest {
           .hasMessage("mensagem não encontrada");
       verify(mensagemRepository, times(1)).findById(id);
     }
+
+    @Test
+    void deveGerarExcecao_QuandoBuscarMensagem_MensagemApagada() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      mensagem.setDataExclusao(LocalDateTime.now());
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+
+      assertThatThrownBy(() -> mensagemService.buscarMensagem(mensagem.getId()))
+          .isInstanceOf(MensagemNotFoundException.class)
+          .hasMessage("mensagem não encontrada");
+    }
+
+    @Test
+    void devePermitirBuscarMensagem_UmaConsulta_QuandoBuscasSimultaneas() throws Exception {
+      var id = UUID.randomUUID();
+      var mensagem = MensagemHelper.gerarMensagem();
+      var liberarConsulta = new CountDownLatch(1);
+      when(mensagemRepository.findById(id)).thenAnswer(i -> {
+        liberarConsulta.await();
+        return Optional.of(mensagem);
+      });
+
+      var buscas = 16;
+      var executor = Executors.newFixedThreadPool(buscas);
+      var threads = new CopyOnWriteArrayList<Thread>();
+      var resultados = new ArrayList<Future<Mensagem>>();
+      for (int i = 0; i < buscas; i++) {
+        resultados.add(executor.submit(() -> {
+          threads.add(Thread.currentThread());
+          return mensagemService.buscarMensagem(id);
+        }));
+      }
+      aguardarBloqueio(threads, buscas);
+      liberarConsulta.countDown();
+
+      for (Future<Mensagem> resultado : resultados) {
+        assertThat(resultado.get(5, TimeUnit.SECONDS)).isSameAs(mensagem);
+      }
+      executor.shutdown();
+      verify(mensagemRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void devePermitirBuscarMensagem_NovaConsulta_AposConsultaAnteriorTerminar() {
+      var id = UUID.randomUUID();
+      when(mensagemRepository.findById(id))
+          .thenReturn(Optional.of(MensagemHelper.gerarMensagem()));
+
+      mensagemService.buscarMensagem(id);
+      mensagemService.buscarMensagem(id);
+
+      verify(mensagemRepository, times(2)).findById(id);
+    }
+
+    /** Espera todas as buscas pararem: uma na consulta, as demais aguardando o resultado. */
+    private void aguardarBloqueio(List<Thread> threads, int quantidade)
+        throws InterruptedException {
+      var limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (threads.size() < quantidade
+          || threads.stream().anyMatch(t -> t.getState() != Thread.State.WAITING)) {
+        assertThat(System.nanoTime()).isLessThan(limite);
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+    }
+  }
+
+  @Nested
+  class BuscarMensagens {
+
+    @Test
+    void devePermitirBuscarMensagens_NaOrdemSolicitada() {
+      var mensagem1 = MensagemHelper.gerarMensagemCompleta();
+      var mensagem2 = MensagemHelper.gerarMensagemCompleta();
+      var idInexistente = UUID.randomUUID();
+      var ids = List.of(mensagem2.getId(), idInexistente, mensagem1.getId(), mensagem2.getId());
+      when(mensagemRepository.buscarMensagens(anyList()))
+          .thenReturn(Arrays.asList(mensagem2, null, mensagem1));
+
+      var resultado = mensagemService.buscarMensagens(ids);
+
+      verify(mensagemRepository, times(1))
+          .buscarMensagens(List.of(mensagem2.getId(), idInexistente, mensagem1.getId()));
+      assertThat(resultado.mensagens())
+          .extracting(MensagemResponse::id)
+          .containsExactly(mensagem2.getId(), mensagem1.getId());
+      assertThat(resultado.naoEncontrados())
+          .containsExactly(idInexistente);
+    }
+  }
+
+  @Nested
+  class IncrementarGosteiEmLote {
+
+    @Test
+    void devePermitirIncrementarGosteiEmLote() {
+      var id = UUID.randomUUID();
+      var idInexistente = UUID.randomUUID();
+      var incrementos = Map.of(id, 2, idInexistente, 5);
+      when(mensagemRepository.incrementarGostei(incrementos))
+          .thenReturn(Map.of(id, 4));
+
+      var resultado = mensagemService.incrementarGostei(incrementos);
+
+      verify(mensagemRepository, times(1)).incrementarGostei(incrementos);
+      assertThat(resultado.gostei()).containsExactly(Map.entry(id, 4));
+      assertThat(resultado.naoEncontrados()).containsExactly(idInexistente);
+      verify(rankingGostei, times(1)).registrarGostei(id, 2, 4);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.GOSTEI, id,
+          Map.of("id", id, "incremento", 2, "gostei", 4));
+      verify(registroOutbox, never()).registrar(any(), eq(idInexistente), any());
+      verify(rankingGostei, never()).registrarGostei(eq(idInexistente), anyInt(), anyLong());
+    }
   }
 
   @Nested
@@ -125,8 +322,9 @@ class MensagemServiceTest {
       when(mensagemRepository.findById(any(UUID.class)))
           .thenReturn(Optional.of(mensagemAntiga));
 
-      when(mensagemRepository.save(any(Mensagem.class)))
-          .thenAnswer(i -> i.getArgument(0));
+      when(mensagemRepository.alterarConteudo(eq(id), eq(1), eq("abcd"),
+          any(LocalDateTime.class)))
+          .thenReturn(true);
 
       var mensagemObtida = mensagemService
           .alterarMensagem(id, mensagemNova);
@@ -140,7 +338,49 @@ class MensagemServiceTest {
           .isEqualTo(mensagemNova.getUsuario());
       assertThat(mensagemObtida.getConteudo())
           .isEqualTo(mensagemNova.getConteudo());
-      verify(mensagemRepository, times(1)).save(any(Mensagem.class));
+      verify(mensagemRepository, times(1))
+          .alterarConteudo(eq(id), eq(1), eq("abcd"), any(LocalDateTime.class));
+      verify(mensagemRepository, never()).save(any(Mensagem.class));
+    }
+
+    @Test
+    void devePermitirAlterarMensagem_RegistrandoVersaoAnterior() {
+      var mensagemAntiga = MensagemHelper.gerarMensagemCompleta();
+      var conteudoAntigo = mensagemAntiga.getConteudo();
+      var dataAlteracaoAntiga = mensagemAntiga.getDataAlteracao();
+      var mensagemNova = mensagemAntiga.toBuilder().conteudo("novo conteúdo").build();
+      when(mensagemRepository.findById(mensagemAntiga.getId()))
+          .thenReturn(Optional.of(mensagemAntiga));
+      when(mensagemRepository.alterarConteudo(eq(mensagemAntiga.getId()), eq(1),
+          eq("novo conteúdo"), any(LocalDateTime.class)))
+          .thenReturn(true);
+
+      var mensagemObtida = mensagemService.alterarMensagem(mensagemAntiga.getId(), mensagemNova);
+
+      assertThat(mensagemObtida.getVersao()).isEqualTo(2);
+      assertThat(mensagemObtida.getConteudo()).isEqualTo("novo conteúdo");
+      verify(mensagemHistoricoRepository, times(1)).save(new MensagemHistorico(
+          mensagemAntiga.getId(), 1, conteudoAntigo, dataAlteracaoAntiga));
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_ALTERADA,
+          mensagemAntiga.getId(), MensagemResponse.de(mensagemObtida));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoAlterarMensagem_AlteradaPorOutraRequisicao() {
+      var mensagemAntiga = MensagemHelper.gerarMensagemCompleta();
+      var mensagemNova = mensagemAntiga.toBuilder().conteudo("novo conteúdo").build();
+      when(mensagemRepository.findById(mensagemAntiga.getId()))
+          .thenReturn(Optional.of(mensagemAntiga));
+      when(mensagemRepository.alterarConteudo(eq(mensagemAntiga.getId()), eq(1),
+          eq("novo conteúdo"), any(LocalDateTime.class)))
+          .thenReturn(false);
+
+      assertThatThrownBy(
+          () -> mensagemService.alterarMensagem(mensagemAntiga.getId(), mensagemNova))
+          .isInstanceOf(MensagemConflitoException.class);
+      assertThat(mensagemAntiga.getVersao()).isEqualTo(1);
+      verify(mensagemHistoricoRepository, never()).save(any(MensagemHistorico.class));
+      verify(registroOutbox, never()).registrar(any(), any(), any());
     }
 
     @Test
@@ -156,8 +396,55 @@ class MensagemServiceTest {
           .isInstanceOf(MensagemNotFoundException.class)
           .hasMessage("mensagem não encontrada");
       verify(mensagemRepository, never()).save(any(Mensagem.class));
+      verify(mensagemHistoricoRepository, never()).save(any(MensagemHistorico.class));
+    }
+
+  }
+
+  @Nested
+  class ListarHistorico {
+
+    @Test
+    void devePermitirListarHistorico_DaVersaoAtualParaOriginal() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      mensagem.setVersao(3);
+      var anteriores = List.of(
+          new HistoricoResponse(2, "segunda", LocalDateTime.now().minusHours(1)),
+          new HistoricoResponse(1, "primeira", LocalDateTime.now().minusHours(2)));
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+      when(mensagemHistoricoRepository.listarHistorico(mensagem.getId()))
+          .thenReturn(anteriores);
+
+      var historico = mensagemService.listarHistorico(mensagem.getId());
+
+      assertThat(historico)
+          .extracting(HistoricoResponse::versao)
+          .containsExactly(3, 2, 1);
+      assertThat(historico.get(0).conteudo()).isEqualTo(mensagem.getConteudo());
     }
 
+    @Test
+    void devePermitirListarHistorico_SemConsulta_QuandoMensagemNuncaAlterada() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+
+      var historico = mensagemService.listarHistorico(mensagem.getId());
+
+      assertThat(historico).containsExactly(HistoricoResponse.de(mensagem));
+      verify(mensagemHistoricoRepository, never()).listarHistorico(any(UUID.class));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarHistorico_IdNaoExistente() {
+      var id = UUID.randomUUID();
+      when(mensagemRepository.findById(id)).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> mensagemService.listarHistorico(id))
+          .isInstanceOf(MensagemNotFoundException.class)
+          .hasMessage("mensagem não encontrada");
+    }
   }
 
   @Nested
@@ -166,18 +453,65 @@ class MensagemServiceTest {
     @Test
     void devePermitirApagarMensagem() {
       var id = UUID.fromString("51fa607a-1e61-11ee-be56-0242ac120002");
-      var mensagem = MensagemHelper.gerarMensagem();
-      mensagem.setId(id);
-      when(mensagemRepository.findById(id))
+      when(mensagemRepository.marcarExclusao(eq(id), any(LocalDateTime.class)))
+          .thenReturn(true);
+
+      var resultado = mensagemService.apagarMensagem(id);
+
+      assertThat(resultado).isTrue();
+      verify(mensagemRepository, never()).findById(any(UUID.class));
+      verify(mensagemRepository, never()).delete(any(Mensagem.class));
+      verify(rankingGostei, times(1)).remover(id);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_APAGADA, id,
+          Map.of("id", id));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoApagarMensagem_IdNaoExistente() {
+      var id = UUID.randomUUID();
+      when(mensagemRepository.marcarExclusao(eq(id), any(LocalDateTime.class)))
+          .thenReturn(false);
+
+      assertThatThrownBy(() -> mensagemService.apagarMensagem(id))
+          .isInstanceOf(MensagemNotFoundException.class)
+          .hasMessage("mensagem não encontrada");
+      verify(rankingGostei, never()).remover(any(UUID.class));
+      verify(registroOutbox, never()).registrar(any(), any(), any());
+    }
+
+    @Test
+    void devePermitirApagarMensagem_QuandoMovidaParaShardDuranteRedistribuicao() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      var id = mensagem.getId();
+      when(shardMensagemRepository.apagar(id))
+          .thenReturn(Optional.empty())
           .thenReturn(Optional.of(mensagem));
-      doNothing()
-          .when(mensagemRepository).deleteById(id);
+      when(mensagemRepository.marcarExclusao(eq(id), any(LocalDateTime.class)))
+          .thenReturn(false);
 
       var resultado = mensagemService.apagarMensagem(id);
 
       assertThat(resultado).isTrue();
-      verify(mensagemRepository, times(1)).findById(any(UUID.class));
-      verify(mensagemRepository, times(1)).delete(any(Mensagem.class));
+      verify(shardMensagemRepository, times(2)).apagar(id);
+      verify(particaoMensagemRepository, times(1)).apagar(id);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_APAGADA, id,
+          Map.of("id", id));
+    }
+
+    @Test
+    void devePermitirApagarMensagem_QuandoMensagemEmParticao() {
+      var id = UUID.randomUUID();
+      when(mensagemRepository.marcarExclusao(eq(id), any(LocalDateTime.class)))
+          .thenReturn(false);
+      when(particaoMensagemRepository.apagar(id))
+          .thenReturn(true);
+
+      var resultado = mensagemService.apagarMensagem(id);
+
+      assertThat(resultado).isTrue();
+      verify(rankingGostei, times(1)).remover(id);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.MENSAGEM_APAGADA, id,
+          Map.of("id", id));
     }
 
   }
@@ -192,16 +526,99 @@ class MensagemServiceTest {
 
       when(mensagemRepository.findById(any(UUID.class)))
           .thenReturn(Optional.of(mensagem));
+      when(mensagemRepository.incrementarGostei(Map.of(mensagem.getId(), 1)))
+          .thenReturn(Map.of(mensagem.getId(), 1));
 
-      when(mensagemRepository.save(any(Mensagem.class)))
-          .thenAnswer(invocation -> invocation.getArgument(0));
+      var mensagemRecebida = mensagemService.incrementarGostei(mensagem.getId());
+
+      verify(mensagemRepository, never()).save(any(Mensagem.class));
+      assertThat(mensagemRecebida.getGostei()).isEqualTo(1);
+      assertThat(mensagem.getGostei()).isZero();
+      verify(rankingGostei, times(1)).registrarGostei(mensagem.getId(), 1, 1);
+      verify(registroOutbox, times(1)).registrar(TipoEvento.GOSTEI, mensagem.getId(),
+          Map.of("id", mensagem.getId(), "incremento", 1, "gostei", 1));
+    }
+
+    @Test
+    void devePermitirIncrementarGostei_QuandoMensagemEmParticao() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.empty());
+      when(particaoMensagemRepository.buscar(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+      when(particaoMensagemRepository.existemParticoes())
+          .thenReturn(true);
+      when(particaoMensagemRepository.incrementarGostei(Map.of(mensagem.getId(), 1)))
+          .thenReturn(Map.of(mensagem.getId(), 1));
 
       var mensagemRecebida = mensagemService.incrementarGostei(mensagem.getId());
 
-      verify(mensagemRepository, times(1)).save(mensagemRecebida);
       assertThat(mensagemRecebida.getGostei()).isEqualTo(1);
+      verify(mensagemRepository, never()).save(any(Mensagem.class));
+      verify(rankingGostei, times(1)).registrarGostei(mensagem.getId(), 1, 1);
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoIncrementarGostei_MensagemApagadaDepoisDeLida() {
+      var mensagem = MensagemHelper.gerarMensagemCompleta();
+      when(mensagemRepository.findById(mensagem.getId()))
+          .thenReturn(Optional.of(mensagem));
+
+      assertThatThrownBy(() -> mensagemService.incrementarGostei(mensagem.getId()))
+          .isInstanceOf(MensagemNotFoundException.class)
+          .hasMessage("mensagem não encontrada");
+      verify(rankingGostei, never()).registrarGostei(any(UUID.class), anyInt(), anyLong());
+      verify(registroOutbox, never()).registrar(any(), any(), any());
+    }
+
+  }
+
+  @Nested
+  class ListarTop {
+
+    @Test
+    void devePermitirListarTop_CompletandoComSeguintes_QuandoMensagemRemovida() {
+      var mensagem1 = MensagemHelper.gerarMensagemCompleta();
+      var mensagem2 = MensagemHelper.gerarMensagemCompleta();
+      var mensagem3 = MensagemHelper.gerarMensagemCompleta();
+      var idRemovido = UUID.randomUUID();
+      var primeiras = List.of(
+          new PosicaoRanking(mensagem1.getId(), 30),
+          new PosicaoRanking(idRemovido, 20),
+          new PosicaoRanking(mensagem2.getId(), 10));
+      when(rankingGostei.top(3)).thenReturn(primeiras);
+      var seguintes = new ArrayList<>(primeiras);
+      seguintes.add(new PosicaoRanking(mensagem3.getId(), 5));
+      when(rankingGostei.top(6)).thenReturn(seguintes);
+      when(mensagemRepository.buscarMensagens(
+          List.of(mensagem1.getId(), idRemovido, mensagem2.getId())))
+          .thenReturn(Arrays.asList(mensagem1, null, mensagem2));
+      when(mensagemRepository.buscarMensagens(List.of(mensagem3.getId())))
+          .thenReturn(List.of(mensagem3));
+
+      var ranking = mensagemService.listarTop(3, null);
+
+      assertThat(ranking)
+          .extracting(RankingResponse::posicao, RankingResponse::gostei,
+              posicao -> posicao.mensagem().id())
+          .containsExactly(
+              tuple(1, 30L, mensagem1.getId()),
+              tuple(2, 10L, mensagem2.getId()),
+              tuple(3, 5L, mensagem3.getId()));
     }
 
+    @Test
+    void devePermitirListarTop_QuandoInformadaJanela() {
+      var janela = Duration.ofHours(1);
+      when(rankingGostei.top(5, janela)).thenReturn(List.of());
+      when(mensagemRepository.buscarMensagens(anyList())).thenReturn(List.of());
+
+      var ranking = mensagemService.listarTop(5, janela);
+
+      assertThat(ranking).isEmpty();
+      verify(rankingGostei, times(1)).top(5, janela);
+      verify(rankingGostei, never()).top(anyInt());
+    }
   }
 
   @Nested
@@ -209,37 +626,111 @@ class MensagemServiceTest {
 
     @Test
     void devePermitirListarMensagens() {
-      Page<Mensagem> page = new PageImpl<>(Arrays.asList(
-          MensagemHelper.gerarMensagem(),
-          MensagemHelper.gerarMensagem()
+      Page<MensagemResponse> page = new PageImpl<>(Arrays.asList(
+          MensagemHelper.gerarMensagemResponse(),
+          MensagemHelper.gerarMensagemResponse()
       ));
 
       when(mensagemRepository.listarMensagens(any(Pageable.class)))
           .thenReturn(page);
 
-      Page<Mensagem> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
+      Page<MensagemResponse> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
 
       assertThat(mensagens).hasSize(2);
       assertThat(mensagens.getContent())
           .asList()
           .allSatisfy(mensagem -> {
             assertThat(mensagem).isNotNull();
-            assertThat(mensagem).isInstanceOf(Mensagem.class);
+            assertThat(mensagem).isInstanceOf(MensagemResponse.class);
           });
       verify(mensagemRepository, times(1)).listarMensagens(any(Pageable.class));
     }
 
     @Test
     void devePermitirListarMensagens_QuandoNaoExisteRegistro() {
-      Page<Mensagem> page = new PageImpl<>(Collections.emptyList());
+      Page<MensagemResponse> page = new PageImpl<>(Collections.emptyList());
 
       when(mensagemRepository.listarMensagens(any(Pageable.class)))
           .thenReturn(page);
 
-      Page<Mensagem> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
+      Page<MensagemResponse> mensagens = mensagemService.listarMensagens(Pageable.unpaged());
 
       assertThat(mensagens).isEmpty();
       verify(mensagemRepository, times(1)).listarMensagens(any(Pageable.class));
     }
+
+    @Test
+    void devePermitirListarMensagens_CompletandoPaginaComParticoes() {
+      var pageable = PageRequest.of(1, 3);
+      var corrente = MensagemHelper.gerarMensagemResponse();
+      var arquivadas = List.of(MensagemHelper.gerarMensagemResponse(),
+          MensagemHelper.gerarMensagemResponse());
+      when(mensagemRepository.listarMensagens(pageable))
+          .thenReturn(new PageImpl<>(List.of(corrente), pageable, 4));
+      when(particaoMensagemRepository.existemParticoes()).thenReturn(true);
+      when(particaoMensagemRepository.listar(0L, 2)).thenReturn(arquivadas);
+      when(particaoMensagemRepository.contar()).thenReturn(10L);
+
+      var mensagens = mensagemService.listarMensagens(pageable);
+
+      assertThat(mensagens.getContent())
+          .containsExactly(corrente, arquivadas.get(0), arquivadas.get(1));
+      assertThat(mensagens.getTotalElements()).isEqualTo(14);
+    }
+
+    @Test
+    void devePermitirListarMensagens_IntercalandoShards_SemCacheDeConsultas() {
+      var agora = LocalDateTime.now();
+      var principal = List.of(gerarResposta(agora.minusMinutes(1)),
+          gerarResposta(agora.minusMinutes(4)));
+      var shards = List.of(gerarResposta(agora.minusMinutes(2)),
+          gerarResposta(agora.minusMinutes(3)));
+      when(shardMensagemRepository.habilitado()).thenReturn(true);
+      when(mensagemRepository.listarMensagens(PageRequest.of(0, 4)))
+          .thenReturn(new PageImpl<>(principal, PageRequest.of(0, 4), 2));
+      when(shardMensagemRepository.listar(null, 4)).thenReturn(shards);
+      when(shardMensagemRepository.contar()).thenReturn(2L);
+
+      var mensagens = mensagemService.listarMensagens(PageRequest.of(1, 2));
+
+      assertThat(mensagens.getContent()).containsExactly(shards.get(1), principal.get(1));
+      assertThat(mensagens.getTotalElements()).isEqualTo(4);
+      verify(mensagemRepository, never()).listarMensagensEmCache(any(Pageable.class));
+    }
+
+    @Test
+    void deveGerarExcecao_QuandoListarMensagens_AlemDaProfundidadeMaxima() {
+      when(shardMensagemRepository.habilitado()).thenReturn(true);
+
+      assertThatThrownBy(() -> mensagemService.listarMensagens(PageRequest.of(5, 2)))
+          .isInstanceOf(PaginaProfundaException.class)
+          .hasMessageContaining("?cursor=");
+      assertThatThrownBy(() -> mensagemService.listarMensagens(
+          PageRequest.of(Integer.MAX_VALUE - 1, 1000)))
+          .isInstanceOf(PaginaProfundaException.class);
+      verify(mensagemRepository, never()).listarMensagens(any(Pageable.class));
+      verify(shardMensagemRepository, never()).listar(any(), anyInt());
+    }
+
+    @Test
+    void devePermitirListarMensagensPorCursor_IntercalandoShards() {
+      var agora = LocalDateTime.now();
+      var principal = List.of(gerarResposta(agora.minusMinutes(1)),
+          gerarResposta(agora.minusMinutes(4)));
+      var shards = List.of(gerarResposta(agora.minusMinutes(2)),
+          gerarResposta(agora.minusMinutes(3)));
+      when(particaoMensagemRepository.listar(null, 3)).thenReturn(principal);
+      when(shardMensagemRepository.habilitado()).thenReturn(true);
+      when(shardMensagemRepository.listar(null, 3)).thenReturn(shards);
+
+      var mensagens = mensagemService.listarMensagens((CursorListagem) null, 3);
+
+      assertThat(mensagens).containsExactly(principal.get(0), shards.get(0), shards.get(1));
+    }
+
+    private MensagemResponse gerarResposta(LocalDateTime dataCriacao) {
+      return new MensagemResponse(UUID.randomUUID(), "joe", "mensagem", dataCriacao, dataCriacao,
+          0);
+    }
   }
 }
@@ -0,0 +1,118 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.example.exception.MensagemNotFoundException;
+import org.example.repository.ShardMensagemRepository;
+import org.example.sharding.AnelConsistente;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.jdbc.Sql;
+
+// contexto próprio, pois o shard incluído aqui não deve aparecer nos demais testes; intervalo
+// longo para que a redistribuição agendada não concorra com a chamada explícita
+@SpringBootTest(properties = {
+    "sharding.habilitado=true",
+    "sharding.intervalo-rebalanceamento=1h",
+    "sharding.shards[0].nome=shard-1",
+    "sharding.shards[0].url=jdbc:h2:mem:rebalanceamento-concorrencia-it-1;DB_CLOSE_DELAY=-1",
+    "sharding.shards[0].usuario=sa"})
+@AutoConfigureTestDatabase
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class RebalanceamentoShardsConcorrenciaIT {
+
+  private static final String NOVO = "shard-2";
+
+  @Autowired
+  private ShardMensagemRepository shardMensagemRepository;
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void naoDevePerderGosteiNemReviverExclusao_QuandoLoteEmAndamento() throws Exception {
+    // mensagens do principal, o primeiro nó percorrido, que passarão ao shard novo
+    var anelNovo = new AnelConsistente(
+        List.of(ShardMensagemRepository.PRINCIPAL, "shard-1", NOVO), 160);
+    var movidas = new ArrayList<UUID>();
+    while (movidas.size() < 2) {
+      var id = mensagemService.criarMensagem(MensagemHelper.gerarMensagem()).getId();
+      if (ShardMensagemRepository.PRINCIPAL.equals(shardMensagemRepository.no(id))
+          && NOVO.equals(anelNovo.no(id))) {
+        movidas.add(id);
+      }
+    }
+    var curtida = movidas.get(0);
+    var apagada = movidas.get(1);
+    // segura a redistribuição entre o bloqueio do lote na origem e a cópia para o destino
+    var rebalanceador = new AtomicReference<Thread>();
+    var chegou = new CountDownLatch(1);
+    var liberar = new CountDownLatch(1);
+    var destino = new DelegatingDataSource(new DriverManagerDataSource(
+        "jdbc:h2:mem:rebalanceamento-concorrencia-it-2;DB_CLOSE_DELAY=-1", "sa", "")) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        if (Thread.currentThread() == rebalanceador.get() && chegou.getCount() > 0) {
+          chegou.countDown();
+          try {
+            liberar.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return super.getConnection();
+      }
+    };
+    shardMensagemRepository.adicionar(NOVO, destino);
+    var executor = Executors.newFixedThreadPool(3);
+
+    try {
+      var rebalanceamento = executor.submit(() -> {
+        rebalanceador.set(Thread.currentThread());
+        return shardMensagemRepository.rebalancear(1000);
+      });
+      assertThat(chegou.await(10, TimeUnit.SECONDS)).isTrue();
+      var gostei = executor.submit(() -> mensagemService.incrementarGostei(curtida).getGostei());
+      var exclusao = executor.submit(() -> mensagemService.apagarMensagem(apagada));
+      TimeUnit.MILLISECONDS.sleep(200);
+      liberar.countDown();
+
+      assertThat(gostei.get(10, TimeUnit.SECONDS)).isOne();
+      assertThat(exclusao.get(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(rebalanceamento.get(10, TimeUnit.SECONDS)).isGreaterThanOrEqualTo(2);
+    } finally {
+      liberar.countDown();
+      executor.shutdownNow();
+    }
+    assertThat(shardMensagemRepository.emRebalanceamento()).isFalse();
+    assertThat(mensagemService.buscarMensagem(curtida).getGostei()).isOne();
+    assertThatThrownBy(() -> mensagemService.buscarMensagem(apagada))
+        .isInstanceOf(MensagemNotFoundException.class);
+    var novo = new JdbcTemplate(destino);
+    assertThat(novo.queryForObject("SELECT gostei FROM mensagem WHERE id = ?", Integer.class,
+        curtida)).isOne();
+    assertThat(novo.queryForObject("SELECT COUNT(*) FROM mensagem WHERE id = ?", Long.class,
+        apagada)).isZero();
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mensagem WHERE id IN (?, ?)",
+        Long.class, curtida, apagada)).isZero();
+  }
+}
@@ -0,0 +1,123 @@
+package org.example.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.example.config.ConexoesShards;
+import org.example.config.ShardingProperties;
+import org.example.config.ShardingProperties.Shard;
+import org.example.repository.ShardMensagemRepository;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.jdbc.Sql;
+
+// contexto próprio, pois o shard incluído aqui não deve aparecer nos demais testes; intervalo
+// longo para que a redistribuição agendada não concorra com as chamadas explícitas
+@SpringBootTest(properties = {
+    "sharding.habilitado=true",
+    "sharding.intervalo-rebalanceamento=1h",
+    "sharding.tamanho-lote=7",
+    "sharding.shards[0].nome=shard-1",
+    "sharding.shards[0].url=" + RebalanceamentoShardsIT.URL_SHARD_1,
+    "sharding.shards[0].usuario=sa"})
+@AutoConfigureTestDatabase
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class RebalanceamentoShardsIT {
+
+  static final String URL_SHARD_1 = "jdbc:h2:mem:rebalanceamento-it-1;DB_CLOSE_DELAY=-1";
+
+  private static final String URL_SHARD_2 = "jdbc:h2:mem:rebalanceamento-it-2;DB_CLOSE_DELAY=-1";
+
+  private static final Shard SHARD_1 = new Shard("shard-1", URL_SHARD_1, "sa", "", false);
+
+  @Autowired
+  private RebalanceamentoShards rebalanceamentoShards;
+
+  @Autowired
+  private ShardMensagemRepository shardMensagemRepository;
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void deveRedistribuirMensagens_QuandoShardAdicionadoComSistemaNoAr() throws Exception {
+    var ids = new ArrayList<UUID>();
+    for (int i = 0; i < 40; i++) {
+      ids.add(mensagemService.criarMensagem(MensagemHelper.gerarMensagem()).getId());
+    }
+    var novo = new JdbcTemplate(new DriverManagerDataSource(URL_SHARD_2, "sa", ""));
+
+    shardMensagemRepository.adicionar("shard-2", novo.getDataSource());
+    List<UUID> movidas = ids.stream()
+        .filter(id -> shardMensagemRepository.no(id).equals("shard-2"))
+        .toList();
+    assertThat(movidas).isNotEmpty();
+    assertThat(shardMensagemRepository.emRebalanceamento()).isTrue();
+    // antes da redistribuição as mensagens continuam nos donos anteriores
+    assertThat(mensagemService.buscarMensagens(ids).mensagens()).hasSize(40);
+    assertThat(mensagemService.listarMensagens(PageRequest.of(0, 50)).getTotalElements())
+        .isEqualTo(40);
+    mensagemService.incrementarGostei(movidas.get(0));
+    // um restart no meio da inclusão retoma a redistribuição, ainda que o YAML não a indique
+    reiniciar(List.of(SHARD_1, new Shard("shard-2", URL_SHARD_2, "sa", "", false)),
+        reiniciado -> assertThat(reiniciado.emRebalanceamento()).isTrue());
+
+    var quantidade = rebalanceamentoShards.rebalancear();
+
+    assertThat(quantidade).isEqualTo(movidas.size());
+    assertThat(shardMensagemRepository.emRebalanceamento()).isFalse();
+    assertThat(novo.queryForObject("SELECT COUNT(*) FROM mensagem", Long.class))
+        .isEqualTo(movidas.size());
+    assertThat(mensagemService.buscarMensagens(ids).mensagens()).hasSize(40);
+    assertThat(mensagemService.buscarMensagem(movidas.get(0)).getGostei()).isOne();
+    assertThat(mensagemService.listarMensagens(PageRequest.of(0, 50)).getTotalElements())
+        .isEqualTo(40);
+    assertThat(rebalanceamentoShards.rebalancear()).isZero();
+
+    // incluído com o sistema no ar e depois acrescentado ao YAML: continua no anel
+    reiniciar(List.of(SHARD_1, new Shard("shard-2", URL_SHARD_2, "sa", "", false)),
+        reiniciado -> {
+          assertThat(reiniciado.emRebalanceamento()).isFalse();
+          assertThat(movidas).allSatisfy(id -> assertThat(reiniciado.no(id)).isEqualTo("shard-2"));
+          assertThat(reiniciado.buscar(movidas)).containsOnlyKeys(movidas);
+        });
+    // fora do YAML, as mensagens do shard ficariam inacessíveis: a subida é recusada
+    assertThatThrownBy(() -> reiniciar(List.of(SHARD_1), reiniciado -> { }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("shard-2");
+  }
+
+  /** Monta o repositório como numa nova subida, sobre os mesmos bancos. */
+  private void reiniciar(List<Shard> shards, Consumer<ShardMensagemRepository> verificacao)
+      throws Exception {
+    var properties = new ShardingProperties(true, 160, 7, Duration.ofHours(1),
+        Duration.ofMinutes(5), 1000, shards);
+    var conexoes = new ConexoesShards(properties, new SimpleMeterRegistry());
+    try {
+      verificacao.accept(
+          new ShardMensagemRepository(properties, conexoes, jdbcTemplate, entityManagerFactory));
+    } finally {
+      conexoes.destroy();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.example.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class AnelConsistenteTest {
+
+  private static final int IDS = 30_000;
+
+  private final List<UUID> ids = Stream.generate(UUID::randomUUID).limit(IDS).toList();
+
+  @Test
+  void deveDistribuirIds_DeFormaEquilibradaEntreOsNos() {
+    var anel = new AnelConsistente(List.of("principal", "shard-1", "shard-2"), 160);
+
+    var porNo = new HashMap<String, Integer>();
+    ids.forEach(id -> porNo.merge(anel.no(id), 1, Integer::sum));
+
+    assertThat(porNo).containsOnlyKeys("principal", "shard-1", "shard-2");
+    assertThat(porNo.values()).allSatisfy(quantidade ->
+        assertThat(quantidade).isBetween(IDS / 4, IDS * 5 / 12));
+  }
+
+  @Test
+  void deveMoverApenasIdsDoNovoNo_QuandoNoAdicionado() {
+    var anterior = new AnelConsistente(List.of("principal", "shard-1", "shard-2"), 160);
+    var atual = anterior.com("shard-3");
+
+    var movidos = ids.stream().filter(id -> !anterior.no(id).equals(atual.no(id))).toList();
+
+    assertThat(movidos).allSatisfy(id -> assertThat(atual.no(id)).isEqualTo("shard-3"));
+    assertThat(movidos.size()).isBetween(IDS / 6, IDS / 3);
+    assertThat(atual.nos()).containsExactly("principal", "shard-1", "shard-2", "shard-3");
+  }
+
+  @Test
+  void deveEscolherOMesmoNo_EmAneisComOsMesmosNos() {
+    var anel = new AnelConsistente(List.of("principal", "shard-1"), 64);
+    var outro = new AnelConsistente(List.of("principal", "shard-1"), 64);
+
+    assertThat(ids).allSatisfy(id -> assertThat(outro.no(id)).isEqualTo(anel.no(id)));
+  }
+
+  @Test
+  void deveGerarExcecao_QuandoNoJaFazParteDoAnel() {
+    var anel = new AnelConsistente(List.of("principal", "shard-1"), 16);
+
+    assertThatThrownBy(() -> anel.com("shard-1"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("nó já faz parte do anel: shard-1");
+  }
+}
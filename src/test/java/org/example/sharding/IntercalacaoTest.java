@@ -0,0 +1,36 @@
+package org.example.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IntercalacaoTest {
+
+  private static final Comparator<Integer> DECRESCENTE = Comparator.reverseOrder();
+
+  @Test
+  void deveIntercalarListasOrdenadas_AteOLimite() {
+    var listas = List.of(List.of(9, 6, 1), List.of(8, 7, 2), List.of(5, 4, 3));
+
+    assertThat(Intercalacao.intercalar(listas, DECRESCENTE, 5)).containsExactly(9, 8, 7, 6, 5);
+    assertThat(Intercalacao.intercalar(listas, DECRESCENTE, 20))
+        .containsExactly(9, 8, 7, 6, 5, 4, 3, 2, 1);
+  }
+
+  @Test
+  void deveManterUmaOcorrencia_QuandoElementoEstaEmMaisDeUmaLista() {
+    var listas = List.of(List.of(9, 5, 2), List.of(5, 3), List.of(9));
+
+    assertThat(Intercalacao.intercalar(listas, DECRESCENTE, 10)).containsExactly(9, 5, 3, 2);
+  }
+
+  @Test
+  void deveIgnorarListasVazias() {
+    var listas = List.of(List.<Integer>of(), List.of(3, 1), List.<Integer>of());
+
+    assertThat(Intercalacao.intercalar(listas, DECRESCENTE, 10)).containsExactly(3, 1);
+    assertThat(Intercalacao.intercalar(List.<List<Integer>>of(), DECRESCENTE, 10)).isEmpty();
+  }
+}
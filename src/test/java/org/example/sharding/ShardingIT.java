@@ -0,0 +1,253 @@
+package org.example.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.dto.CursorListagem;
+import org.example.dto.MensagemResponse;
+import org.example.exception.MensagemNotFoundException;
+import org.example.exception.PaginaProfundaException;
+import org.example.model.Mensagem;
+import org.example.repository.MensagemRepository;
+import org.example.repository.ShardMensagemRepository;
+import org.example.service.MensagemService;
+import org.example.utils.MensagemHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// intervalo longo para que a redistribuição agendada não concorra com as chamadas explícitas
+@SpringBootTest(properties = {
+    "sharding.habilitado=true",
+    "sharding.intervalo-rebalanceamento=1h",
+    "sharding.shards[0].nome=shard-1",
+    "sharding.shards[0].url=" + ShardingIT.URL_SHARD_1,
+    "sharding.shards[0].usuario=sa",
+    "sharding.shards[1].nome=shard-2",
+    "sharding.shards[1].url=" + ShardingIT.URL_SHARD_2,
+    "sharding.shards[1].usuario=sa"})
+@AutoConfigureTestDatabase
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ShardingIT {
+
+  static final String URL_SHARD_1 = "jdbc:h2:mem:sharding-it-1;DB_CLOSE_DELAY=-1";
+
+  static final String URL_SHARD_2 = "jdbc:h2:mem:sharding-it-2;DB_CLOSE_DELAY=-1";
+
+  @Autowired
+  private MensagemService mensagemService;
+
+  @Autowired
+  private MensagemRepository mensagemRepository;
+
+  @Autowired
+  private ShardMensagemRepository shardMensagemRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private HealthEndpoint healthEndpoint;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final Map<String, JdbcTemplate> shards = Map.of(
+      "shard-1", conectar(URL_SHARD_1),
+      "shard-2", conectar(URL_SHARD_2));
+
+  @BeforeEach
+  void setUp() {
+    shards.values().forEach(shard -> shard.update("DELETE FROM mensagem"));
+    shardMensagemRepository.recontar();
+  }
+
+  @Test
+  void deveGravarCadaMensagem_NoDonoDoId() {
+    var ids = criar(30);
+
+    for (var id : ids) {
+      var dono = shardMensagemRepository.no(id);
+      if (ShardMensagemRepository.PRINCIPAL.equals(dono)) {
+        assertThat(mensagemRepository.existsById(id)).isTrue();
+      } else {
+        assertThat(contar(shards.get(dono), id)).isOne();
+      }
+    }
+    assertThat(mensagemRepository.count()).isPositive();
+    assertThat(shards.values()).allSatisfy(shard -> assertThat(contar(shard)).isPositive());
+    assertThat(mensagemRepository.count() + shards.values().stream().mapToLong(this::contar).sum())
+        .isEqualTo(30);
+  }
+
+  @Test
+  void deveAcompanharTotalDosShards_SemContarACadaListagem() {
+    var ids = criar(10);
+    var primeira = PageRequest.of(0, 5);
+    assertThat(mensagemService.listarMensagens(primeira).getTotalElements()).isEqualTo(10);
+    // gravada por fora: só aparece no total depois da recontagem
+    var externa = MensagemHelper.gerarMensagemCompleta();
+    shards.get("shard-1").update("INSERT INTO mensagem (id, usuario, conteudo, data_criacao, "
+            + "data_alteracao, gostei, versao) VALUES (?, ?, ?, ?, ?, 0, 1)", externa.getId(),
+        externa.getUsuario(), externa.getConteudo(), externa.getDataCriacao(),
+        externa.getDataAlteracao());
+
+    // uma inclusão e uma exclusão em shard, acompanhadas sem consultar os shards
+    var criadas = 0;
+    UUID emShard;
+    do {
+      emShard = criar(1).get(0);
+      criadas++;
+    } while (ShardMensagemRepository.PRINCIPAL.equals(shardMensagemRepository.no(emShard)));
+    var apagada = ids.stream()
+        .filter(id -> !ShardMensagemRepository.PRINCIPAL.equals(shardMensagemRepository.no(id)))
+        .findFirst().orElseThrow();
+    mensagemService.apagarMensagem(apagada);
+    assertThat(mensagemService.listarMensagens(primeira).getTotalElements())
+        .isEqualTo(9 + criadas);
+
+    shardMensagemRepository.recontar();
+    assertThat(mensagemService.listarMensagens(primeira).getTotalElements())
+        .isEqualTo(10 + criadas);
+  }
+
+  @Test
+  void devePermitirAlterarGosteiEApagar_QuandoMensagemEmShard() {
+    var ids = criar(12);
+    var id = ids.stream()
+        .filter(candidato -> !ShardMensagemRepository.PRINCIPAL.equals(
+            shardMensagemRepository.no(candidato)))
+        .findFirst().orElseThrow();
+
+    var alteracao = Mensagem.builder().id(id).usuario("joe").conteudo("editada").build();
+    mensagemService.alterarMensagem(id, alteracao);
+    mensagemService.incrementarGostei(id);
+    var outras = ids.stream().filter(outra -> !outra.equals(id)).toList();
+    var lote = mensagemService.incrementarGostei(Map.of(id, 2, outras.get(0), 1, outras.get(1), 1));
+
+    assertThat(lote.naoEncontrados()).isEmpty();
+    assertThat(lote.gostei()).containsEntry(id, 3);
+    var mensagem = mensagemService.buscarMensagem(id);
+    assertThat(mensagem.getConteudo()).isEqualTo("editada");
+    assertThat(mensagem.getGostei()).isEqualTo(3);
+    assertThat(mensagemService.listarHistorico(id)).hasSize(2);
+    assertThat(mensagemService.buscarMensagens(ids).mensagens()).hasSize(12);
+
+    mensagemService.apagarMensagem(id);
+    assertThatThrownBy(() -> mensagemService.buscarMensagem(id))
+        .isInstanceOf(MensagemNotFoundException.class);
+  }
+
+  @Test
+  void deveDesfazerAlteracaoGosteiEExclusao_QuandoTransacaoDesfeita() {
+    var id = criarEmShard();
+    var transacao = new TransactionTemplate(transactionManager);
+
+    transacao.executeWithoutResult(status -> {
+      var alteracao = Mensagem.builder().id(id).usuario("joe").conteudo("editada").build();
+      mensagemService.alterarMensagem(id, alteracao);
+      mensagemService.incrementarGostei(Map.of(id, 3));
+      status.setRollbackOnly();
+    });
+    transacao.executeWithoutResult(status -> {
+      mensagemService.apagarMensagem(id);
+      status.setRollbackOnly();
+    });
+
+    var mensagem = mensagemService.buscarMensagem(id);
+    assertThat(mensagem.getConteudo()).isNotEqualTo("editada");
+    assertThat(mensagem.getVersao()).isOne();
+    assertThat(mensagem.getGostei()).isZero();
+    assertThat(mensagemService.listarHistorico(id)).hasSize(1);
+  }
+
+  @Test
+  void deveExporSaudeEMetricas_DeCadaShard() {
+    var saude = healthEndpoint.healthForPath("shards");
+
+    assertThat(saude).isNotNull();
+    assertThat(saude.getStatus()).isEqualTo(Status.UP);
+    assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "shard-1").gauge())
+        .isNotNull();
+    assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "shard-2").gauge())
+        .isNotNull();
+  }
+
+  @Test
+  void deveRecusarPaginaProfunda_IndicandoCursor() {
+    assertThatThrownBy(() -> mensagemService.listarMensagens(PageRequest.of(100, 20)))
+        .isInstanceOf(PaginaProfundaException.class)
+        .hasMessageContaining("?cursor=");
+  }
+
+  @Test
+  void devePermitirListarMensagens_IntercalandoOsNos() {
+    criar(12);
+    var esperadas = new ArrayList<>(
+        mensagemRepository.listarMensagens(PageRequest.of(0, 20)).getContent());
+    esperadas.addAll(shardMensagemRepository.listar(null, 20));
+    esperadas.sort(CursorListagem.ORDEM);
+
+    var porOffset = new ArrayList<MensagemResponse>();
+    for (int pagina = 0; pagina < 3; pagina++) {
+      var resultado = mensagemService.listarMensagens(PageRequest.of(pagina, 5));
+      assertThat(resultado.getTotalElements()).isEqualTo(12);
+      porOffset.addAll(resultado.getContent());
+    }
+    var porCursor = new ArrayList<MensagemResponse>();
+    CursorListagem cursor = null;
+    List<MensagemResponse> pagina;
+    do {
+      pagina = mensagemService.listarMensagens(cursor, 4);
+      porCursor.addAll(pagina);
+      cursor = pagina.isEmpty() ? null : CursorListagem.de(pagina.get(pagina.size() - 1));
+    } while (pagina.size() == 4);
+
+    assertThat(esperadas).hasSize(12)
+        .isSortedAccordingTo(Comparator.comparing(MensagemResponse::dataCriacao).reversed());
+    assertThat(porOffset).containsExactlyElementsOf(esperadas);
+    assertThat(porCursor).containsExactlyElementsOf(esperadas);
+  }
+
+  private List<UUID> criar(int quantidade) {
+    var ids = new ArrayList<UUID>(quantidade);
+    for (int i = 0; i < quantidade; i++) {
+      ids.add(mensagemService.criarMensagem(MensagemHelper.gerarMensagem()).getId());
+    }
+    return ids;
+  }
+
+  private UUID criarEmShard() {
+    return criar(12).stream()
+        .filter(id -> !ShardMensagemRepository.PRINCIPAL.equals(shardMensagemRepository.no(id)))
+        .findFirst().orElseThrow();
+  }
+
+  private long contar(JdbcTemplate shard) {
+    return shard.queryForObject("SELECT COUNT(*) FROM mensagem", Long.class);
+  }
+
+  private long contar(JdbcTemplate shard, UUID id) {
+    return shard.queryForObject("SELECT COUNT(*) FROM mensagem WHERE id = ?", Long.class, id);
+  }
+
+  private static JdbcTemplate conectar(String url) {
+    return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+  }
+}
@@ -0,0 +1,155 @@
+package org.example.utils;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Popula a tabela {@code mensagem} com volume de produção direto no H2, sem passar pela API nem
+ * pelo Hibernate: cada lote é um único {@code INSERT ... SELECT} sobre {@code SYSTEM_RANGE}, e os
+ * lotes são divididos entre {@code threads} conexões.
+ * <p>
+ * A distribuição imita o uso real: poucos usuários concentram a maior parte das mensagens
+ * ({@code usuario-0} é o mais ativo; 1% dos usuários escreve cerca de 20% das mensagens), quase
+ * todas têm poucos gostei e uma minoria chega perto de {@code gosteiMaximo}. As datas de criação
+ * se espalham pelo {@code periodo} anterior a {@code referencia}, da mais nova (sequência 1) para
+ * a mais antiga. Com a mesma {@code semente} e o mesmo {@code lote} os dados se repetem, exceto
+ * os ids, qualquer que seja o número de threads.
+ * <p>
+ * Dados inseridos assim não passam pelo {@code RankingGostei}; quem precisa do ranking chama
+ * {@code reconstruir()} depois.
+ */
+@Slf4j
+@Builder
+public final class GeradorMensagens {
+
+    private static final String INSERIR = """
+            INSERT INTO mensagem (id, usuario, conteudo, data_criacao, data_alteracao, gostei, versao)
+            SELECT RANDOM_UUID(), usuario, conteudo, criacao, criacao, gostei, 1 FROM (
+                SELECT 'usuario-' || CAST(FLOOR(? * POWER(RAND(), 3)) AS INT) AS usuario,
+                       'mensagem ' || X || ' ' || REPEAT('lorem ipsum ', CAST(MOD(X, 16) AS INT))
+                           AS conteudo,
+                       DATEADD(MILLISECOND, -X * CAST(? AS BIGINT), CAST(? AS TIMESTAMP)) AS criacao,
+                       CAST(FLOOR(? * POWER(RAND(), 8)) AS INT) AS gostei
+                FROM SYSTEM_RANGE(?, ?))
+            """;
+
+    private final DataSource dataSource;
+
+    /** Usuários distintos. */
+    @Builder.Default
+    private final int usuarios = 1_000;
+
+    /** Maior quantidade de gostei; a mediana fica em {@code gosteiMaximo / 256}. */
+    @Builder.Default
+    private final int gosteiMaximo = 10_000;
+
+    /** Intervalo coberto pelas datas de criação, terminando em {@code referencia}. */
+    @Builder.Default
+    private final Duration periodo = Duration.ofDays(365);
+
+    @Builder.Default
+    private final LocalDateTime referencia = LocalDateTime.now();
+
+    /** Mensagens por {@code INSERT}, cada um na sua transação. */
+    @Builder.Default
+    private final int lote = 50_000;
+
+    @Builder.Default
+    private final int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    @Builder.Default
+    private final long semente = 42;
+
+    /** Insere {@code quantidade} mensagens e atualiza as estatísticas do otimizador. */
+    public Resultado gerar(long quantidade) {
+        var inicio = System.nanoTime();
+        var intervaloMs = Math.max(1, periodo.toMillis() / Math.max(1, quantidade));
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var lotes = new ArrayList<Future<?>>();
+            for (long primeira = 1; primeira <= quantidade; primeira += lote) {
+                var de = primeira;
+                var ate = Math.min(quantidade, primeira + lote - 1);
+                lotes.add(executor.submit(() -> {
+                    inserir(de, ate, intervaloMs);
+                    return null;
+                }));
+            }
+            aguardar(lotes);
+        } finally {
+            executor.shutdownNow();
+        }
+        analisar();
+        var resultado = new Resultado(quantidade, Duration.ofNanos(System.nanoTime() - inicio));
+        log.info("mensagens geradas: Quantidade={}, Threads={}, Tempo={}ms, Vazao={}/s", quantidade,
+                threads, resultado.tempo().toMillis(), Math.round(resultado.mensagensPorSegundo()));
+        return resultado;
+    }
+
+    private void inserir(long de, long ate, long intervaloMs) throws SQLException {
+        try (var conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            try {
+                // RAND(semente) reinicia o gerador da sessão: o lote sai igual em qualquer thread
+                try (var semear = conexao.prepareStatement("SELECT RAND(?)")) {
+                    semear.setLong(1, semente + de);
+                    semear.execute();
+                }
+                try (var insercao = conexao.prepareStatement(INSERIR)) {
+                    insercao.setInt(1, usuarios);
+                    insercao.setLong(2, intervaloMs);
+                    insercao.setObject(3, referencia);
+                    insercao.setInt(4, gosteiMaximo + 1);
+                    insercao.setLong(5, de);
+                    insercao.setLong(6, ate);
+                    insercao.executeUpdate();
+                }
+                conexao.commit();
+            } catch (SQLException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void analisar() {
+        try (var conexao = dataSource.getConnection();
+             var comando = conexao.createStatement()) {
+            comando.execute("ANALYZE TABLE mensagem");
+        } catch (SQLException e) {
+            throw new IllegalStateException("não foi possível analisar a tabela mensagem", e);
+        }
+    }
+
+    private static void aguardar(List<Future<?>> lotes) {
+        try {
+            for (var lote : lotes) {
+                lote.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("falha ao gerar mensagens", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Resultado(long mensagens, Duration tempo) {
+
+        public double mensagensPorSegundo() {
+            return mensagens * 1_000_000_000.0 / Math.max(1, tempo.toNanos());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.example.repository.MensagemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class GeradorMensagensIT {
+
+  private static final int QUANTIDADE = 20_000;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MensagemRepository mensagemRepository;
+
+  @Test
+  void deveGerarQuantidadeSolicitada_QuandoDivididaEmLotes() {
+    var resultado = gerador().lote(3_000).threads(2).build().gerar(QUANTIDADE);
+
+    assertThat(resultado.mensagens()).isEqualTo(QUANTIDADE);
+    assertThat(resultado.mensagensPorSegundo()).isPositive();
+    assertThat(mensagemRepository.count()).isEqualTo(QUANTIDADE);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(DISTINCT id) FROM mensagem", Long.class)).isEqualTo(QUANTIDADE);
+  }
+
+  @Test
+  void deveConcentrarMensagensEmPoucosUsuarios() {
+    gerador().usuarios(100).build().gerar(QUANTIDADE);
+
+    var maisAtivo = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM mensagem WHERE usuario = 'usuario-0'", Long.class);
+    var distintos = jdbcTemplate.queryForObject(
+        "SELECT COUNT(DISTINCT usuario) FROM mensagem", Long.class);
+
+    // uniforme seriam 200 por usuário
+    assertThat(maisAtivo).isGreaterThan(QUANTIDADE / 10);
+    assertThat(distintos).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  void deveConcentrarGosteiEmPoucasMensagens() {
+    gerador().gosteiMaximo(10_000).build().gerar(QUANTIDADE);
+
+    var poucos = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM mensagem WHERE gostei < 100", Long.class);
+    var maximo = jdbcTemplate.queryForObject("SELECT MAX(gostei) FROM mensagem", Integer.class);
+
+    // mediana em gosteiMaximo / 256
+    assertThat(poucos).isGreaterThan(QUANTIDADE / 2);
+    assertThat(maximo).isBetween(5_000, 10_000);
+  }
+
+  @Test
+  void deveGerarMesmosDados_QuandoMesmaSementeEmOutraQuantidadeDeThreads() {
+    gerador().threads(1).lote(1_000).build().gerar(QUANTIDADE);
+    var primeira = resumo();
+    jdbcTemplate.execute("DELETE FROM mensagem");
+
+    gerador().threads(2).lote(1_000).build().gerar(QUANTIDADE);
+
+    assertThat(resumo()).isEqualTo(primeira);
+  }
+
+  @Test
+  void devePermitirListarMensagens_QuandoVolumeGerado() {
+    gerador().build().gerar(QUANTIDADE);
+
+    var pagina = mensagemRepository.listarMensagens(PageRequest.of(0, 10));
+
+    assertThat(pagina.getContent()).hasSize(10);
+    assertThat(pagina.getTotalElements()).isEqualTo(QUANTIDADE);
+  }
+
+  private GeradorMensagens.GeradorMensagensBuilder gerador() {
+    return GeradorMensagens.builder()
+        .dataSource(dataSource)
+        .referencia(LocalDateTime.of(2023, 7, 1, 0, 0))
+        .periodo(Duration.ofDays(30));
+  }
+
+  private String resumo() {
+    return jdbcTemplate.queryForObject(
+        "SELECT SUM(gostei) || '/' || COUNT(DISTINCT usuario) || '/' || MIN(data_criacao) "
+            + "|| '/' || SUM(LENGTH(conteudo)) FROM mensagem", String.class);
+  }
+}
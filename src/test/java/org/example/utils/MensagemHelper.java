@@ -1,6 +1,7 @@
 package org.example.utils;
 
 import org.example.dto.MensagemRequest;
+import org.example.dto.MensagemResponse;
 import org.example.model.Mensagem;
 import org.example.repository.MensagemRepository;
 
@@ -34,6 +35,17 @@ public abstract class MensagemHelper {
                 .build();
     }
 
+    public static MensagemResponse gerarMensagemResponse() {
+        var mensagem = gerarMensagemCompleta();
+        return new MensagemResponse(
+                mensagem.getId(),
+                mensagem.getUsuario(),
+                mensagem.getConteudo(),
+                mensagem.getDataCriacao(),
+                mensagem.getDataAlteracao(),
+                mensagem.getGostei());
+    }
+
     public static Mensagem registrarMensagem(MensagemRepository repository) {
         var mensagem = gerarMensagem();
         mensagem.setId(UUID.randomUUID());
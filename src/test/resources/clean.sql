@@ -1 +1,2 @@
+DELETE FROM mensagem_historico;
 DELETE FROM mensagem;
\ No newline at end of file